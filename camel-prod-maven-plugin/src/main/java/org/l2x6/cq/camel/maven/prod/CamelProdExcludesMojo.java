@@ -23,12 +23,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -57,17 +54,22 @@ import org.apache.maven.project.MavenProjectHelper;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.l2x6.cq.common.BackgroundDeleter;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqEvents;
+import org.l2x6.cq.common.CqMetrics;
 import org.l2x6.cq.common.OnFailure;
+import org.l2x6.cq.common.PomEditSession;
+import org.l2x6.cq.common.PomWalker;
 import org.l2x6.pom.tuner.MavenSourceTree;
 import org.l2x6.pom.tuner.MavenSourceTree.ActiveProfiles;
-import org.l2x6.pom.tuner.PomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.Transformation;
 import org.l2x6.pom.tuner.PomTransformer.TransformationContext;
 import org.l2x6.pom.tuner.PomTunerUtils;
 import org.l2x6.pom.tuner.model.Dependency;
 import org.l2x6.pom.tuner.model.Ga;
+import org.l2x6.pom.tuner.model.Gav;
 import org.l2x6.pom.tuner.model.Module;
 import org.l2x6.pom.tuner.model.Profile;
 import org.sonatype.plexus.build.incremental.DefaultBuildContext;
@@ -147,6 +149,7 @@ public class CamelProdExcludesMojo extends AbstractMojo {
     @Parameter(defaultValue = "utf-8", required = true, property = "cq.encoding")
     String encoding;
     Charset charset;
+    PomEditSession pomEdits;
 
     /**
      * Skip the execution of the whole mojo.
@@ -182,6 +185,15 @@ public class CamelProdExcludesMojo extends AbstractMojo {
     @Parameter(property = "cq.additionalProductizedArtifactIds", defaultValue = "")
     List<String> additionalProductizedArtifactIds;
 
+    /**
+     * Glob patterns of directories relative to {@link #basedir} that should not be searched for {@code pom.xml}
+     * files, e.g. {@code docs/**}. {@code target}, {@code src} and {@code .git} directories are always skipped.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.pomExcludes")
+    List<String> pomExcludes;
+
     /**
      * Where to write a list of Camel artifacts required by Camel Quarkus productized extensions.
      * It is a text file one artifactId per line.
@@ -223,7 +235,7 @@ public class CamelProdExcludesMojo extends AbstractMojo {
     @Component
     protected MavenProjectHelper projectHelper;
 
-    private Predicate<Path> additionalFiles;
+    private PomWalker pomWalker;
 
     /**
      * Overridden by {@link CamelProdExcludesCheckMojo}.
@@ -241,185 +253,209 @@ public class CamelProdExcludesMojo extends AbstractMojo {
             getLog().info("Skipping as requested by the user");
             return;
         }
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
+        CqEvents.MojoPhase phase = CqEvents.MojoPhase.begin("camel-prod-excludes", "read-includes");
         charset = Charset.forName(encoding);
-        if (additionalProductizedArtifactIds == null) {
-            additionalProductizedArtifactIds = Collections.emptyList();
-        }
-        if (camelCommunityVersion == null || camelCommunityVersion.trim().isEmpty()) {
-            camelCommunityVersion = "3.11.1";
-        }
-        additionalFiles = path -> false;
-
-        /* Collect the initial set of includes */
-        Set<Ga> includes;
         final Path basePath = basedir.toPath();
-        try {
-            includes = Files.lines(basePath.resolve(requiredProductizedCamelArtifacts.toPath()), charset)
-                    .map(line -> new Ga("org.apache.camel", line))
-                    .collect(Collectors.toCollection(TreeSet::new));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        /* Add the additional ones */
-        additionalProductizedArtifactIds.stream()
-                .map(artifactId -> new Ga("org.apache.camel", artifactId))
-                .forEach(includes::add);
-        /*
-         * Let's edit the pom.xml files out of the real source tree if we are just checking or pom editing is not
-         * desired
-         */
-        final Path workRoot = isChecking()
-                ? CqCommonUtils.copyPoms(basePath, basePath.resolve("target/prod-excludes-work"), additionalFiles) : basePath;
-
-        final Path rootPomPath = workRoot.resolve("pom.xml");
-        new PomTransformer(rootPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.addOrSetProperty("camel-community.version", camelCommunityVersion));
+        pomEdits = new PomEditSession(charset, simpleElementWhitespace);
+        try (PomEditSession edits = pomEdits) {
+            if (additionalProductizedArtifactIds == null) {
+                additionalProductizedArtifactIds = Collections.emptyList();
+            }
+            if (camelCommunityVersion == null || camelCommunityVersion.trim().isEmpty()) {
+                camelCommunityVersion = "3.11.1";
+            }
+            pomWalker = PomWalker.poms().excludes(pomExcludes);
+
+            /* Collect the initial set of includes */
+            Set<Ga> includes;
+            try {
+                includes = Files.lines(basePath.resolve(requiredProductizedCamelArtifacts.toPath()), charset)
+                        .map(line -> new Ga("org.apache.camel", line))
+                        .collect(Collectors.toCollection(TreeSet::new));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            /* Add the additional ones */
+            additionalProductizedArtifactIds.stream()
+                    .map(artifactId -> new Ga("org.apache.camel", artifactId))
+                    .forEach(includes::add);
+            /*
+             * Let's edit the pom.xml files out of the real source tree if we are just checking or pom editing is not
+             * desired
+             */
+            phase = phase.next("copy-poms");
+            final Path workRoot = isChecking()
+                    ? CqCommonUtils.copyPoms(basePath, basePath.resolve("target/prod-excludes-work"), pomWalker) : basePath;
+
+            phase = phase.next("load-tree");
+            final Path rootPomPath = workRoot.resolve("pom.xml");
+            pomEdits.transform(rootPomPath, Transformation.addOrSetProperty("camel-community.version", camelCommunityVersion));
+
+            final MavenSourceTree initialTree = pomEdits.loadSourceTree(rootPomPath, Dependency::isVirtual);
+            final Predicate<Profile> profiles = ActiveProfiles.of();
+
+            /* Re-link any previously commented modules */
+            final MavenSourceTree fullTree = initialTree.relinkModules(charset, simpleElementWhitespace, MODULE_COMMENT);
+
+            /* Use community versions of the plugins */
+            Stream.of("dsl/camel-yaml-dsl/camel-yaml-dsl/pom.xml").forEach(relPath -> {
+                pomEdits.transform(workRoot.resolve(relPath), Transformation.setTextValue("/" +
+                        PomTunerUtils.anyNs("plugin", "version") + "[.." + PomTunerUtils.anyNs("groupId")
+                        + "/text() = 'org.apache.camel']",
+                        "${camel-community.version}"));
+            });
 
-        final MavenSourceTree initialTree = MavenSourceTree.of(rootPomPath, charset, Dependency::isVirtual);
-        final Predicate<Profile> profiles = ActiveProfiles.of();
+            /* Make a copy of the originalFullTree */
+            phase = phase.next("prepare-tree-copy");
+            pomEdits.flush();
+            final Path originalFullTreeCopyDir = CqCommonUtils.copyPoms(workRoot,
+                    basePath.resolve("target/originalFullTreeCopy"),
+                    pomWalker);
+
+            /* Remove non-prod components from camel-allcomponents in the copy */
+            pomEdits.transform(originalFullTreeCopyDir.resolve("core/camel-allcomponents/pom.xml"),
+                    Transformation.removeDependency(true, true, gavtcs -> !includes.contains(gavtcs.toGa())));
+
+            /* Remove own plugins from the copy */
+            Stream.of("dsl/camel-yaml-dsl/camel-yaml-dsl/pom.xml").forEach(relPath -> {
+                pomEdits.transform(originalFullTreeCopyDir.resolve(relPath), Transformation.removePlugins(null, true, true,
+                        gavtcs -> gavtcs.getGroupId().equals("org.apache.camel")));
+            });
 
-        /* Re-link any previously commented modules */
-        final MavenSourceTree fullTree = initialTree.relinkModules(charset, simpleElementWhitespace, MODULE_COMMENT);
+            /* Remove all own test deps and any camel-spring* deps in the copy */
+            fullTree.getModulesByGa().values().forEach(module -> {
+                final List<Transformation> transformations = new ArrayList<>();
+
+                module.getProfiles().stream()
+                        .filter(profile -> !profile.getDependencies().isEmpty())
+                        .forEach(profile -> {
+                            transformations.add(Transformation.removeDependencies(profile.getId(), true, true,
+                                    gavtcs -> "org.apache.camel".equals(gavtcs.getGroupId())
+                                            && ("test".equals(gavtcs.getScope())
+                                                    || gavtcs.getArtifactId().startsWith("camel-spring"))));
+                        });
+
+                if (!transformations.isEmpty()) {
+                    pomEdits.transform(originalFullTreeCopyDir.resolve(module.getPomPath()), transformations);
+                }
+            });
 
-        /* Use community versions of the plugins */
-        Stream.of("dsl/camel-yaml-dsl/camel-yaml-dsl/pom.xml").forEach(relPath -> {
-            new PomTransformer(workRoot.resolve(relPath), charset, simpleElementWhitespace)
-                    .transform(Transformation.setTextValue("/" +
-                            PomTunerUtils.anyNs("plugin", "version") + "[.." + PomTunerUtils.anyNs("groupId")
-                            + "/text() = 'org.apache.camel']",
-                            "${camel-community.version}"));
-        });
-
-        /* Make a copy of the originalFullTree */
-        final Path originalFullTreeCopyDir = CqCommonUtils.copyPoms(workRoot, basePath.resolve("target/originalFullTreeCopy"),
-                additionalFiles);
-
-        /* Remove non-prod components from camel-allcomponents in the copy */
-        new PomTransformer(originalFullTreeCopyDir.resolve("core/camel-allcomponents/pom.xml"), charset,
-                simpleElementWhitespace)
-                        .transform(Transformation.removeDependency(true, true, gavtcs -> !includes.contains(gavtcs.toGa())));
-
-        /* Remove own plugins from the copy */
-        Stream.of("dsl/camel-yaml-dsl/camel-yaml-dsl/pom.xml").forEach(relPath -> {
-            new PomTransformer(originalFullTreeCopyDir.resolve(relPath), charset, simpleElementWhitespace)
-                    .transform(Transformation.removePlugins(null, true, true,
-                            gavtcs -> gavtcs.getGroupId().equals("org.apache.camel")));
-        });
-
-        /* Remove all own test deps and any camel-spring* deps in the copy */
-        fullTree.getModulesByGa().values().forEach(module -> {
-            final List<Transformation> transformations = new ArrayList<>();
-
-            module.getProfiles().stream()
-                    .filter(profile -> !profile.getDependencies().isEmpty())
-                    .forEach(profile -> {
-                        transformations.add(Transformation.removeDependencies(profile.getId(), true, true,
-                                gavtcs -> "org.apache.camel".equals(gavtcs.getGroupId()) && ("test".equals(gavtcs.getScope())
-                                        || gavtcs.getArtifactId().startsWith("camel-spring"))));
-                    });
+            /* Re-read the copy after the above changes */
+            final MavenSourceTree originalFullTreeCopy = pomEdits.loadSourceTree(originalFullTreeCopyDir.resolve("pom.xml"),
+                    Dependency::isVirtual);
 
-            if (!transformations.isEmpty()) {
-                new PomTransformer(originalFullTreeCopyDir.resolve(module.getPomPath()), charset, simpleElementWhitespace)
-                        .transform(transformations);
+            /* Add the modules required by the includes */
+            phase = phase.next("analyze");
+            final Set<Ga> expandedIncludes = new TreeSet<>(originalFullTreeCopy.findRequiredModules(includes, profiles));
+            getLog().info("expandedIncludes:");
+            for (Ga ga : expandedIncludes) {
+                getLog().info(" - " + ga.getArtifactId());
             }
-        });
 
-        /* Re-read the copy after the above changes */
-        final MavenSourceTree originalFullTreeCopy = MavenSourceTree.of(originalFullTreeCopyDir.resolve("pom.xml"), charset,
-                Dependency::isVirtual);
+            versionStylesByPath = new HashMap<>();
+            fullTree.getModulesByGa().values().stream()
+                    .forEach(m -> VersionStyle.autodetect(m, camelCommunityVersion, project.getVersion(), expandedIncludes)
+                            .ifPresent(vs -> versionStylesByPath.put(m.getPomPath(), vs)));
+
+            final Set<Ga> excludes = fullTree.complement(expandedIncludes);
+            final String exclText = excludes.stream()
+                    .map(ga -> ":" + ga.getArtifactId())
+                    .sorted()
+                    .collect(Collectors.joining("\n"));
+            try {
+                Files.write(basePath.resolve(".mvn/excludes.txt"), exclText.getBytes(charset));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            /*
+             * Deleting hundreds of target directories takes a while, so let's do it in the background. The threads are
+             * daemons and anything left behind in the trash after a failure gets deleted by the next run
+             */
+            phase = phase.next("clean-excluded-targets");
+            try (BackgroundDeleter deleter = new BackgroundDeleter(basePath.resolve("target/cq-trash"),
+                    BackgroundDeleter.DEFAULT_THREADS)) {
+                handleExcludedTargetDirectories(basePath, fullTree, excludes, profiles, deleter);
+
+                phase = phase.next("minimize-tree");
+                updateVersions(fullTree, profiles);
+
+                /* Comment all non-productized modules in the tree */
+                pomEdits.flush();
+                fullTree.unlinkModules(expandedIncludes, profiles, charset, simpleElementWhitespace,
+                        (Set<String> unlinkModules) -> Transformation.commentModules(unlinkModules, MODULE_COMMENT));
+
+                /* Replace ${project.version} with ${camel-community.version} where necessary */
+                final MavenSourceTree reducedTree = pomEdits.loadSourceTree(rootPomPath, Dependency::isVirtual);
+                reducedTree.getModulesByGa().values().forEach(module -> {
+                    final List<Transformation> transformations = new ArrayList<>();
+
+                    for (Profile profile : module.getProfiles()) {
+                        if (!profile.getDependencies().isEmpty()) {
+                            profile.getDependencies().stream()
+                                    .filter(dep -> "org.apache.camel".equals(dep.getGroupId().asConstant())
+                                            && dep.getVersion() != null)
+                                    .forEach(dep -> {
+                                        final Ga ga = new Ga(dep.getGroupId().asConstant(), dep.getArtifactId().asConstant());
+                                        final VersionStyle vs = versionStylesByPath.get(module.getPomPath());
+                                        vs.getTransformation(false, excludes.contains(ga), profile.getId(), ga,
+                                                dep.getVersion().getRawExpression())
+                                                .ifPresent(transformations::add);
+                                    });
+                        }
 
-        /* Add the modules required by the includes */
-        final Set<Ga> expandedIncludes = new TreeSet<>(originalFullTreeCopy.findRequiredModules(includes, profiles));
-        getLog().info("expandedIncludes:");
-        for (Ga ga : expandedIncludes) {
-            getLog().info(" - " + ga.getArtifactId());
-        }
+                        if (!profile.getDependencyManagement().isEmpty()) {
+                            profile.getDependencyManagement().stream()
+                                    .filter(dep -> "org.apache.camel".equals(dep.getGroupId().asConstant())
+                                            && !"camel-bom".equals(dep.getArtifactId().asConstant()))
+                                    .forEach(dep -> {
+                                        final Ga ga = new Ga(dep.getGroupId().asConstant(), dep.getArtifactId().asConstant());
+                                        final VersionStyle vs = versionStylesByPath.get(module.getPomPath());
+                                        vs.getTransformation(true, excludes.contains(ga), profile.getId(), ga,
+                                                dep.getVersion().getRawExpression())
+                                                .ifPresent(transformations::add);
+                                    });
+                        }
+                    }
+                    if (!transformations.isEmpty()) {
+                        pomEdits.transform(workRoot.resolve(module.getPomPath()), transformations);
+                    }
+                });
+                Stream.of("pom.xml", "parent/pom.xml").forEach(relPath -> {
+                    pomEdits.transform(workRoot.resolve(relPath), Transformation.setTextValue("/" +
+                            PomTunerUtils.anyNs("dependency", "version") + "[.." + PomTunerUtils.anyNs("artifactId")
+                            + "/text() = 'camel-buildtools']",
+                            "${camel-community.version}"));
+                });
 
-        versionStylesByPath = new HashMap<>();
-        fullTree.getModulesByGa().values().stream()
-                .forEach(m -> VersionStyle.autodetect(m, camelCommunityVersion, project.getVersion(), expandedIncludes)
-                        .ifPresent(vs -> versionStylesByPath.put(m.getPomPath(), vs)));
-
-        final Set<Ga> excludes = fullTree.complement(expandedIncludes);
-        final String exclText = excludes.stream()
-                .map(ga -> ":" + ga.getArtifactId())
-                .sorted()
-                .collect(Collectors.joining("\n"));
-        try {
-            Files.write(basePath.resolve(".mvn/excludes.txt"), exclText.getBytes(charset));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        handleExcludedTargetDirectories(basePath, fullTree, excludes, profiles);
-
-        updateVersions(fullTree, profiles);
-
-        /* Comment all non-productized modules in the tree */
-        fullTree.unlinkModules(expandedIncludes, profiles, charset, simpleElementWhitespace,
-                (Set<String> unlinkModules) -> Transformation.commentModules(unlinkModules, MODULE_COMMENT));
-
-        /* Replace ${project.version} with ${camel-community.version} where necessary */
-        final MavenSourceTree reducedTree = MavenSourceTree.of(rootPomPath, charset, Dependency::isVirtual);
-        reducedTree.getModulesByGa().values().forEach(module -> {
-            final List<Transformation> transformations = new ArrayList<>();
-
-            for (Profile profile : module.getProfiles()) {
-                if (!profile.getDependencies().isEmpty()) {
-                    profile.getDependencies().stream()
-                            .filter(dep -> "org.apache.camel".equals(dep.getGroupId().asConstant()) && dep.getVersion() != null)
-                            .forEach(dep -> {
-                                final Ga ga = new Ga(dep.getGroupId().asConstant(), dep.getArtifactId().asConstant());
-                                final VersionStyle vs = versionStylesByPath.get(module.getPomPath());
-                                vs.getTransformation(false, excludes.contains(ga), profile.getId(), ga,
-                                        dep.getVersion().getRawExpression())
-                                        .ifPresent(transformations::add);
-                            });
+                pomEdits.flush();
+
+                if (isChecking() && onCheckFailure != OnFailure.IGNORE) {
+                    phase = phase.next("assert-poms-match");
+                    final MavenSourceTree finalTree = CqCommonUtils.loadSourceTree(rootPomPath, charset, Dependency::isVirtual);
+                    CqCommonUtils.assertPomsMatch(
+                            workRoot,
+                            basePath,
+                            finalTree.getModulesByPath().keySet(),
+                            pomWalker,
+                            charset,
+                            basedir.toPath(),
+                            requiredProductizedCamelArtifacts.toPath(),
+                            onCheckFailure,
+                            getLog()::warn);
                 }
 
-                if (!profile.getDependencyManagement().isEmpty()) {
-                    profile.getDependencyManagement().stream()
-                            .filter(dep -> "org.apache.camel".equals(dep.getGroupId().asConstant())
-                                    && !"camel-bom".equals(dep.getArtifactId().asConstant()))
-                            .forEach(dep -> {
-                                final Ga ga = new Ga(dep.getGroupId().asConstant(), dep.getArtifactId().asConstant());
-                                final VersionStyle vs = versionStylesByPath.get(module.getPomPath());
-                                vs.getTransformation(true, excludes.contains(ga), profile.getId(), ga,
-                                        dep.getVersion().getRawExpression())
-                                        .ifPresent(transformations::add);
-                            });
-                }
-            }
-            if (!transformations.isEmpty()) {
-                new PomTransformer(workRoot.resolve(module.getPomPath()), charset, simpleElementWhitespace)
-                        .transform(transformations);
+                phase = phase.next("await-deletions");
             }
-        });
-        Stream.of("pom.xml", "parent/pom.xml").forEach(relPath -> {
-            new PomTransformer(workRoot.resolve(relPath), charset, simpleElementWhitespace)
-                    .transform(Transformation.setTextValue("/" +
-                            PomTunerUtils.anyNs("dependency", "version") + "[.." + PomTunerUtils.anyNs("artifactId")
-                            + "/text() = 'camel-buildtools']",
-                            "${camel-community.version}"));
-        });
-
-        if (isChecking() && onCheckFailure != OnFailure.IGNORE) {
-            final MavenSourceTree finalTree = MavenSourceTree.of(rootPomPath, charset, Dependency::isVirtual);
-            CqCommonUtils.assertPomsMatch(
-                    workRoot,
-                    basePath,
-                    finalTree.getModulesByPath().keySet(),
-                    additionalFiles,
-                    charset,
-                    basedir.toPath(),
-                    requiredProductizedCamelArtifacts.toPath(),
-                    onCheckFailure,
-                    getLog()::warn);
+            phase.commit();
+        } finally {
+            CqMetrics.getInstance().report("camel-prod-excludes", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-camel-prod-excludes.json"));
         }
-
     }
 
     void handleExcludedTargetDirectories(final Path basePath, final MavenSourceTree fullTree, final Set<Ga> excludes,
-            Predicate<Profile> profiles) {
+            Predicate<Profile> profiles, BackgroundDeleter deleter) {
         /* Clean the target folders in all excluded modules so that Camel plugins do not see any stale content there */
         excludes.stream()
                 .map(ga -> fullTree.getModulesByGa().get(ga))
@@ -428,20 +464,25 @@ public class CamelProdExcludesMojo extends AbstractMojo {
                 .map(Path::getParent)
                 .map(absPath -> absPath.resolve("target"))
                 .filter(Files::isDirectory)
-                .forEach(CqCommonUtils::deleteDirectory);
+                .forEach(deleter::delete);
 
         /*
          * Unpack the community jars of excluded components to their target/classes so that Camel plugins find it there
          */
-        project.getBasedir();
-        excludes.stream()
+        final List<Module> excludedComponents = excludes.stream()
                 .map(ga -> fullTree.getModulesByGa().get(ga))
                 .filter(CamelProdExcludesMojo::isComponent)
+                .collect(Collectors.toList());
+        final Map<String, Gav> communityGavs = excludedComponents.stream()
+                .map(module -> module.getGav().getArtifactId().asConstant())
+                .collect(Collectors.toMap(artifactId -> artifactId,
+                        artifactId -> new Gav("org.apache.camel", artifactId, camelCommunityVersion)));
+        final Map<Gav, Path> communityJars = CqCommonUtils.resolveArtifacts(Paths.get(localRepository),
+                communityGavs.values(), "jar", repositories, repoSystem, repoSession);
+        excludedComponents
                 .forEach(module -> {
                     final String artifactId = module.getGav().getArtifactId().asConstant();
-                    final Path jarPath = CqCommonUtils.resolveArtifact(Paths.get(localRepository), "org.apache.camel",
-                            artifactId,
-                            camelCommunityVersion, "jar", repositories, repoSystem, repoSession);
+                    final Path jarPath = communityJars.get(communityGavs.get(artifactId));
                     final Path pomFilePath = basePath.resolve(module.getPomPath());
                     final Path moduleBaseDir = pomFilePath.getParent();
                     final File outputDir = moduleBaseDir.resolve("target/classes").toFile();
@@ -501,50 +542,19 @@ public class CamelProdExcludesMojo extends AbstractMojo {
                 final String moduleVersion = module.getParentGav().getVersion().asConstant();
                 if (!expectedVersion.equals(moduleVersion)) {
                     final Path pomPath = fullTree.getRootDirectory().resolve(module.getPomPath());
-                    new PomTransformer(pomPath, charset, simpleElementWhitespace)
-                            .transform(
-                                    (Document document, TransformationContext context) -> {
-                                        context
-                                                .getContainerElement("project", "parent")
-                                                .ifPresent(
-                                                        parent -> parent.addOrSetChildTextElement("version", expectedVersion));
-                                    });
+                    pomEdits.transform(pomPath, (Document document, TransformationContext context) -> {
+                        context
+                                .getContainerElement("project", "parent")
+                                .ifPresent(
+                                        parent -> parent.addOrSetChildTextElement("version", expectedVersion));
+                    });
                 }
             }
         }
     }
 
     void visitPoms(Path src, Consumer<Path> pomConsumer) {
-        Set<Path> paths = new TreeSet<>();
-        try {
-            Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
-
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                        throws IOException {
-                    final String dirName = dir.getFileName().toString();
-                    if ((dirName.equals("target") || dirName.equals("src"))
-                            && Files.isRegularFile(dir.getParent().resolve("pom.xml"))) {
-                        return FileVisitResult.SKIP_SUBTREE;
-                    } else {
-                        return FileVisitResult.CONTINUE;
-                    }
-                }
-
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    final String fileName = file.getFileName().toString();
-                    if (fileName.equals("pom.xml")) {
-                        paths.add(file);
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
-        } catch (IOException e) {
-            throw new RuntimeException("Could not visit pom.xml files under " + src, e);
-        }
-        paths.stream()
-                .forEach(pomConsumer);
+        pomWalker.walk(src).forEach(pomConsumer);
     }
 
     public static class VersionStyle {
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes directories on background threads. Each directory passed to {@link #delete(Path)} is first atomically moved
+ * to a trash directory, so that the caller can immediately re-create it. If moving is not possible, e.g. because the
+ * trash directory is on another file system, the directory is deleted on the calling thread.
+ * <p>
+ * Call {@link #close()} to wait for all pending deletions.
+ */
+public final class BackgroundDeleter implements AutoCloseable {
+    /** The default number of threads deleting in parallel */
+    public static final int DEFAULT_THREADS = 2;
+
+    private final Path trashDir;
+    private final ExecutorService executor;
+    private final List<Future<?>> pending = new ArrayList<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Creates a new {@link BackgroundDeleter} and schedules the deletion of any content left in the {@code trashDir}
+     * by previous runs.
+     *
+     * @param trashDir the directory to move the directories to delete to; should be on the same file system as the
+     *                 directories to delete
+     * @param threads  the number of threads to use for deleting
+     */
+    public BackgroundDeleter(Path trashDir, int threads) {
+        this.trashDir = trashDir;
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "cq-background-deleter-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        if (Files.isDirectory(trashDir)) {
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(trashDir)) {
+                for (Path leftover : leftovers) {
+                    submit(leftover);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not list " + trashDir, e);
+            }
+        }
+    }
+
+    /**
+     * Moves the given {@code directory} to the trash directory and deletes it in the background. Does nothing if
+     * {@code directory} does not exist.
+     *
+     * @param directory the directory to delete
+     */
+    public void delete(Path directory) {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        final Path trashPath = trashDir
+                .resolve(directory.getFileName().toString() + "-" + System.nanoTime() + "-" + counter.incrementAndGet());
+        try {
+            Files.createDirectories(trashDir);
+            Files.move(directory, trashPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            /* Cannot move; let's delete it here and now */
+            CqCommonUtils.deleteDirectory(directory);
+            return;
+        }
+        submit(trashPath);
+    }
+
+    void submit(Path trashPath) {
+        final Future<?> future = executor.submit(() -> CqCommonUtils.deleteDirectory(trashPath));
+        synchronized (pending) {
+            pending.add(future);
+        }
+    }
+
+    /**
+     * Waits for all pending deletions to finish.
+     *
+     * @throws RuntimeException if any of the pending deletions failed
+     */
+    public void join() {
+        final List<Future<?>> futures;
+        synchronized (pending) {
+            futures = new ArrayList<>(pending);
+            pending.clear();
+        }
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for directories under " + trashDir + " to be deleted",
+                        e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new RuntimeException("Could not delete directories under " + trashDir, e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * {@link #join() Joins} all pending deletions and shuts down the background threads.
+     */
+    @Override
+    public void close() {
+        try {
+            join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.l2x6.cq.common.CqCatalog.Index;
+
+/**
+ * A process wide LRU cache of the parsed models of all open {@link CqCatalog}s. The cache is bounded by the total
+ * number of models it holds, so that sessions working with many catalog versions stay within a fixed heap budget.
+ * Evicted catalogs get reloaded upon next use; that is fast for jar catalogs having a {@link CatalogSnapshot} and
+ * means parsing JSON again for all others.
+ * <p>
+ * The {@link Index} of a catalog is attached to the catalog itself, so that lookups do not take any lock and the
+ * models of a catalog that is not referenced anymore are released together with it. The cache refers to the
+ * catalogs only weakly.
+ */
+public final class CatalogModelCache {
+    /** The system property to set the maximum number of models held by the cache */
+    public static final String MAX_MODELS_PROPERTY = "cq.catalog.maxCachedModels";
+    /** The default maximum number of models held by the cache, enough for about ten catalogs */
+    public static final int DEFAULT_MAX_MODELS = 8192;
+
+    private static final CatalogModelCache instance = new CatalogModelCache(
+            Integer.getInteger(MAX_MODELS_PROPERTY, DEFAULT_MAX_MODELS));
+
+    /**
+     * @return the process wide {@link CatalogModelCache}
+     */
+    public static CatalogModelCache getInstance() {
+        return instance;
+    }
+
+    private final int maxModels;
+    private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<CqCatalog> collected = new ReferenceQueue<>();
+    /** A logical clock for recording the last access of the entries */
+    private final AtomicLong clock = new AtomicLong();
+    /** Guarded by {@code this} */
+    private int modelCount;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    CatalogModelCache(int maxModels) {
+        this.maxModels = maxModels;
+    }
+
+    /**
+     * @param  catalog the catalog whose {@link Index} should be returned
+     * @param  loader  loads the {@link Index} in case it is not cached
+     * @return         the cached or newly loaded {@link Index} of the given {@code catalog}
+     */
+    Index get(CqCatalog catalog, Supplier<Index> loader) {
+        Entry entry = catalog.cacheEntry;
+        if (entry != null) {
+            entry.lastAccess = clock.incrementAndGet();
+            hits.increment();
+            return entry.index;
+        }
+        /* Load outside of the cache lock so that loading one catalog does not block the others */
+        synchronized (catalog) {
+            entry = catalog.cacheEntry;
+            if (entry != null) {
+                entry.lastAccess = clock.incrementAndGet();
+                hits.increment();
+                return entry.index;
+            }
+            misses.increment();
+            final Index result = loader.get();
+            put(catalog, result);
+            return result;
+        }
+    }
+
+    synchronized void put(CqCatalog catalog, Index index) {
+        expungeCollected();
+        final Entry old = catalog.cacheEntry;
+        if (old != null && entries.remove(old)) {
+            modelCount -= old.index.size();
+        }
+        final Entry entry = new Entry(catalog, index, clock.incrementAndGet(), collected);
+        entries.add(entry);
+        catalog.cacheEntry = entry;
+        modelCount += index.size();
+        /* Keep at least the most recent entry even if it is bigger than the limit */
+        while (modelCount > maxModels && entries.size() > 1) {
+            final Entry eldest = entries.stream()
+                    .filter(e -> e != entry)
+                    .min(Comparator.comparingLong(e -> e.lastAccess))
+                    .get();
+            evict(eldest);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes the models of the given {@code catalog} from this cache, typically because the catalog was closed.
+     *
+     * @param catalog the catalog to remove
+     */
+    synchronized void remove(CqCatalog catalog) {
+        final Entry entry = catalog.cacheEntry;
+        if (entry != null) {
+            evict(entry);
+        }
+    }
+
+    /** Must be called while holding the lock of this cache */
+    void evict(Entry entry) {
+        if (entries.remove(entry)) {
+            modelCount -= entry.index.size();
+        }
+        final CqCatalog catalog = entry.get();
+        if (catalog != null && catalog.cacheEntry == entry) {
+            catalog.cacheEntry = null;
+        }
+    }
+
+    /** Must be called while holding the lock of this cache */
+    void expungeCollected() {
+        for (Reference<? extends CqCatalog> ref; (ref = collected.poll()) != null;) {
+            final Entry entry = (Entry) ref;
+            if (entries.remove(entry)) {
+                modelCount -= entry.index.size();
+            }
+        }
+    }
+
+    /**
+     * @return the maximum number of models this cache can hold
+     */
+    public int getMaxModels() {
+        return maxModels;
+    }
+
+    /**
+     * @return the number of models currently held by this cache
+     */
+    public synchronized int getModelCount() {
+        expungeCollected();
+        return modelCount;
+    }
+
+    /**
+     * @return the number of catalogs currently held by this cache
+     */
+    public synchronized int getCatalogCount() {
+        expungeCollected();
+        return entries.size();
+    }
+
+    /**
+     * @return how many times the models of a catalog were found in this cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many times the models of a catalog had to be loaded
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return how many times the models of a catalog were evicted from this cache to stay within the size limit
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CatalogModelCache [catalogs: " + entries.size() + ", models: " + modelCount + "/" + maxModels + ", hits: "
+                + hits + ", misses: " + misses + ", evictions: " + evictions + "]";
+    }
+
+    /**
+     * The {@link Index} of a {@link CqCatalog} referenced by the catalog itself and weakly by the cache.
+     */
+    static final class Entry extends WeakReference<CqCatalog> {
+        private final Index index;
+        private volatile long lastAccess;
+
+        Entry(CqCatalog catalog, Index index, long lastAccess, ReferenceQueue<CqCatalog> queue) {
+            super(catalog, queue);
+            this.index = index;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,484 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.camel.catalog.Kind;
+import org.apache.camel.tooling.model.ArtifactModel;
+import org.apache.camel.tooling.model.ComponentModel;
+import org.apache.camel.tooling.model.DataFormatModel;
+import org.apache.camel.tooling.model.LanguageModel;
+import org.apache.camel.tooling.model.OtherModel;
+
+/**
+ * A compact binary representation of all {@link ArtifactModel}s of a catalog, so that they do not need to be parsed
+ * from JSON on every use.
+ * <p>
+ * The file consists of a header with the format version and a key identifying the source catalog, a table of all
+ * distinct strings, a table of the model names and the model records themselves. The fields of the models are
+ * stored via reflection, so that all data available in the original JSON files survives the round trip. Because of
+ * that, the key includes the version of this plugin and a hash of the class and field layout of the model classes,
+ * so that a snapshot written against another version of {@code camel-tooling-model} is never read. The files are
+ * read into a heap {@link ByteBuffer} in one go rather than memory mapped, so that no mapping keeps the file locked
+ * on Windows.
+ */
+class CatalogSnapshot {
+    /** The suffix appended to the file name of the catalog jar to get the name of the snapshot file */
+    static final String SUFFIX = ".cq-snapshot";
+    private static final int MAGIC = 0x43514353; // CQCS
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte BIG_DECIMAL = 7;
+    private static final byte BIG_INTEGER = 8;
+    private static final byte ENUM = 9;
+    private static final byte LIST = 10;
+    private static final byte OBJECT = 11;
+
+    private static final Map<Class<?>, List<Field>> fieldsCache = new ConcurrentHashMap<>();
+    /** The only package whose classes may be stored in a snapshot */
+    private static final String MODEL_PACKAGE = ArtifactModel.class.getPackage().getName() + ".";
+    /** The root classes of the models stored in snapshots */
+    private static final List<Class<?>> MODEL_CLASSES = Collections.unmodifiableList(Arrays.asList(
+            ComponentModel.class, DataFormatModel.class, LanguageModel.class, OtherModel.class));
+    private static volatile String layoutKey;
+
+    /**
+     * @param  jarPath the path to a catalog jar
+     * @return         the path to the snapshot file of the given catalog jar
+     */
+    static Path snapshotPath(Path jarPath) {
+        return jarPath.resolveSibling(jarPath.getFileName().toString() + SUFFIX);
+    }
+
+    /**
+     * @param  jarPath the path to a catalog jar
+     * @return         a key changing whenever the given catalog jar, this plugin or the layout of the model classes
+     *                 changes
+     */
+    static String key(Path jarPath) {
+        try {
+            return jarPath.getFileName() + ":" + Files.size(jarPath) + ":" + Files.getLastModifiedTime(jarPath).toMillis()
+                    + ":" + layoutKey();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read attributes of " + jarPath, e);
+        }
+    }
+
+    /**
+     * @return the version of this plugin and a hash of {@link #layout(List)} of the model classes
+     */
+    static String layoutKey() {
+        String result = layoutKey;
+        if (result == null) {
+            layoutKey = result = pluginVersion() + ":"
+                    + sha1(layout(MODEL_CLASSES).getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    static String sha1(byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            final StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String pluginVersion() {
+        try (InputStream in = CatalogSnapshot.class
+                .getResourceAsStream("/META-INF/maven/org.l2x6.cq/cq-common/pom.properties")) {
+            if (in != null) {
+                final Properties props = new Properties();
+                props.load(in);
+                return props.getProperty("version", "unknown");
+            }
+        } catch (IOException e) {
+            /* fall through */
+        }
+        /* Not packaged yet, e.g. when running from target/classes */
+        return "unknown";
+    }
+
+    /**
+     * @param  roots the classes to start from
+     * @return       a description of the given classes and of all model classes reachable through their fields, listing
+     *               the names and generic types of the fields as stored by {@link Writer} as well as the constants of
+     *               enums
+     */
+    static String layout(List<Class<?>> roots) {
+        final StringBuilder result = new StringBuilder();
+        final Set<Class<?>> seen = new HashSet<>();
+        final Deque<Class<?>> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            final Class<?> cl = queue.poll();
+            if (!seen.add(cl)) {
+                continue;
+            }
+            result.append(cl.getName()).append('{');
+            if (cl.isEnum()) {
+                for (Object constant : cl.getEnumConstants()) {
+                    result.append(((Enum<?>) constant).name()).append(',');
+                }
+            } else {
+                for (Field field : fields(cl)) {
+                    result.append(field.getDeclaringClass().getSimpleName()).append('.').append(field.getName())
+                            .append(':').append(field.getGenericType().getTypeName()).append(';');
+                    addModelClasses(field.getGenericType(), queue);
+                }
+            }
+            result.append('}');
+        }
+        return result.toString();
+    }
+
+    static void addModelClasses(Type type, Deque<Class<?>> queue) {
+        if (type instanceof Class) {
+            final Class<?> cl = (Class<?>) type;
+            if (cl.getName().startsWith(ArtifactModel.class.getPackage().getName() + ".")) {
+                queue.add(cl);
+            }
+        } else if (type instanceof ParameterizedType) {
+            addModelClasses(((ParameterizedType) type).getRawType(), queue);
+            for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
+                addModelClasses(arg, queue);
+            }
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                addModelClasses(bound, queue);
+            }
+        }
+    }
+
+    /**
+     * Stores the given models in the given {@code file} atomically.
+     *
+     * @param  file         where to store the snapshot
+     * @param  key          the key of the catalog to store
+     * @param  modelsByKind the models to store
+     * @throws IOException  on any I/O problems
+     */
+    static void write(Path file, String key, Map<Kind, List<ArtifactModel<?>>> modelsByKind) throws IOException {
+        final Writer writer = new Writer();
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        final DataOutputStream recordsOut = new DataOutputStream(records);
+        final List<int[]> index = new ArrayList<>();
+        for (Map.Entry<Kind, List<ArtifactModel<?>>> en : modelsByKind.entrySet()) {
+            for (ArtifactModel<?> model : en.getValue()) {
+                index.add(new int[] { en.getKey().ordinal(), writer.stringId(model.getName()), recordsOut.size() });
+                writer.writeValue(recordsOut, model);
+            }
+        }
+        recordsOut.flush();
+
+        Files.createDirectories(file.getParent());
+        final Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (OutputStream fileOut = Files.newOutputStream(tmp); DataOutputStream out = new DataOutputStream(fileOut)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, key);
+            out.writeInt(writer.strings.size());
+            for (String s : writer.strings) {
+                writeString(out, s);
+            }
+            out.writeInt(index.size());
+            for (int[] entry : index) {
+                out.writeByte(entry[0]);
+                out.writeInt(entry[1]);
+                out.writeInt(entry[2]);
+            }
+            out.writeInt(records.size());
+            records.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param  file the snapshot file to read
+     * @param  key  the expected key of the catalog
+     * @return      the models stored in the given {@code file} or {@code null} if the file does not exist, was
+     *              written for some other {@code key} or by some incompatible version of this class
+     */
+    static Map<Kind, List<ArtifactModel<?>>> read(Path file, String key) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION || !key.equals(readString(buf))) {
+                return null;
+            }
+            final String[] strings = new String[buf.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(buf);
+            }
+            final int modelCount = buf.getInt();
+            final Kind[] kinds = Kind.values();
+            final Kind[] modelKinds = new Kind[modelCount];
+            for (int i = 0; i < modelCount; i++) {
+                modelKinds[i] = kinds[buf.get()];
+                /* The name and the offset are not needed when reading all models */
+                buf.getInt();
+                buf.getInt();
+            }
+            final int recordsLength = buf.getInt();
+            final ByteBuffer records = buf.slice();
+            records.limit(recordsLength);
+
+            final Reader reader = new Reader(strings);
+            final Map<Kind, List<ArtifactModel<?>>> result = new EnumMap<>(Kind.class);
+            CqCatalog.kinds().forEach(kind -> result.put(kind, new ArrayList<>()));
+            for (int i = 0; i < modelCount; i++) {
+                result.get(modelKinds[i]).add((ArtifactModel<?>) reader.readValue(records));
+            }
+            return result;
+        } catch (IOException | RuntimeException | ReflectiveOperationException e) {
+            /* Corrupted or incompatible; the caller is going to re-create it */
+            return null;
+        }
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buf) {
+        final byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param  cl the class to inspect
+     * @return    all non-static fields of the given class and its superclasses in a stable order
+     */
+    static List<Field> fields(Class<?> cl) {
+        return fieldsCache.computeIfAbsent(cl, k -> {
+            final List<Field> result = new ArrayList<>();
+            for (Class<?> c = k; c != Object.class; c = c.getSuperclass()) {
+                final List<Field> declared = new ArrayList<>();
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers()) && !f.isSynthetic()) {
+                        f.setAccessible(true);
+                        declared.add(f);
+                    }
+                }
+                declared.sort((f1, f2) -> f1.getName().compareTo(f2.getName()));
+                result.addAll(0, declared);
+            }
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    static class Writer {
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int stringId(String s) {
+            return stringIds.computeIfAbsent(s, k -> {
+                strings.add(k);
+                return strings.size() - 1;
+            });
+        }
+
+        void writeValue(DataOutputStream out, Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String) {
+                out.writeByte(STRING);
+                out.writeInt(stringId((String) value));
+            } else if (value instanceof Boolean) {
+                out.writeByte(((Boolean) value).booleanValue() ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof BigDecimal) {
+                out.writeByte(BIG_DECIMAL);
+                out.writeInt(stringId(value.toString()));
+            } else if (value instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                out.writeInt(stringId(value.toString()));
+            } else if (value instanceof Enum
+                    && ((Enum<?>) value).getDeclaringClass().getName().startsWith(MODEL_PACKAGE)) {
+                out.writeByte(ENUM);
+                out.writeInt(stringId(((Enum<?>) value).getDeclaringClass().getName()));
+                out.writeInt(stringId(((Enum<?>) value).name()));
+            } else if (value instanceof List) {
+                final List<?> list = (List<?>) value;
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object item : list) {
+                    writeValue(out, item);
+                }
+            } else if (value.getClass().getName().startsWith(MODEL_PACKAGE)) {
+                out.writeByte(OBJECT);
+                out.writeInt(stringId(value.getClass().getName()));
+                for (Field field : fields(value.getClass())) {
+                    try {
+                        writeValue(out, field.get(value));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Could not read " + field, e);
+                    }
+                }
+            } else {
+                throw new IllegalStateException("Cannot store values of type " + value.getClass().getName());
+            }
+        }
+    }
+
+    static class Reader {
+        private final String[] strings;
+        private final Map<String, Class<?>> classes = new LinkedHashMap<>();
+
+        Reader(String[] strings) {
+            this.strings = strings;
+        }
+
+        /**
+         * The snapshot lives in the local Maven repository where anybody could have tampered with it, so only the
+         * model classes the writer can emit are accepted.
+         *
+         * @param  name                   the name of the class to load
+         * @param  isEnum                 {@code true} if an enum is expected; {@code false} if a model class is
+         *                                expected
+         * @return                        the loaded {@link Class}
+         * @throws ClassNotFoundException if the class does not exist
+         * @throws IllegalStateException  if the class could not have been written by {@link Writer}
+         */
+        Class<?> loadClass(String name, boolean isEnum) throws ClassNotFoundException {
+            Class<?> result = classes.get(name);
+            if (result == null) {
+                if (!name.startsWith(MODEL_PACKAGE)) {
+                    throw new IllegalStateException("Unexpected class " + name + " in a catalog snapshot");
+                }
+                result = Class.forName(name, false, CatalogSnapshot.class.getClassLoader());
+                classes.put(name, result);
+            }
+            if (result.isEnum() != isEnum) {
+                throw new IllegalStateException("Unexpected " + (isEnum ? "non-enum" : "enum") + " class " + name
+                        + " in a catalog snapshot");
+            }
+            return result;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Object readValue(ByteBuffer buf) throws ReflectiveOperationException {
+            final byte tag = buf.get();
+            switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return strings[buf.getInt()];
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return buf.getInt();
+            case LONG:
+                return buf.getLong();
+            case DOUBLE:
+                return buf.getDouble();
+            case BIG_DECIMAL:
+                return new BigDecimal(strings[buf.getInt()]);
+            case BIG_INTEGER:
+                return new BigInteger(strings[buf.getInt()]);
+            case ENUM: {
+                final Class enumClass = loadClass(strings[buf.getInt()], true);
+                return Enum.valueOf(enumClass, strings[buf.getInt()]);
+            }
+            case LIST: {
+                final int size = buf.getInt();
+                final List<Object> result = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    result.add(readValue(buf));
+                }
+                return result;
+            }
+            case OBJECT: {
+                final Class<?> cl = loadClass(strings[buf.getInt()], false);
+                final Object result = cl.getDeclaredConstructor().newInstance();
+                for (Field field : fields(cl)) {
+                    final Object value = readValue(buf);
+                    if (Modifier.isFinal(field.getModifiers()) && value instanceof List) {
+                        /* The final lists are initialized by the constructors */
+                        final List<Object> target = (List<Object>) field.get(result);
+                        target.clear();
+                        target.addAll((List<Object>) value);
+                    } else {
+                        field.set(result, value);
+                    }
+                }
+                return result;
+            }
+            default:
+                throw new IllegalStateException("Unexpected tag " + tag);
+            }
+        }
+    }
+}
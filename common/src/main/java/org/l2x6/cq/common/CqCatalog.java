@@ -18,15 +18,24 @@ package org.l2x6.cq.common;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.camel.catalog.CamelCatalog;
@@ -35,14 +44,17 @@ import org.apache.camel.catalog.DefaultRuntimeProvider;
 import org.apache.camel.catalog.DefaultVersionManager;
 import org.apache.camel.catalog.Kind;
 import org.apache.camel.catalog.RuntimeProvider;
+import org.apache.camel.catalog.VersionManager;
 import org.apache.camel.catalog.impl.CatalogHelper;
 import org.apache.camel.tooling.model.ArtifactModel;
 import org.apache.camel.tooling.model.BaseModel;
 import org.apache.camel.tooling.model.ComponentModel;
 import org.apache.camel.tooling.model.EipModel;
+import org.apache.camel.tooling.model.JsonMapper;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.l2x6.pom.tuner.model.Gav;
 
 public class CqCatalog {
 
@@ -77,11 +89,17 @@ public class CqCatalog {
         public String getArtifactId() {
             return artifactId;
         }
+
+        public Gav toGav(String version) {
+            return new Gav(groupId, artifactId, version);
+        }
     }
 
     private final DefaultCamelCatalog catalog;
     protected final Path baseDir;
     private Flavor flavor;
+    /** The models of this catalog, managed by {@link CatalogModelCache} */
+    volatile CatalogModelCache.Entry cacheEntry;
 
     public CqCatalog(Path baseDir, Flavor flavor) {
         super();
@@ -112,7 +130,12 @@ public class CqCatalog {
 
     public Stream<ArtifactModel<?>> filterModels(String cqArtifactIdBase) {
         List<String> camelArtifactIds = toCamelArtifactIdBase(cqArtifactIdBase);
-        return models()
+        final Index index = index();
+        if (camelArtifactIds.size() == 1) {
+            return index.modelsByArtifactId.getOrDefault(camelArtifactIds.get(0), Collections.emptyList()).stream();
+        }
+        /* Keep the order of models() */
+        return index.models.stream()
                 .filter(model -> camelArtifactIds.contains(model.getArtifactId()));
     }
 
@@ -137,12 +160,102 @@ public class CqCatalog {
     }
 
     public Stream<ArtifactModel<?>> models() {
-        return kinds()
-                .flatMap(kind -> models(kind));
+        return index().models.stream();
     }
 
     public Stream<ArtifactModel<?>> models(org.apache.camel.catalog.Kind kind) {
-        return catalog.findNames(kind).stream().map(name -> (ArtifactModel<?>) catalog.model(kind, name));
+        return index().modelsByKind.get(kind).stream();
+    }
+
+    /**
+     * @param  kind the kind of the model to look up
+     * @param  name the name of the model to look up, such as component scheme
+     * @return      an {@link Optional} containing the model of the given {@code kind} and {@code name} or an empty
+     *              {@link Optional} if there is no such model in this catalog
+     */
+    public Optional<ArtifactModel<?>> findModel(org.apache.camel.catalog.Kind kind, String name) {
+        return Optional.ofNullable(index().modelsByName.get(kind).get(name));
+    }
+
+    /**
+     * Parses all models of this catalog in parallel on the given {@link ForkJoinPool} unless they were loaded already.
+     * Calling this method is optional, the models get loaded on the common {@link ForkJoinPool} upon first use
+     * otherwise. The loaded models are held by the {@link CatalogModelCache}.
+     *
+     * @param  pool the {@link ForkJoinPool} to use for parsing
+     * @return      this {@link CqCatalog}
+     */
+    public CqCatalog warmUp(ForkJoinPool pool) {
+        index(pool);
+        return this;
+    }
+
+    Index index() {
+        return index(ForkJoinPool.commonPool());
+    }
+
+    Index index(ForkJoinPool pool) {
+        return CatalogModelCache.getInstance().get(this, () -> new Index(loadModels(pool)));
+    }
+
+    Map<Kind, List<ArtifactModel<?>>> loadModels(ForkJoinPool pool) {
+        final List<Map.Entry<Kind, String>> kindNames = kinds()
+                .flatMap(kind -> catalog.findNames(kind).stream()
+                        .map(name -> (Map.Entry<Kind, String>) new SimpleImmutableEntry<>(kind, name)))
+                .collect(Collectors.toList());
+        /* DefaultCamelCatalog is not thread safe, so we read and parse the JSON files on our own */
+        final VersionManager versionManager = catalog.getVersionManager();
+        final RuntimeProvider runtimeProvider = catalog.getRuntimeProvider();
+        final List<ArtifactModel<?>> models;
+        try {
+            models = pool.submit(() -> kindNames.parallelStream()
+                    .<ArtifactModel<?>> map(
+                            kindName -> parseModel(versionManager, runtimeProvider, kindName.getKey(), kindName.getValue()))
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading catalog " + baseDir, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+        final Map<Kind, List<ArtifactModel<?>>> result = new EnumMap<>(Kind.class);
+        kinds().forEach(kind -> result.put(kind, new ArrayList<>()));
+        for (int i = 0; i < models.size(); i++) {
+            result.get(kindNames.get(i).getKey()).add(models.get(i));
+        }
+        return result;
+    }
+
+    static ArtifactModel<?> parseModel(VersionManager versionManager, RuntimeProvider runtimeProvider, Kind kind,
+            String name) {
+        final String dir;
+        switch (kind) {
+        case component:
+            dir = runtimeProvider.getComponentJSonSchemaDirectory();
+            break;
+        case dataformat:
+            dir = runtimeProvider.getDataFormatJSonSchemaDirectory();
+            break;
+        case language:
+            dir = runtimeProvider.getLanguageJSonSchemaDirectory();
+            break;
+        case other:
+            dir = runtimeProvider.getOtherJSonSchemaDirectory();
+            break;
+        default:
+            throw new IllegalStateException("Unexpected kind " + kind);
+        }
+        final String path = dir + "/" + name + ".json";
+        try (InputStream in = versionManager.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new RuntimeException("Could not find " + path);
+            }
+            return (ArtifactModel<?>) JsonMapper.generateModel(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read " + path, e);
+        }
     }
 
     public Stream<EipModel> eips() {
@@ -340,32 +453,155 @@ public class CqCatalog {
     }
 
     public BaseModel<?> load(org.apache.camel.catalog.Kind kind, String name) {
+        if (kind != Kind.eip) {
+            final ArtifactModel<?> result = index().modelsByName.get(kind).get(name);
+            if (result != null) {
+                return result;
+            }
+        }
         return catalog.model(kind, name);
     }
 
+    /**
+     * An immutable snapshot of all {@link ArtifactModel}s of a catalog indexed by kind, name and artifactId.
+     */
+    static class Index {
+        private final List<ArtifactModel<?>> models;
+        private final Map<Kind, List<ArtifactModel<?>>> modelsByKind;
+        private final Map<Kind, Map<String, ArtifactModel<?>>> modelsByName;
+        private final Map<String, List<ArtifactModel<?>>> modelsByArtifactId;
+
+        Index(Map<Kind, List<ArtifactModel<?>>> modelsByKind) {
+            final List<ArtifactModel<?>> models = new ArrayList<>();
+            final Map<Kind, List<ArtifactModel<?>>> byKind = new EnumMap<>(Kind.class);
+            final Map<Kind, Map<String, ArtifactModel<?>>> byName = new EnumMap<>(Kind.class);
+            final Map<String, List<ArtifactModel<?>>> byArtifactId = new HashMap<>();
+            for (Map.Entry<Kind, List<ArtifactModel<?>>> en : modelsByKind.entrySet()) {
+                final Map<String, ArtifactModel<?>> kindByName = new HashMap<>();
+                for (ArtifactModel<?> model : en.getValue()) {
+                    models.add(model);
+                    kindByName.put(model.getName(), model);
+                    byArtifactId.computeIfAbsent(model.getArtifactId(), k -> new ArrayList<>()).add(model);
+                }
+                byKind.put(en.getKey(), Collections.unmodifiableList(new ArrayList<>(en.getValue())));
+                byName.put(en.getKey(), Collections.unmodifiableMap(kindByName));
+            }
+            byArtifactId.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            this.models = Collections.unmodifiableList(models);
+            this.modelsByKind = Collections.unmodifiableMap(byKind);
+            this.modelsByName = Collections.unmodifiableMap(byName);
+            this.modelsByArtifactId = Collections.unmodifiableMap(byArtifactId);
+        }
+
+        int size() {
+            return models.size();
+        }
+    }
+
     public static class GavCqCatalog extends CqCatalog implements AutoCloseable {
 
         private final FileSystem jarFileSystem;
+        private final Path jarPath;
+        private final Runnable onClose;
+        /** The pooled catalog whose models this one uses or {@code null} */
+        private final GavCqCatalog shared;
+        private final AtomicBoolean closed = new AtomicBoolean();
 
         public static GavCqCatalog open(Path localRepository, Flavor flavor, String version,
                 List<RemoteRepository> remoteRepositories, RepositorySystem repoSystem, RepositorySystemSession repoSession) {
             final Path jarPath = CqCommonUtils.resolveJar(localRepository, flavor.getGroupId(), flavor.getArtifactId(), version,
                     remoteRepositories, repoSystem, repoSession);
+            return open(jarPath, flavor);
+        }
+
+        /**
+         * @param  jarPath the path to an already resolved catalog jar
+         * @param  flavor  the {@link Flavor} of the catalog
+         * @return         a new {@link GavCqCatalog}
+         */
+        public static GavCqCatalog open(Path jarPath, Flavor flavor) {
             try {
                 final FileSystem fs = FileSystems.newFileSystem(jarPath, (ClassLoader) null);
-                return new GavCqCatalog(fs, flavor);
+                return new GavCqCatalog(fs, flavor, jarPath, null);
             } catch (IOException e) {
                 throw new RuntimeException("Could not open file system " + jarPath, e);
             }
         }
 
         GavCqCatalog(FileSystem jarFileSystem, Flavor flavor) {
+            this(jarFileSystem, flavor, null, null);
+        }
+
+        GavCqCatalog(FileSystem jarFileSystem, Flavor flavor, Path jarPath, Runnable onClose) {
             super(jarFileSystem.getRootDirectories().iterator().next(), flavor);
             this.jarFileSystem = jarFileSystem;
+            this.jarPath = jarPath;
+            this.onClose = onClose;
+            this.shared = null;
+        }
+
+        /**
+         * A handle to the given pooled {@code shared} catalog. It reads from the same jar file system and uses the
+         * same models, but it is closed independently of other handles.
+         *
+         * @param shared  the pooled catalog
+         * @param onClose called on the first {@link #close()} of this handle
+         */
+        GavCqCatalog(GavCqCatalog shared, Runnable onClose) {
+            super(shared.baseDir, ((CqCatalog) shared).flavor);
+            this.jarFileSystem = shared.jarFileSystem;
+            this.jarPath = shared.jarPath;
+            this.onClose = onClose;
+            this.shared = shared;
         }
 
+        @Override
+        Index index(ForkJoinPool pool) {
+            return shared != null ? shared.index(pool) : super.index(pool);
+        }
+
+        /**
+         * Reads the models from the snapshot file stored next to the catalog jar if there is one. Otherwise the
+         * models are parsed from the JSON files in the jar and the snapshot is written for the next time.
+         */
+        @Override
+        Map<Kind, List<ArtifactModel<?>>> loadModels(ForkJoinPool pool) {
+            if (jarPath == null) {
+                return super.loadModels(pool);
+            }
+            final Path snapshotPath = CatalogSnapshot.snapshotPath(jarPath);
+            final String key = CatalogSnapshot.key(jarPath);
+            final Map<Kind, List<ArtifactModel<?>>> snapshot = CatalogSnapshot.read(snapshotPath, key);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            final Map<Kind, List<ArtifactModel<?>>> result = super.loadModels(pool);
+            try {
+                CatalogSnapshot.write(snapshotPath, key, result);
+            } catch (IOException | RuntimeException e) {
+                /* The snapshot is an optimization only */
+            }
+            return result;
+        }
+
+        /**
+         * Closes the underlying jar {@link FileSystem} or, in case this {@link GavCqCatalog} was obtained from a
+         * {@link GavCqCatalogPool}, returns it to the pool. Calling this method more than once has no effect.
+         */
         @Override
         public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (onClose != null) {
+                onClose.run();
+            } else {
+                closeFileSystem();
+            }
+        }
+
+        void closeFileSystem() {
+            CatalogModelCache.getInstance().remove(this);
             try {
                 jarFileSystem.close();
             } catch (IOException e) {
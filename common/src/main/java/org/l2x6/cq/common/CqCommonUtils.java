@@ -16,35 +16,33 @@
  */
 package org.l2x6.cq.common;
 
-import freemarker.template.Configuration;
-import freemarker.template.Template;
-import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.net.MalformedURLException;
-import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystemException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
@@ -56,7 +54,6 @@ import org.apache.maven.execution.MavenSession;
 import org.apache.maven.lifecycle.internal.MojoDescriptorCreator;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
 import org.apache.maven.plugin.descriptor.MojoDescriptor;
@@ -64,7 +61,7 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.assertj.core.util.diff.Delta;
 import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
-import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.DefaultArtifact;
@@ -72,13 +69,14 @@ import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
-import org.l2x6.pom.tuner.PomTransformer;
+import org.l2x6.pom.tuner.MavenSourceTree;
 import org.l2x6.pom.tuner.PomTransformer.ContainerElement;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.Transformation;
 import org.l2x6.pom.tuner.PomTransformer.TransformationContext;
 import org.l2x6.pom.tuner.PomTunerUtils;
 import org.l2x6.pom.tuner.model.Ga;
+import org.l2x6.pom.tuner.model.Gav;
 import org.l2x6.pom.tuner.model.Gavtcs;
 import org.w3c.dom.Comment;
 import org.w3c.dom.Document;
@@ -99,6 +97,15 @@ public class CqCommonUtils {
             .compile(
                     "\\s*@sync (?<groupId>[^:]*):(?<artifactId>[^:]*):(?<version>[^:]*) (?<method>[^:]+):(?<element>[^ ]+)\\s*");
 
+    /**
+     * The number of concurrent downloads used by {@link #resolveArtifacts(Path, Collection, String, List,
+     * RepositorySystem, RepositorySystemSession)}
+     */
+    public static final int DEFAULT_RESOLVER_THREADS = 5;
+    /** The Maven Resolver configuration property setting the number of concurrent downloads */
+    private static final String RESOLVER_THREADS_PROPERTY = "aether.connector.basic.threads";
+    private static final ResolutionCache resolutions = new ResolutionCache(ResolutionCache.DEFAULT_NEGATIVE_TTL_MS);
+
     private CqCommonUtils() {
     }
 
@@ -110,34 +117,183 @@ public class CqCommonUtils {
 
     public static Path resolveArtifact(Path localRepository, String groupId, String artifactId, String version, String type,
             List<RemoteRepository> repositories, RepositorySystem repoSystem, RepositorySystemSession repoSession) {
-        final String relativeJarPath = groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-"
-                + version + "." + type;
-        final Path localPath = localRepository.resolve(relativeJarPath);
+        final Path localPath = localRepository.resolve(relativeArtifactPath(groupId, artifactId, version, type));
         if (Files.exists(localPath)) {
+            ResolutionMetrics.getInstance().localHit();
+            CqEvents.ArtifactResolve.local(() -> groupId + ":" + artifactId + ":" + version + ":" + type);
             return localPath;
         }
-        final org.eclipse.aether.artifact.Artifact aetherArtifact = new DefaultArtifact(
-                groupId,
-                artifactId,
-                null,
-                type,
-                version);
+        return resolutions.resolve(resolutionKey(localRepository, repositories, groupId, artifactId, version, type), () -> {
+            final org.eclipse.aether.artifact.Artifact aetherArtifact = new DefaultArtifact(
+                    groupId,
+                    artifactId,
+                    null,
+                    type,
+                    version);
+
+            final ArtifactRequest req = new ArtifactRequest().setRepositories(repositories).setArtifact(aetherArtifact);
+            ArtifactResult resolutionResult;
+            final CqEvents.ArtifactResolve event = CqEvents.ArtifactResolve
+                    .begin(() -> groupId + ":" + artifactId + ":" + version + ":" + type);
+            final long start = System.nanoTime();
+            try {
+                resolutionResult = repoSystem.resolveArtifact(repoSession, req);
+                final Path result = resolutionResult.getArtifact().getFile().toPath();
+                recordResolution(resolutionResult, result, System.nanoTime() - start, event);
+                return result;
+            } catch (ArtifactResolutionException e) {
+                ResolutionMetrics.getInstance().failed(ResolutionMetrics.UNKNOWN_REPOSITORY);
+                throw new RuntimeException("Artifact " + aetherArtifact + " could not be resolved.", e);
+            } finally {
+                event.commit();
+            }
+        });
+    }
 
-        final ArtifactRequest req = new ArtifactRequest().setRepositories(repositories).setArtifact(aetherArtifact);
-        ArtifactResult resolutionResult;
-        try {
-            resolutionResult = repoSystem.resolveArtifact(repoSession, req);
-        } catch (ArtifactResolutionException e) {
-            throw new RuntimeException("Artifact " + aetherArtifact + " could not be resolved.", e);
+    /**
+     * Resolves the given artifacts in a single batch. The artifacts available in the local Maven repository are
+     * returned right away, the rest is passed to {@link RepositorySystem#resolveArtifacts(RepositorySystemSession,
+     * Collection)} at once so that the resolver can download them concurrently.
+     *
+     * @param  localRepository the local Maven repository
+     * @param  gavs            the artifacts to resolve
+     * @param  type            the type of the artifacts to resolve, such as {@code jar} or {@code pom}
+     * @param  repositories    the remote repositories to resolve from
+     * @param  repoSystem      the {@link RepositorySystem}
+     * @param  repoSession     the {@link RepositorySystemSession}
+     * @param  parallelism     the maximum number of concurrent downloads
+     * @return                 a {@link Map} from the given {@link Gav}s to their paths in the local Maven repository in
+     *                         the iteration order of {@code gavs}
+     */
+    public static Map<Gav, Path> resolveArtifacts(Path localRepository, Collection<Gav> gavs, String type,
+            List<RemoteRepository> repositories, RepositorySystem repoSystem, RepositorySystemSession repoSession,
+            int parallelism) {
+        final Map<Gav, Path> result = new LinkedHashMap<>();
+        final List<Gav> misses = new ArrayList<>();
+        final List<ArtifactRequest> requests = new ArrayList<>();
+        for (Gav gav : gavs) {
+            if (!result.containsKey(gav)) {
+                final Path localPath = localRepository.resolve(
+                        relativeArtifactPath(gav.getGroupId(), gav.getArtifactId(), gav.getVersion(), type));
+                if (Files.exists(localPath)) {
+                    ResolutionMetrics.getInstance().localHit();
+                    CqEvents.ArtifactResolve.local(() -> gav + ":" + type);
+                    result.put(gav, localPath);
+                } else {
+                    resolutions.assertNotFailed(
+                            resolutionKey(localRepository, repositories, gav.getGroupId(), gav.getArtifactId(),
+                                    gav.getVersion(), type));
+                    /* Keep the iteration order of gavs */
+                    result.put(gav, null);
+                    misses.add(gav);
+                    requests.add(new ArtifactRequest()
+                            .setRepositories(repositories)
+                            .setArtifact(new DefaultArtifact(gav.getGroupId(), gav.getArtifactId(), null, type,
+                                    gav.getVersion())));
+                }
+            }
+        }
+        if (!requests.isEmpty()) {
+            final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession(repoSession);
+            session.setConfigProperty(RESOLVER_THREADS_PROPERTY, parallelism);
+            final List<CqEvents.ArtifactResolve> events = misses.stream()
+                    .map(gav -> CqEvents.ArtifactResolve.begin(() -> gav + ":" + type))
+                    .collect(Collectors.toList());
+            final long start = System.nanoTime();
+            try {
+                final List<ArtifactResult> results = repoSystem.resolveArtifacts(session, requests);
+                /* The artifacts are downloaded concurrently so the latency of each of them is the time of the batch */
+                final long latency = System.nanoTime() - start;
+                /* The results come in the order of the requests */
+                for (int i = 0; i < results.size(); i++) {
+                    final Path path = results.get(i).getArtifact().getFile().toPath();
+                    recordResolution(results.get(i), path, latency, events.get(i));
+                    result.put(misses.get(i), path);
+                }
+            } catch (ArtifactResolutionException e) {
+                final RuntimeException failure = new RuntimeException("Artifacts " + misses + " could not be resolved.", e);
+                final long latency = System.nanoTime() - start;
+                final List<ArtifactResult> results = e.getResults();
+                for (int i = 0; i < results.size(); i++) {
+                    final ArtifactResult r = results.get(i);
+                    if (r.isResolved()) {
+                        recordResolution(r, r.getArtifact().getFile().toPath(), latency, events.get(i));
+                    } else {
+                        ResolutionMetrics.getInstance().failed(ResolutionMetrics.UNKNOWN_REPOSITORY);
+                        if (r.isMissing()) {
+                            /* Do not remember transient failures, such as network errors */
+                            final org.eclipse.aether.artifact.Artifact a = r.getRequest().getArtifact();
+                            resolutions.failed(resolutionKey(localRepository, repositories, a.getGroupId(), a.getArtifactId(),
+                                    a.getVersion(), type), failure);
+                        }
+                    }
+                }
+                throw failure;
+            } finally {
+                events.forEach(CqEvents.ArtifactResolve::commit);
+            }
         }
-        return resolutionResult.getArtifact().getFile().toPath();
+        return result;
+    }
 
+    /**
+     * A variant of {@link #resolveArtifacts(Path, Collection, String, List, RepositorySystem, RepositorySystemSession,
+     * int)} using {@link #DEFAULT_RESOLVER_THREADS}.
+     *
+     * @param  localRepository the local Maven repository
+     * @param  gavs            the artifacts to resolve
+     * @param  type            the type of the artifacts to resolve, such as {@code jar} or {@code pom}
+     * @param  repositories    the remote repositories to resolve from
+     * @param  repoSystem      the {@link RepositorySystem}
+     * @param  repoSession     the {@link RepositorySystemSession}
+     * @return                 a {@link Map} from the given {@link Gav}s to their paths in the local Maven repository
+     */
+    public static Map<Gav, Path> resolveArtifacts(Path localRepository, Collection<Gav> gavs, String type,
+            List<RemoteRepository> repositories, RepositorySystem repoSystem, RepositorySystemSession repoSession) {
+        return resolveArtifacts(localRepository, gavs, type, repositories, repoSystem, repoSession,
+                DEFAULT_RESOLVER_THREADS);
+    }
+
+    static void recordResolution(ArtifactResult result, Path path, long latencyNanos, CqEvents.ArtifactResolve event) {
+        final ResolutionMetrics metrics = ResolutionMetrics.getInstance();
+        if (result.getRepository() instanceof RemoteRepository) {
+            long size;
+            try {
+                size = Files.size(path);
+            } catch (IOException e) {
+                size = 0;
+            }
+            final String url = ((RemoteRepository) result.getRepository()).getUrl();
+            metrics.fetched(url, latencyNanos, size);
+            event.resolved(true, url);
+        } else {
+            /* Found in the local repository or in the reactor */
+            metrics.localHit();
+            event.resolved(false, null);
+        }
+    }
+
+    static String resolutionKey(Path localRepository, List<RemoteRepository> repositories, String groupId,
+            String artifactId, String version, String type) {
+        final StringBuilder result = new StringBuilder()
+                .append(localRepository).append('|')
+                .append(groupId).append(':').append(artifactId).append(':').append(version).append(':').append(type);
+        if (repositories != null) {
+            /* An artifact missing in some repositories may well be available in others */
+            for (RemoteRepository repository : repositories) {
+                result.append('|').append(repository.getId()).append('=').append(repository.getUrl());
+            }
+        }
+        return result.toString();
+    }
+
+    static String relativeArtifactPath(String groupId, String artifactId, String version, String type) {
+        return groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-" + version + "." + type;
     }
 
     public static Path installArtifact(Path source, Path localRepository, String groupId, String artifactId, String version,
             String type) {
-        final String relativeJarPath = groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-"
-                + version + "." + type;
+        final String relativeJarPath = relativeArtifactPath(groupId, artifactId, version, type);
         final Path localPath = localRepository.resolve(relativeJarPath);
         try {
             Files.createDirectories(localPath.getParent());
@@ -150,20 +306,27 @@ public class CqCommonUtils {
 
     public static Path copyArtifact(Path localRepository, String groupId, String artifactId, String version, String type,
             List<String> remoteRepositories) {
-        final String relativeJarPath = groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-"
-                + version + "." + type;
+        final String relativeJarPath = relativeArtifactPath(groupId, artifactId, version, type);
         final Path localPath = localRepository.resolve(relativeJarPath);
         final boolean localExists = Files.exists(localPath);
         Path result;
         try {
             result = Files.createTempFile(null, localPath.getFileName().toString());
-            try (InputStream in = (localExists ? Files.newInputStream(localPath)
-                    : openFirst(remoteRepositories, relativeJarPath));
-                    OutputStream out = Files.newOutputStream(result)) {
-                final byte[] buf = new byte[4096];
-                int len;
-                while ((len = in.read(buf)) >= 0) {
-                    out.write(buf, 0, len);
+            try {
+                final String gav = groupId + ":" + artifactId + ":" + version + ":" + type;
+                if (localExists) {
+                    ResolutionMetrics.getInstance().localHit();
+                    CqEvents.ArtifactResolve.local(() -> gav);
+                    Files.copy(localPath, result, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    final CqEvents.ArtifactResolve event = CqEvents.ArtifactResolve.begin(() -> gav);
+                    try (InputStream in = openFirst(remoteRepositories, relativeJarPath)) {
+                        Files.copy(in, result, StandardCopyOption.REPLACE_EXISTING);
+                        /* MirrorFetcher does not tell which of the repositories delivered the artifact */
+                        event.resolved(true, null);
+                    } finally {
+                        event.commit();
+                    }
                 }
             } catch (IOException e) {
                 throw new RuntimeException("Could not copy " + (localExists ? localPath : relativeJarPath) + " to " + result,
@@ -175,18 +338,23 @@ public class CqCommonUtils {
         return result;
     }
 
+    /**
+     * Opens the given {@code relativePath} from the first of the given {@code remoteRepositories} that delivers it.
+     * The repositories are queried in the given order, but a slow repository does not block the next one for longer
+     * than {@link MirrorFetcher#DEFAULT_HEDGE_DELAY}.
+     *
+     * @param  remoteRepositories the base URIs of the repositories to try
+     * @param  relativePath       the path of the file to fetch relative to the repository base URI
+     * @return                    an {@link InputStream} to read the file
+     */
     public static InputStream openFirst(List<String> remoteRepositories, String relativePath)
             throws IOException, MalformedURLException {
-        for (String repo : remoteRepositories) {
-            try {
-                final String uri = repo.endsWith("/") ? (repo + relativePath) : repo + "/" + relativePath;
-                return new URL(uri).openStream();
-            } catch (IOException e) {
-                // continue
-            }
+        try {
+            return MirrorFetcher.open(remoteRepositories, relativePath, MirrorFetcher.DEFAULT_HEDGE_DELAY);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not get " + relativePath + " from any of "
+                    + remoteRepositories.stream().map(r -> r + relativePath).collect(Collectors.joining(", ")), e);
         }
-        throw new RuntimeException("Could not get " + relativePath + " from any of "
-                + remoteRepositories.stream().map(r -> r + relativePath).collect(Collectors.joining(", ")));
     }
 
     public static boolean isEmptyPropertiesFile(Path file) {
@@ -199,11 +367,56 @@ public class CqCommonUtils {
         return props.isEmpty();
     }
 
+    /**
+     * @param  path    the {@code pom.xml} file to read
+     * @param  charset the encoding of the file
+     * @return         a {@link Model} served from {@link ParsedPomCache} if the file did not change since it was
+     *                 read last time; the caller may freely modify it
+     */
     public static Model readPom(final Path path, Charset charset) {
-        try (Reader r = Files.newBufferedReader(path, charset)) {
-            return new MavenXpp3Reader().read(r);
-        } catch (XmlPullParserException | IOException e) {
-            throw new RuntimeException("Could not parse " + path, e);
+        return CqMetrics.getInstance().time("CqCommonUtils.readPom", () -> ParsedPomCache.getInstance().get(path, charset));
+    }
+
+    /**
+     * {@link MavenSourceTree#of(Path, Charset, Predicate) Loads} a {@link MavenSourceTree} recording the time in
+     * {@link CqMetrics}.
+     *
+     * @param  rootPomPath        the path to the root {@code pom.xml} file
+     * @param  charset            the encoding of the {@code pom.xml} files
+     * @param  dependencyExcludes the dependencies to ignore
+     * @return                    a new {@link MavenSourceTree}
+     */
+    public static MavenSourceTree loadSourceTree(Path rootPomPath, Charset charset,
+            Predicate<org.l2x6.pom.tuner.model.Dependency> dependencyExcludes) {
+        final CqEvents.TreeLoad event = new CqEvents.TreeLoad();
+        event.begin();
+        final MavenSourceTree result = CqMetrics.getInstance().time("MavenSourceTree.of",
+                () -> MavenSourceTree.of(rootPomPath, charset, dependencyExcludes));
+        commit(event, rootPomPath, result);
+        return result;
+    }
+
+    /**
+     * {@link MavenSourceTree#of(Path, Charset) Loads} a {@link MavenSourceTree} recording the time in {@link CqMetrics}.
+     *
+     * @param  rootPomPath the path to the root {@code pom.xml} file
+     * @param  charset     the encoding of the {@code pom.xml} files
+     * @return             a new {@link MavenSourceTree}
+     */
+    public static MavenSourceTree loadSourceTree(Path rootPomPath, Charset charset) {
+        final CqEvents.TreeLoad event = new CqEvents.TreeLoad();
+        event.begin();
+        final MavenSourceTree result = CqMetrics.getInstance().time("MavenSourceTree.of",
+                () -> MavenSourceTree.of(rootPomPath, charset));
+        commit(event, rootPomPath, result);
+        return result;
+    }
+
+    static void commit(CqEvents.TreeLoad event, Path rootPomPath, MavenSourceTree tree) {
+        if (event.shouldCommit()) {
+            event.rootPom = rootPomPath.toString();
+            event.moduleCount = tree.getModulesByGa().size();
+            event.commit();
         }
     }
 
@@ -233,7 +446,7 @@ public class CqCommonUtils {
 
     public static void updateVirtualDependencies(Charset charset, SimpleElementWhitespace simpleElementWhitespace,
             final Set<Gavtcs> allVirtualExtensions, final Path pomXmlPath) {
-        new PomTransformer(pomXmlPath, charset, simpleElementWhitespace)
+        new CqPomTransformer(pomXmlPath, charset, simpleElementWhitespace)
                 .transform(
                         Transformation.updateDependencySubset(
                                 gavtcs -> gavtcs.isVirtual(),
@@ -270,22 +483,7 @@ public class CqCommonUtils {
 
                     @Override
                     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                        if (isWindows) {
-                            final long deadline = System.currentTimeMillis() + DELETE_RETRY_MILLIS;
-                            FileSystemException lastException = null;
-                            do {
-                                try {
-                                    Files.delete(file);
-                                    return FileVisitResult.CONTINUE;
-                                } catch (FileSystemException e) {
-                                    lastException = e;
-                                }
-                            } while (System.currentTimeMillis() < deadline);
-                            throw new IOException(String.format("Could not delete file [%s] after retrying for %d ms", file,
-                                    DELETE_RETRY_MILLIS), lastException);
-                        } else {
-                            Files.delete(file);
-                        }
+                        deleteFile(file);
                         return FileVisitResult.CONTINUE;
                     }
 
@@ -304,6 +502,71 @@ public class CqCommonUtils {
         }
     }
 
+    /**
+     * Deletes a file or directory recursively if it exists. Subdirectories are deleted in parallel using the given
+     * {@code pool}.
+     *
+     * @param directory the directory to delete
+     * @param pool      the pool to delete the subdirectories on
+     */
+    public static void deleteDirectory(Path directory, ForkJoinPool pool) {
+        if (Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            pool.invoke(new DeleteTask(directory));
+        }
+    }
+
+    static class DeleteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Path path;
+
+        DeleteTask(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    final List<DeleteTask> tasks = new ArrayList<>();
+                    try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                        for (Path child : children) {
+                            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                                tasks.add(new DeleteTask(child));
+                            } else {
+                                deleteFile(child);
+                            }
+                        }
+                    }
+                    invokeAll(tasks);
+                    Files.delete(path);
+                } else {
+                    deleteFile(path);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not delete " + path, e);
+            }
+        }
+    }
+
+    static void deleteFile(Path file) throws IOException {
+        if (isWindows) {
+            final long deadline = System.currentTimeMillis() + DELETE_RETRY_MILLIS;
+            FileSystemException lastException = null;
+            do {
+                try {
+                    Files.delete(file);
+                    return;
+                } catch (FileSystemException e) {
+                    lastException = e;
+                }
+            } while (System.currentTimeMillis() < deadline);
+            throw new IOException(String.format("Could not delete file [%s] after retrying for %d ms", file,
+                    DELETE_RETRY_MILLIS), lastException);
+        } else {
+            Files.delete(file);
+        }
+    }
+
     /**
      * Makes sure that the given directory exists. Tries creating {@link #CREATE_RETRY_COUNT} times.
      *
@@ -393,87 +656,198 @@ public class CqCommonUtils {
     }
 
     public static void visitPoms(Path src, Consumer<Path> pomConsumer, final Predicate<Path> additionalFiles) {
-        Set<Path> paths = new TreeSet<>();
+        PomWalker.of(additionalFiles).walk(src).forEach(pomConsumer);
+    }
+
+    public static Path copyPoms(Path src, Path dest, Predicate<Path> additionalFiles) {
+        return copyPoms(src, dest, PomWalker.of(additionalFiles));
+    }
+
+    /**
+     * Makes sure that {@code dest} contains exactly the files found by {@code pomWalker} under {@code src}. The sync
+     * is incremental: files whose size and last modification time or content match are not copied again and files
+     * not available in {@code src} anymore are deleted from {@code dest}.
+     *
+     * @param  src       the directory to copy from
+     * @param  dest      the directory to copy to
+     * @param  pomWalker the {@link PomWalker} to find the files to copy
+     * @return           {@code dest}
+     */
+    public static Path copyPoms(Path src, Path dest, PomWalker pomWalker) {
+        return CqMetrics.getInstance().time("CqCommonUtils.copyPoms", () -> doCopyPoms(src, dest, pomWalker));
+    }
+
+    static Path doCopyPoms(Path src, Path dest, PomWalker pomWalker) {
+        ensureDirectoryExists(dest);
+        final Set<Path> expected = pomWalker.walk(src).parallelStream()
+                .map(file -> {
+                    final Path destPath = dest.resolve(src.relativize(file));
+                    syncFile(file, destPath);
+                    return destPath;
+                })
+                .collect(Collectors.toSet());
+        deleteStale(dest, expected);
+        return dest;
+    }
+
+    /**
+     * Copies {@code src} to {@code dest} unless {@code dest} has the same size and last modification time as
+     * {@code src} or the same content.
+     *
+     * @param  src  the file to copy
+     * @param  dest the file to copy to
+     * @return      {@code true} if {@code src} was copied; {@code false} if {@code dest} was up to date
+     */
+    static boolean syncFile(Path src, Path dest) {
         try {
-            Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+            final BasicFileAttributes srcAttrs = Files.readAttributes(src, BasicFileAttributes.class);
+            if (Files.isRegularFile(dest)) {
+                final BasicFileAttributes destAttrs = Files.readAttributes(dest, BasicFileAttributes.class);
+                if (srcAttrs.size() == destAttrs.size()) {
+                    if (srcAttrs.lastModifiedTime().equals(destAttrs.lastModifiedTime())) {
+                        return false;
+                    } else if (contentEquals(src, dest)) {
+                        /* So that we do not need to compare the content next time */
+                        Files.setLastModifiedTime(dest, srcAttrs.lastModifiedTime());
+                        return false;
+                    }
+                }
+            } else {
+                Files.createDirectories(dest.getParent());
+            }
+            Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not copy " + src + " to " + dest, e);
+        }
+    }
+
+    static boolean contentEquals(Path file1, Path file2) throws IOException {
+        try (InputStream in1 = Files.newInputStream(file1); InputStream in2 = Files.newInputStream(file2)) {
+            final byte[] buffer1 = new byte[8192];
+            final byte[] buffer2 = new byte[8192];
+            int len1;
+            while ((len1 = in1.readNBytes(buffer1, 0, buffer1.length)) > 0) {
+                final int len2 = in2.readNBytes(buffer2, 0, len1);
+                if (len1 != len2 || !Arrays.equals(buffer1, 0, len1, buffer2, 0, len2)) {
+                    return false;
+                }
+            }
+            return in2.read() < 0;
+        }
+    }
 
+    /**
+     * Deletes all files under {@code dir} that are not in {@code keep} and all directories that become empty
+     * thereby.
+     *
+     * @param dir  the directory to clean
+     * @param keep the files to keep
+     */
+    static void deleteStale(Path dir, Set<Path> keep) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
                 @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                        throws IOException {
-                    final String dirName = dir.getFileName().toString();
-                    if ((dirName.equals("target"))
-                            && Files.isRegularFile(dir.getParent().resolve("pom.xml"))) {
-                        return FileVisitResult.SKIP_SUBTREE;
-                    } else {
-                        return FileVisitResult.CONTINUE;
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!keep.contains(file)) {
+                        Files.delete(file);
                     }
+                    return FileVisitResult.CONTINUE;
                 }
 
                 @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    final String fileName = file.getFileName().toString();
-                    if (fileName.equals("pom.xml") || additionalFiles.test(file)) {
-                        paths.add(file);
+                public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+                    if (exc != null) {
+                        throw exc;
+                    }
+                    if (!d.equals(dir)) {
+                        try (DirectoryStream<Path> children = Files.newDirectoryStream(d)) {
+                            if (!children.iterator().hasNext()) {
+                                Files.delete(d);
+                            }
+                        }
                     }
                     return FileVisitResult.CONTINUE;
                 }
             });
         } catch (IOException e) {
-            throw new RuntimeException("Could not visit pom.xml files under " + src, e);
+            throw new RuntimeException("Could not delete stale files from " + dir, e);
         }
-        paths.stream()
-                .forEach(pomConsumer);
     }
 
-    public static Path copyPoms(Path src, Path dest, Predicate<Path> additionalFiles) {
-        ensureDirectoryExistsAndEmpty(dest);
-        visitPoms(
-                src,
-                file -> {
-                    final Path destPath = dest.resolve(src.relativize(file));
-                    try {
-                        Files.createDirectories(destPath.getParent());
-                        Files.copy(file, destPath, StandardCopyOption.REPLACE_EXISTING);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Could not copy " + file + " to " + destPath, e);
-                    }
-                },
-                additionalFiles);
-        return dest;
+    public static void assertPomsMatch(Path src, Path dest, Set<String> activeRelativePomPaths, Predicate<Path> additionalFiles,
+            Charset charset, Path basedir, Path referenceFile, OnFailure onCheckFailure, Consumer<String> warn) {
+        assertPomsMatch(src, dest, activeRelativePomPaths, PomWalker.of(additionalFiles), charset, basedir, referenceFile,
+                onCheckFailure, warn);
     }
 
-    public static void assertPomsMatch(Path src, Path dest, Set<String> activeRelativePomPaths, Predicate<Path> additionalFiles,
+    /**
+     * Compares the files found by {@code pomWalker} under {@code src} with their counterparts under {@code dest}.
+     * Byte-identical files are recognized without reading them as lines and diffing. The remaining files are diffed in
+     * parallel and all mismatches are reported together.
+     */
+    public static void assertPomsMatch(Path src, Path dest, Set<String> activeRelativePomPaths, PomWalker pomWalker,
             Charset charset, Path basedir, Path referenceFile, OnFailure onCheckFailure, Consumer<String> warn) {
-        visitPoms(
-                src,
-                file -> {
+        CqMetrics.getInstance().time("CqCommonUtils.assertPomsMatch", () -> doAssertPomsMatch(src, dest,
+                activeRelativePomPaths, pomWalker, charset, basedir, referenceFile, onCheckFailure, warn));
+    }
+
+    static void doAssertPomsMatch(Path src, Path dest, Set<String> activeRelativePomPaths, PomWalker pomWalker,
+            Charset charset, Path basedir, Path referenceFile, OnFailure onCheckFailure, Consumer<String> warn) {
+        if (onCheckFailure == OnFailure.IGNORE) {
+            return;
+        }
+        final String mismatches = pomWalker.walk(src).parallelStream()
+                .map(file -> {
                     final Path relPomPath = src.relativize(file);
                     final String unixPath = PomTunerUtils.toUnixPath(relPomPath.toString());
                     if (!unixPath.endsWith("/pom.xml") || activeRelativePomPaths.contains(unixPath)) {
                         final Path destPath = dest.resolve(relPomPath);
-
+                        if (isSameContent(file, destPath)) {
+                            return null;
+                        }
+                        final String prefix = "File [" + PomTunerUtils.toUnixPath(basedir.relativize(destPath).toString())
+                                + "] is not in sync with "
+                                + PomTunerUtils.toUnixPath(basedir.relativize(referenceFile).toString()) + ":\n\n    ";
+                        if (!Files.exists(destPath)) {
+                            return prefix + "the file does not exist";
+                        }
                         List<Delta<String>> diffs = CqCommonUtils.compareFiles(file, destPath, charset);
                         if (!diffs.isEmpty()) {
-                            String msg = "File [" + PomTunerUtils.toUnixPath(basedir.relativize(destPath).toString())
-                                    + "] is not in sync with "
-                                    + PomTunerUtils.toUnixPath(basedir.relativize(referenceFile).toString()) + ":\n\n    "
-                                    + diffs.stream().map(Delta::toString).collect(joining("\n    "))
-                                    + "\n\n Consider running mvn org.l2x6.cq:cq-camel-prod-maven-plugin:camel-prod-excludes -N\n\n";
-                            switch (onCheckFailure) {
-                            case FAIL:
-                                throw new RuntimeException(msg);
-                            case WARN:
-                                warn.accept(msg);
-                                break;
-                            case IGNORE:
-                                break;
-                            default:
-                                throw new IllegalStateException("Unexpected " + OnFailure.class + " value " + onCheckFailure);
-                            }
+                            return prefix + diffs.stream().map(Delta::toString).collect(joining("\n    "));
                         }
                     }
-                },
-                additionalFiles);
+                    return null;
+                })
+                .filter(Objects::nonNull)
+                .collect(joining("\n\n"));
+        if (!mismatches.isEmpty()) {
+            final String msg = mismatches
+                    + "\n\n Consider running mvn org.l2x6.cq:cq-camel-prod-maven-plugin:camel-prod-excludes -N\n\n";
+            switch (onCheckFailure) {
+            case FAIL:
+                throw new RuntimeException(msg);
+            case WARN:
+                warn.accept(msg);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected " + OnFailure.class + " value " + onCheckFailure);
+            }
+        }
+    }
+
+    /**
+     * @param  file1 the first file to compare
+     * @param  file2 the second file to compare
+     * @return       {@code true} if both files exist and have the same content; {@code false} otherwise
+     */
+    static boolean isSameContent(Path file1, Path file2) {
+        try {
+            return Files.size(file1) == Files.size(file2) && contentEquals(file1, file2);
+        } catch (IOException e) {
+            /* Let the slow path report the problem */
+            return false;
+        }
     }
 
     /**
@@ -498,7 +872,7 @@ public class CqCommonUtils {
             PluginParameterExpressionEvaluator evaluator = new PluginParameterExpressionEvaluator(session,
                     new MojoExecution(mojoDescriptor));
 
-            new PomTransformer(pomXml, charset, simpleElementWhitespace)
+            new CqPomTransformer(pomXml, charset, simpleElementWhitespace)
                     .transform(new UpdateVersionsTransformation(
                             new PomModelCache(localRepositoryPath, repositories, repoSystem, repoSession, project.getModel()),
                             evaluator,
@@ -510,6 +884,8 @@ public class CqCommonUtils {
     }
 
     static class UpdateVersionsTransformation implements Transformation {
+        /** The maximum number of source POMs to resolve concurrently */
+        static final int PREFETCH_PARALLELISM = 8;
 
         private final PomModelCache pomModels;
         private final PluginParameterExpressionEvaluator evaluator;
@@ -527,6 +903,22 @@ public class CqCommonUtils {
         @Override
         public void perform(Document document, TransformationContext context) {
             context.getContainerElement("project", "properties").ifPresent(props -> {
+                /* Resolve all source POMs upfront in parallel rather than one after the other in the loop below */
+                final Map<String, String> resolvedVersions = new HashMap<>();
+                final Set<Gav> sourceGavs = new LinkedHashSet<>();
+                for (ContainerElement prop : props.childElements()) {
+                    Comment nextComment = prop.nextSiblingCommentNode();
+                    if (nextComment != null) {
+                        final Matcher m = SYNC_INSTRUCTION_PATTERN.matcher(nextComment.getNodeValue());
+                        if (m.matches()) {
+                            final String rawVersion = m.group("version");
+                            final String resolvedVersion = resolvedVersions.computeIfAbsent(rawVersion, this::evaluate);
+                            sourceGavs.add(new Gav(m.group("groupId"), m.group("artifactId"), resolvedVersion));
+                        }
+                    }
+                }
+                pomModels.prefetch(sourceGavs, PREFETCH_PARALLELISM);
+
                 for (ContainerElement prop : props.childElements()) {
                     Comment nextComment = prop.nextSiblingCommentNode();
                     if (nextComment != null) {
@@ -538,62 +930,38 @@ public class CqCommonUtils {
                             final String rawVersion = m.group("version");
                             final String element = m.group("element");
                             final String method = m.group("method");
-                            try {
-                                final String resolvedVersion = (String) evaluator.evaluate(rawVersion, String.class);
-                                log.debug("Resolved version " + rawVersion + " -> " + resolvedVersion);
-                                final Model sourceModel = pomModels.get(groupId, artifactId, resolvedVersion);
-
-                                final String newValue;
-
-                                switch (method) {
-                                case "prop":
-                                    final Properties sourceProps = sourceModel.getProperties();
-                                    final String sourceProperty = element;
-                                    newValue = sourceProps.getProperty(sourceProperty);
-                                    break;
-                                case "dep":
-                                    newValue = dependencyVersion(sourceModel, element, groupId, artifactId, resolvedVersion);
-                                    break;
-                                default:
-                                    throw new IllegalStateException(
-                                            "Unexpected method " + method + "; expected property or dependency");
-                                }
-
-                                final StringWriter out = new StringWriter();
-                                final String transformedValue;
-                                final String versionTransformation = versionTransformations.get(prop.getNode().getLocalName());
-                                if (versionTransformation != null) {
-                                    final Configuration templateCfg = new Configuration(Configuration.VERSION_2_3_28);
-                                    templateCfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-
-                                    try {
-                                        final Template t = new Template(
-                                                versionTransformation,
-                                                new StringReader(versionTransformation),
-                                                templateCfg);
-                                        final Map<String, Object> model = Collections.singletonMap("version", newValue);
-                                        t.process(model, out);
-                                        transformedValue = out.toString();
-                                    } catch (IOException e) {
-                                        throw new RuntimeException("Could not parse " + versionTransformation, e);
-                                    } catch (TemplateException e) {
-                                        throw new RuntimeException("Could not process " + versionTransformation, e);
-                                    }
-                                } else {
-                                    transformedValue = newValue;
-                                }
-
-                                final Element propNode = prop.getNode();
-                                final String key = propNode.getNodeName();
-                                final String oldValue = propNode.getTextContent();
-                                if (oldValue.equals(transformedValue)) {
-                                    log.info(" - Property " + key + " up to date");
-                                } else {
-                                    log.info(" - Property " + key + " updated: " + oldValue + " -> " + transformedValue);
-                                    propNode.setTextContent(transformedValue);
-                                }
-                            } catch (ExpressionEvaluationException e) {
-                                throw new RuntimeException("Could not resolve " + rawVersion, e);
+                            final String resolvedVersion = resolvedVersions.get(rawVersion);
+                            final Model sourceModel = pomModels.get(groupId, artifactId, resolvedVersion);
+
+                            final String newValue;
+
+                            switch (method) {
+                            case "prop":
+                                final Properties sourceProps = sourceModel.getProperties();
+                                final String sourceProperty = element;
+                                newValue = sourceProps.getProperty(sourceProperty);
+                                break;
+                            case "dep":
+                                newValue = dependencyVersion(sourceModel, element, groupId, artifactId, resolvedVersion);
+                                break;
+                            default:
+                                throw new IllegalStateException(
+                                        "Unexpected method " + method + "; expected property or dependency");
+                            }
+
+                            final String versionTransformation = versionTransformations.get(prop.getNode().getLocalName());
+                            final String transformedValue = versionTransformation != null
+                                    ? VersionTransformation.compile(versionTransformation).apply(newValue)
+                                    : newValue;
+
+                            final Element propNode = prop.getNode();
+                            final String key = propNode.getNodeName();
+                            final String oldValue = propNode.getTextContent();
+                            if (oldValue.equals(transformedValue)) {
+                                log.info(" - Property " + key + " up to date");
+                            } else {
+                                log.info(" - Property " + key + " updated: " + oldValue + " -> " + transformedValue);
+                                propNode.setTextContent(transformedValue);
                             }
                         }
                     }
@@ -601,6 +969,16 @@ public class CqCommonUtils {
             });
         }
 
+        String evaluate(String rawVersion) {
+            try {
+                final String resolvedVersion = (String) evaluator.evaluate(rawVersion, String.class);
+                log.debug("Resolved version " + rawVersion + " -> " + resolvedVersion);
+                return resolvedVersion;
+            } catch (ExpressionEvaluationException e) {
+                throw new RuntimeException("Could not resolve " + rawVersion, e);
+            }
+        }
+
         private String dependencyVersion(Model model, String element, String groupId, String artifactId,
                 String resolvedVersion) {
             final String[] ga = element.split(":");
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.util.function.Supplier;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events emitted by the mojos, so that a recording opened in JDK Mission Control shows the
+ * timeline of mojo phases, POM transformations, source tree loading and artifact resolution next to GC and I/O.
+ * <p>
+ * The events are recorded whenever a recording is running, e.g. when Maven was started with
+ * {@code MAVEN_OPTS=-XX:StartFlightRecording=filename=cq.jfr}; they cost next to nothing otherwise.
+ */
+public final class CqEvents {
+    static final String CATEGORY = "CQ Maven Plugin";
+
+    private CqEvents() {
+    }
+
+    /**
+     * A named phase of a mojo execution. The phases of a mojo are typically chained using {@link #next(String)}:
+     *
+     * <pre>
+     * CqEvents.MojoPhase phase = CqEvents.MojoPhase.begin("prod-excludes", "init");
+     * ...
+     * phase = phase.next("copy-poms");
+     * ...
+     * phase.commit();
+     * </pre>
+     */
+    @Name("org.l2x6.cq.MojoPhase")
+    @Label("Mojo Phase")
+    @Category(CATEGORY)
+    @Description("A phase of a mojo execution")
+    public static final class MojoPhase extends Event {
+        @Label("Mojo")
+        String mojo;
+
+        @Label("Phase")
+        String name;
+
+        /**
+         * @param  mojo the goal of the mojo
+         * @param  name the name of the phase
+         * @return      a new {@link MojoPhase} that has begun already
+         */
+        public static MojoPhase begin(String mojo, String name) {
+            final MojoPhase result = new MojoPhase();
+            result.mojo = mojo;
+            result.name = name;
+            result.begin();
+            return result;
+        }
+
+        /**
+         * Commits this phase and begins a new one of the same mojo.
+         *
+         * @param  name the name of the next phase
+         * @return      a new {@link MojoPhase} that has begun already
+         */
+        public MojoPhase next(String name) {
+            commit();
+            return begin(mojo, name);
+        }
+
+        /**
+         * @return the goal of the mojo
+         */
+        public String getMojo() {
+            return mojo;
+        }
+
+        /**
+         * @return the name of this phase
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * A {@code pom.xml} file transformed by {@link CqPomTransformer}.
+     */
+    @Name("org.l2x6.cq.PomTransform")
+    @Label("POM Transform")
+    @Category(CATEGORY)
+    @Description("A pom.xml file transformed by PomTransformer")
+    public static final class PomTransform extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Transformations")
+        int transformationCount;
+
+        @Label("Bytes In")
+        @DataAmount
+        long bytesIn;
+
+        @Label("Bytes Out")
+        @DataAmount
+        long bytesOut;
+    }
+
+    /**
+     * A {@link org.l2x6.pom.tuner.MavenSourceTree} loaded via {@link CqCommonUtils#loadSourceTree(java.nio.file.Path,
+     * java.nio.charset.Charset)}.
+     */
+    @Name("org.l2x6.cq.TreeLoad")
+    @Label("Source Tree Load")
+    @Category(CATEGORY)
+    @Description("A Maven source tree loaded from pom.xml files")
+    public static final class TreeLoad extends Event {
+        @Label("Root POM")
+        String rootPom;
+
+        @Label("Modules")
+        int moduleCount;
+    }
+
+    /**
+     * An artifact resolved from the local Maven repository or from a remote repository.
+     */
+    @Name("org.l2x6.cq.ArtifactResolve")
+    @Label("Artifact Resolve")
+    @Category(CATEGORY)
+    @Description("An artifact resolved locally or from a remote repository")
+    public static final class ArtifactResolve extends Event {
+        @Label("GAV")
+        String gav;
+
+        @Label("Remote")
+        boolean remote;
+
+        @Label("Repository")
+        String repository;
+
+        @Label("Failed")
+        boolean failed;
+
+        /**
+         * Begins a new event, which counts as failed until {@link #resolved(boolean, String)} is called. The caller
+         * must {@link #commit()} it in a {@code finally} block, so that failed resolutions are recorded too.
+         *
+         * @param  gav supplies the coordinates of the artifact to resolve; called only if the event is enabled
+         * @return     a new {@link ArtifactResolve} that has begun already
+         */
+        static ArtifactResolve begin(Supplier<String> gav) {
+            final ArtifactResolve result = new ArtifactResolve();
+            if (result.isEnabled()) {
+                result.gav = gav.get();
+                result.failed = true;
+                result.begin();
+            }
+            return result;
+        }
+
+        /**
+         * Commits a zero-duration event for an artifact found in the local Maven repository.
+         *
+         * @param gav supplies the coordinates of the artifact; called only if the event is enabled
+         */
+        static void local(Supplier<String> gav) {
+            final ArtifactResolve event = new ArtifactResolve();
+            if (event.isEnabled()) {
+                event.gav = gav.get();
+                event.commit();
+            }
+        }
+
+        /**
+         * Sets the successful outcome of the resolution. The event still needs to be committed.
+         *
+         * @param remote     {@code true} if the artifact was fetched from a remote repository; {@code false} otherwise
+         * @param repository the URL of the remote repository or {@code null} if not known
+         */
+        void resolved(boolean remote, String repository) {
+            this.failed = false;
+            this.remote = remote;
+            this.repository = repository;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A process wide registry of counters, timers and gauges that tell where the time goes inside the mojos. Collecting is
+ * disabled by default; it is enabled by setting the {@value #METRICS_PROPERTY} system property to {@code true}, e.g.
+ * via {@code mvn -Dcq.metrics ...}.
+ * <p>
+ * Timers record the number of invocations, the wall clock time and the bytes allocated by the calling thread, if the
+ * JVM supports measuring that. Nested timers are inclusive, i.e. the time of the inner timer is also counted by the
+ * outer one.
+ * <p>
+ * Mojos call {@link #start()} when they start and pass the returned {@link Snapshot} to
+ * {@link #report(String, Snapshot, Log, Path)} when they finish to get the numbers for their own execution.
+ */
+public final class CqMetrics {
+    /** The system property enabling the collection and reporting of metrics */
+    public static final String METRICS_PROPERTY = "cq.metrics";
+
+    private static final CqMetrics instance = new CqMetrics(Boolean.getBoolean(METRICS_PROPERTY));
+    private static final com.sun.management.ThreadMXBean allocationBean = allocationBean();
+
+    /**
+     * @return the process wide {@link CqMetrics}
+     */
+    public static CqMetrics getInstance() {
+        return instance;
+    }
+
+    static com.sun.management.ThreadMXBean allocationBean() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean;
+            }
+        }
+        return null;
+    }
+
+    static long allocatedBytes() {
+        return allocationBean == null ? 0 : allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private volatile boolean enabled;
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    CqMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Re-reads the {@value #METRICS_PROPERTY} system property, so that it can differ between builds run in the same
+     * JVM and returns a {@link Snapshot} of the current state.
+     *
+     * @return a {@link Snapshot} to pass to {@link #report(String, Snapshot, Log, Path)}
+     */
+    public Snapshot start() {
+        enabled = Boolean.getBoolean(METRICS_PROPERTY);
+        return snapshot();
+    }
+
+    /**
+     * @return {@code true} if metrics are collected; {@code false} otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Increments the counter with the given {@code name} by one.
+     *
+     * @param name the name of the counter
+     */
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Adds {@code delta} to the counter with the given {@code name}.
+     *
+     * @param name  the name of the counter
+     * @param delta the value to add
+     */
+    public void add(String name, long delta) {
+        if (enabled) {
+            counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    /**
+     * Registers a gauge whose value is sampled when a {@link Snapshot} is taken. A gauge registered earlier under the
+     * same {@code name} is replaced.
+     *
+     * @param name  the name of the gauge
+     * @param value supplies the current value of the gauge
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Runs the given {@code action} and records its duration and allocations under the given timer {@code name}.
+     *
+     * @param  <T>    the type of the result
+     * @param  name   the name of the timer
+     * @param  action the action to time
+     * @return        the result of {@code action}
+     */
+    public <T> T time(String name, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        final long startBytes = allocatedBytes();
+        final long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            final long nanos = System.nanoTime() - start;
+            timers.computeIfAbsent(name, k -> new Timer()).record(nanos, allocatedBytes() - startBytes);
+        }
+    }
+
+    /**
+     * Runs the given {@code action} and records its duration and allocations under the given timer {@code name}.
+     *
+     * @param name   the name of the timer
+     * @param action the action to time
+     */
+    public void time(String name, Runnable action) {
+        time(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return an immutable copy of the current state
+     */
+    public Snapshot snapshot() {
+        final Map<String, Long> countersCopy = new TreeMap<>();
+        counters.forEach((k, v) -> countersCopy.put(k, v.sum()));
+        final Map<String, TimerStats> timersCopy = new TreeMap<>();
+        timers.forEach((k, v) -> timersCopy.put(k, v.stats()));
+        final Map<String, Long> gaugesCopy = new TreeMap<>();
+        gauges.forEach((k, v) -> gaugesCopy.put(k, v.getAsLong()));
+        return new Snapshot(Collections.unmodifiableMap(countersCopy), Collections.unmodifiableMap(timersCopy),
+                Collections.unmodifiableMap(gaugesCopy));
+    }
+
+    /**
+     * Logs the metrics collected since {@code start} as a table and writes them to {@code jsonFile}. Does nothing if
+     * metrics are not {@link #isEnabled() enabled}.
+     *
+     * @param goal     the goal of the calling mojo
+     * @param start    the {@link Snapshot} returned by {@link #start()} when the mojo started
+     * @param log      the log to write the table to
+     * @param jsonFile the file to write the JSON report to or {@code null} if no JSON report should be written
+     */
+    public void report(String goal, Snapshot start, Log log, Path jsonFile) {
+        if (!enabled) {
+            return;
+        }
+        final Snapshot delta = snapshot().since(start);
+        log.info("Metrics of " + goal + ":");
+        log.info(String.format("    %-48s %8s %10s %10s %10s %12s", "Timer", "count", "total ms", "avg ms", "max ms",
+                "alloc KiB"));
+        delta.timers.forEach((name, stats) -> log.info(String.format("    %-48s %8d %10d %10.1f %10d %12d",
+                name,
+                stats.count,
+                TimeUnit.NANOSECONDS.toMillis(stats.totalNanos),
+                stats.count == 0 ? 0.0d : stats.totalNanos / 1_000_000.0d / stats.count,
+                TimeUnit.NANOSECONDS.toMillis(stats.maxNanos),
+                stats.allocatedBytes / 1024)));
+        if (!delta.counters.isEmpty() || !delta.gauges.isEmpty()) {
+            log.info(String.format("    %-48s %8s", "Counter/Gauge", "value"));
+            delta.counters.forEach((name, value) -> log.info(String.format("    %-48s %8d", name, value)));
+            delta.gauges.forEach((name, value) -> log.info(String.format("    %-48s %8d", name, value)));
+        }
+        if (jsonFile == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(jsonFile.getParent());
+            try (Writer w = Files.newBufferedWriter(jsonFile, StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(delta.toMap(goal), w);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write " + jsonFile, e);
+        }
+        log.info("Metrics written to " + jsonFile);
+    }
+
+    /**
+     * An immutable state of {@link CqMetrics}.
+     */
+    public static final class Snapshot {
+        private final Map<String, Long> counters;
+        private final Map<String, TimerStats> timers;
+        private final Map<String, Long> gauges;
+
+        Snapshot(Map<String, Long> counters, Map<String, TimerStats> timers, Map<String, Long> gauges) {
+            this.counters = counters;
+            this.timers = timers;
+            this.gauges = gauges;
+        }
+
+        /**
+         * @param  start an earlier {@link Snapshot}
+         * @return       the difference between this and the given {@code start}; gauges keep their current values
+         */
+        public Snapshot since(Snapshot start) {
+            final Map<String, Long> countersDelta = new TreeMap<>();
+            counters.forEach((name, value) -> {
+                final long delta = value - start.counters.getOrDefault(name, 0L);
+                if (delta != 0) {
+                    countersDelta.put(name, delta);
+                }
+            });
+            final Map<String, TimerStats> timersDelta = new TreeMap<>();
+            timers.forEach((name, stats) -> {
+                final TimerStats startStats = start.timers.get(name);
+                final TimerStats delta = startStats == null ? stats : stats.minus(startStats);
+                if (delta.count != 0) {
+                    timersDelta.put(name, delta);
+                }
+            });
+            return new Snapshot(Collections.unmodifiableMap(countersDelta), Collections.unmodifiableMap(timersDelta),
+                    gauges);
+        }
+
+        /**
+         * @param  name the name of a counter
+         * @return      the value of the counter or {@code 0} if there is no such counter
+         */
+        public long getCounter(String name) {
+            return counters.getOrDefault(name, 0L);
+        }
+
+        /**
+         * @param  name the name of a timer
+         * @return      how many times the timer was invoked or {@code 0} if there is no such timer
+         */
+        public long getTimerCount(String name) {
+            final TimerStats stats = timers.get(name);
+            return stats == null ? 0 : stats.count;
+        }
+
+        /**
+         * @param  name the name of a gauge
+         * @return      the value of the gauge or {@code null} if there is no such gauge
+         */
+        public Long getGauge(String name) {
+            return gauges.get(name);
+        }
+
+        Map<String, Object> toMap(String goal) {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("goal", goal);
+            final Map<String, Object> timersMap = new LinkedHashMap<>();
+            timers.forEach((name, stats) -> timersMap.put(name, stats.toMap()));
+            result.put("timers", timersMap);
+            result.put("counters", counters);
+            result.put("gauges", gauges);
+            return result;
+        }
+    }
+
+    static final class Timer {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long allocatedBytes;
+
+        synchronized void record(long nanos, long bytes) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            allocatedBytes += bytes;
+        }
+
+        synchronized TimerStats stats() {
+            return new TimerStats(count, totalNanos, maxNanos, allocatedBytes);
+        }
+    }
+
+    static final class TimerStats {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long allocatedBytes;
+
+        TimerStats(long count, long totalNanos, long maxNanos, long allocatedBytes) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        TimerStats minus(TimerStats start) {
+            /* The maximum cannot be subtracted; keep the overall one */
+            return new TimerStats(count - start.count, totalNanos - start.totalNanos, maxNanos,
+                    allocatedBytes - start.allocatedBytes);
+        }
+
+        Map<String, Object> toMap() {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", count);
+            result.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+            result.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos));
+            result.put("allocatedBytes", allocatedBytes);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.LongSupplier;
+import org.l2x6.pom.tuner.PomTransformer;
+
+/**
+ * A {@link PomTransformer} recording its invocations in {@link CqMetrics} and as {@link CqEvents.PomTransform} JFR
+ * events. Like the plain {@link PomTransformer}, it writes the file only if the transformation changed its content.
+ */
+public class CqPomTransformer extends PomTransformer {
+    /** The name of the {@link CqMetrics} timer measuring {@link #transform(Collection)} */
+    public static final String TRANSFORM_TIMER = "PomTransformer.transform";
+
+    /** Where {@link #transform(Path, String, Collection, Charset, SimpleElementWhitespace)} puts its scratch files */
+    private static volatile Path scratchDir;
+
+    private final Path path;
+
+    public CqPomTransformer(Path path, Charset charset, SimpleElementWhitespace simpleElementWhitespace) {
+        super(path, charset, simpleElementWhitespace);
+        this.path = path;
+    }
+
+    /**
+     * {@inheritDoc} {@link PomTransformer#transform(Transformation...)} delegates to this method, so both are
+     * measured.
+     */
+    @Override
+    public void transform(Collection<Transformation> transformations) {
+        measure(path, transformations, () -> size(path), () -> super.transform(transformations), () -> size(path));
+    }
+
+    /**
+     * Applies the given {@code transformations} to the given {@code content} in a single DOM pass, recording the
+     * invocation in {@link CqMetrics} and as a {@link CqEvents.PomTransform} JFR event. {@code path} itself is neither
+     * read nor written. The public {@link PomTransformer} API works on files only, so the {@code content} is
+     * transformed in a scratch file in the system temporary directory, which is deleted afterwards.
+     *
+     * @param  path                    the path the {@code content} belongs to; used in error messages
+     * @param  content                 the content of the {@code pom.xml} file to transform
+     * @param  transformations         the transformations to apply
+     * @param  charset                 the encoding of the file
+     * @param  simpleElementWhitespace the whitespace to use in empty elements
+     * @return                         the transformed content
+     */
+    static String transform(Path path, String content, Collection<Transformation> transformations, Charset charset,
+            SimpleElementWhitespace simpleElementWhitespace) {
+        final String[] result = { content };
+        measure(path, transformations, () -> content.getBytes(charset).length, () -> {
+            Path scratchFile = null;
+            try {
+                scratchFile = Files.createTempFile(scratchDir(), "pom-", ".xml");
+                Files.write(scratchFile, content.getBytes(charset));
+                new PomTransformer(scratchFile, charset, simpleElementWhitespace).transform(transformations);
+                result[0] = new String(Files.readAllBytes(scratchFile), charset);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not transform " + path, e);
+            } catch (RuntimeException e) {
+                /* Report the failure against the real file rather than against the scratch file */
+                throw new RuntimeException("Could not transform " + path + ": "
+                        + String.valueOf(e.getMessage()).replace(scratchFile.toString(), path.toString()), e);
+            } finally {
+                if (scratchFile != null) {
+                    try {
+                        Files.deleteIfExists(scratchFile);
+                    } catch (IOException e) {
+                        /* ignore */
+                    }
+                }
+            }
+        }, () -> result[0].getBytes(charset).length);
+        return result[0];
+    }
+
+    static void measure(Path path, Collection<Transformation> transformations, LongSupplier bytesIn, Runnable action,
+            LongSupplier bytesOut) {
+        final CqMetrics metrics = CqMetrics.getInstance();
+        metrics.add("PomTransformer.transformations", transformations.size());
+        final CqEvents.PomTransform event = new CqEvents.PomTransform();
+        final boolean recording = event.isEnabled();
+        if (recording) {
+            event.path = path.toString();
+            event.transformationCount = transformations.size();
+            event.bytesIn = bytesIn.getAsLong();
+            event.begin();
+        }
+        metrics.time(TRANSFORM_TIMER, action);
+        if (recording) {
+            event.end();
+            event.bytesOut = bytesOut.getAsLong();
+            event.commit();
+        }
+    }
+
+    static Path scratchDir() throws IOException {
+        Path result = scratchDir;
+        if (result == null) {
+            synchronized (CqPomTransformer.class) {
+                result = scratchDir;
+                if (result == null) {
+                    result = Files.createTempDirectory("cq-pom-transformer");
+                    /* Works because the scratch files are deleted right after use */
+                    result.toFile().deleteOnExit();
+                    scratchDir = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    static byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read DOM from [%s]", path), e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects edits of files and runs them grouped by file: the edits of a single file are run one after another in the
+ * order in which they were {@link #submit(Path, Runnable) submitted} while different files are edited in parallel on
+ * a bounded pool of threads. Hence the result is the same as if all edits were run serially, as long as no edit reads
+ * a file edited by another file's edits.
+ */
+public final class FileEditScheduler {
+    private final Map<Path, List<Runnable>> edits = new LinkedHashMap<>();
+
+    /**
+     * @param  file the file that {@code edit} modifies
+     * @param  edit the edit to run
+     * @return      this {@link FileEditScheduler}
+     */
+    public FileEditScheduler submit(Path file, Runnable edit) {
+        edits.computeIfAbsent(file.toAbsolutePath().normalize(), k -> new ArrayList<>()).add(edit);
+        return this;
+    }
+
+    /**
+     * @param  file the file to check
+     * @return      {@code true} if some edits of the given {@code file} were submitted but not {@link #run(int) run}
+     *              yet; {@code false} otherwise
+     */
+    public boolean hasEdits(Path file) {
+        return edits.containsKey(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * @return the number of distinct files edited by the submitted edits
+     */
+    public int getFileCount() {
+        return edits.size();
+    }
+
+    /**
+     * Runs all submitted edits and forgets them.
+     *
+     * @param  parallelism      the maximum number of files to edit at the same time; {@code 1} runs all edits on the
+     *                          calling thread
+     * @throws RuntimeException if any of the edits failed; the failures of other files are added as suppressed
+     *                          exceptions
+     */
+    public void run(int parallelism) {
+        final List<Entry<Path, List<Runnable>>> files = new ArrayList<>(edits.entrySet());
+        edits.clear();
+        final int threads = Math.min(parallelism, files.size());
+        if (threads <= 1) {
+            for (Entry<Path, List<Runnable>> file : files) {
+                file.getValue().forEach(Runnable::run);
+            }
+            return;
+        }
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "cq-file-edit-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            final List<Future<?>> futures = new ArrayList<>(files.size());
+            for (Entry<Path, List<Runnable>> file : files) {
+                futures.add(executor.submit(() -> file.getValue().forEach(Runnable::run)));
+            }
+            RuntimeException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while editing " + files.get(i).getKey(), e);
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (failure == null) {
+                        failure = cause instanceof RuntimeException
+                                ? (RuntimeException) cause
+                                : new RuntimeException("Could not edit " + files.get(i).getKey(), cause);
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
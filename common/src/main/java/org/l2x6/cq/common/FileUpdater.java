@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Writes files only if their content changes, so that the modification time of unchanged files is kept and
+ * incremental builds downstream are not invalidated. Changed files are replaced atomically by moving a temporary file
+ * written next to them. The numbers of written and skipped files are counted in {@link CqMetrics}.
+ */
+public final class FileUpdater {
+    /** The name of the {@link CqMetrics} counter of files written by {@link FileUpdater} */
+    public static final String WRITTEN_COUNTER = "FileUpdater.written";
+    /** The name of the {@link CqMetrics} counter of writes skipped by {@link FileUpdater} */
+    public static final String SKIPPED_COUNTER = "FileUpdater.skipped";
+
+    private FileUpdater() {
+    }
+
+    /**
+     * @param  path    the file to write
+     * @param  content the new content of {@code path}
+     * @param  charset the encoding to use
+     * @return         {@code true} if {@code path} was written; {@code false} if it had the given {@code content}
+     *                 already
+     */
+    public static boolean write(Path path, String content, Charset charset) {
+        return write(path, content.getBytes(charset));
+    }
+
+    /**
+     * @param  path    the file to write
+     * @param  content the new content of {@code path}
+     * @return         {@code true} if {@code path} was written; {@code false} if it had the given {@code content}
+     *                 already
+     */
+    public static boolean write(Path path, byte[] content) {
+        byte[] oldContent;
+        try {
+            oldContent = Files.size(path) == content.length ? Files.readAllBytes(path) : null;
+        } catch (NoSuchFileException e) {
+            oldContent = null;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read " + path, e);
+        }
+        return write(path, oldContent, content);
+    }
+
+    /**
+     * A variant of {@link #write(Path, byte[])} for callers who have read the current content of {@code path}
+     * already.
+     *
+     * @param  path       the file to write
+     * @param  oldContent the current content of {@code path} or {@code null} if not known
+     * @param  content    the new content of {@code path}
+     * @return            {@code true} if {@code path} was written; {@code false} if it had the given {@code content}
+     *                    already
+     */
+    public static boolean write(Path path, byte[] oldContent, byte[] content) {
+        final CqMetrics metrics = CqMetrics.getInstance();
+        if (oldContent != null && Arrays.equals(oldContent, content)) {
+            metrics.increment(SKIPPED_COUNTER);
+            return false;
+        }
+        try {
+            final Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            if (!Files.exists(path)) {
+                Files.write(path, content);
+            } else {
+                final Path tempFile = Files.createTempFile(dir, "." + path.getFileName(), ".tmp");
+                try {
+                    Files.write(tempFile, content);
+                    try {
+                        Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(path));
+                    } catch (UnsupportedOperationException e) {
+                        /* Not a POSIX file system */
+                    }
+                    try {
+                        Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write " + path, e);
+        }
+        metrics.increment(WRITTEN_COUNTER);
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.aether.RepositorySystemSession;
+import org.l2x6.cq.common.CqCatalog.Flavor;
+import org.l2x6.cq.common.CqCatalog.GavCqCatalog;
+
+/**
+ * A reference counting pool of {@link GavCqCatalog}s keyed by {@link Flavor} and version, so that several mojos
+ * executed in the same Maven session open each catalog jar only once.
+ * <p>
+ * Each call of {@link #open(Flavor, String, Path)} returns a new {@link GavCqCatalog} handle sharing the jar file
+ * system and the models with all other handles of the same catalog. The handles must be treated as read-only. Calling
+ * {@link GavCqCatalog#close()} on a handle returns it to the pool; closing the same handle again has no effect. The
+ * underlying jar file systems stay open
+ * until a pool for another session is created or the JVM exits, whatever comes first.
+ */
+public class GavCqCatalogPool implements AutoCloseable {
+    private static final String SESSION_KEY = GavCqCatalogPool.class.getName();
+
+    /** All pools having some open catalogs */
+    private static final List<GavCqCatalogPool> pools = new ArrayList<>();
+    private static boolean shutdownHookRegistered = false;
+
+    /**
+     * @param  repoSession the current {@link RepositorySystemSession} or {@code null}
+     * @return             the {@link GavCqCatalogPool} associated with the given {@code repoSession} or a new
+     *                     {@link GavCqCatalogPool} if {@code repoSession} is {@code null}
+     */
+    public static GavCqCatalogPool of(RepositorySystemSession repoSession) {
+        if (repoSession == null) {
+            return register(new GavCqCatalogPool());
+        }
+        while (true) {
+            final GavCqCatalogPool existing = (GavCqCatalogPool) repoSession.getData().get(SESSION_KEY);
+            if (existing != null) {
+                return existing;
+            }
+            final GavCqCatalogPool pool = new GavCqCatalogPool();
+            if (repoSession.getData().set(SESSION_KEY, null, pool)) {
+                return register(pool);
+            }
+        }
+    }
+
+    static GavCqCatalogPool register(GavCqCatalogPool newPool) {
+        synchronized (pools) {
+            /* A new session has started, so the previous sessions must be over */
+            for (Iterator<GavCqCatalogPool> it = pools.iterator(); it.hasNext();) {
+                final GavCqCatalogPool pool = it.next();
+                pool.closeIdle();
+                if (pool.size() == 0) {
+                    it.remove();
+                }
+            }
+            pools.add(newPool);
+            if (!shutdownHookRegistered) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    synchronized (pools) {
+                        pools.forEach(GavCqCatalogPool::close);
+                    }
+                }, "GavCqCatalogPool shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return newPool;
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    GavCqCatalogPool() {
+    }
+
+    /**
+     * @param  flavor  the {@link Flavor} of the catalog
+     * @param  version the version of the catalog
+     * @param  jarPath the path to the resolved catalog jar; used only if the given catalog is not pooled yet
+     * @return         a new read-only handle to the shared {@link GavCqCatalog} that must be closed after use
+     */
+    public synchronized GavCqCatalog open(Flavor flavor, String version, Path jarPath) {
+        final String key = flavor.name() + ":" + version;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            final FileSystem fs;
+            try {
+                fs = FileSystems.newFileSystem(jarPath, (ClassLoader) null);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not open file system " + jarPath, e);
+            }
+            entry = new Entry(new GavCqCatalog(fs, flavor, jarPath, null));
+            entries.put(key, entry);
+        }
+        entry.refCount++;
+        /* GavCqCatalog.close() runs the callback at most once per handle */
+        return new GavCqCatalog(entry.catalog, () -> release(key));
+    }
+
+    synchronized void release(String key) {
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.refCount > 0) {
+            entry.refCount--;
+        }
+    }
+
+    /**
+     * @return the number of catalogs currently open in this pool
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void closeIdle() {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            final Entry entry = it.next();
+            if (entry.refCount == 0) {
+                entry.catalog.closeFileSystem();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes all catalogs in this pool regardless of whether they are still in use.
+     */
+    @Override
+    public synchronized void close() {
+        entries.values().forEach(entry -> entry.catalog.closeFileSystem());
+        entries.clear();
+    }
+
+    static class Entry {
+        private final GavCqCatalog catalog;
+        private int refCount;
+
+        Entry(GavCqCatalog catalog) {
+            this.catalog = catalog;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches a file from the first of several remote repositories that is able to deliver it.
+ * <p>
+ * The repositories are not tried strictly one after another: if the current repository does not answer within the
+ * hedge delay, the request to the next repository is started in parallel. A failing repository triggers the next one
+ * immediately. The first successful response wins and the bodies of all other responses are closed, including the
+ * ones arriving after the winner was picked. Each request is bounded by a connect and a request timeout, so that a
+ * stalled repository cannot block the build forever.
+ */
+class MirrorFetcher {
+    /** How long to wait for a repository before asking the next one too */
+    static final Duration DEFAULT_HEDGE_DELAY = Duration.ofMillis(500);
+    /** How long to wait for the response headers of a repository before giving it up */
+    static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static volatile HttpClient client;
+
+    static HttpClient client() {
+        HttpClient result = client;
+        if (result == null) {
+            synchronized (MirrorFetcher.class) {
+                result = client;
+                if (result == null) {
+                    client = result = HttpClient.newBuilder()
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .connectTimeout(CONNECT_TIMEOUT)
+                            .build();
+                }
+            }
+        }
+        return result;
+    }
+
+    private final List<String> repositories;
+    private final List<URI> uris;
+    private final Duration hedgeDelay;
+    private final Duration requestTimeout;
+    private final CompletableFuture<InputStream> winner = new CompletableFuture<>();
+    private final AtomicInteger launched = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final List<CompletableFuture<InputStream>> attempts = new ArrayList<>();
+    private final List<Throwable> failures = new ArrayList<>();
+
+    MirrorFetcher(List<String> remoteRepositories, String relativePath, Duration hedgeDelay, Duration requestTimeout) {
+        this.repositories = remoteRepositories;
+        this.uris = remoteRepositories.stream()
+                .map(repo -> URI.create(repo.endsWith("/") ? (repo + relativePath) : repo + "/" + relativePath))
+                .collect(Collectors.toList());
+        this.hedgeDelay = hedgeDelay;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * @param  remoteRepositories the base URIs of the repositories to try
+     * @param  relativePath       the path of the file to fetch relative to the repository base URI
+     * @param  hedgeDelay         how long to wait for a repository before asking the next one too
+     * @return                    an {@link InputStream} of the first successful response
+     * @throws IOException        if none of the repositories was able to deliver the file
+     */
+    static InputStream open(List<String> remoteRepositories, String relativePath, Duration hedgeDelay)
+            throws IOException {
+        return open(remoteRepositories, relativePath, hedgeDelay, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * @param  remoteRepositories the base URIs of the repositories to try
+     * @param  relativePath       the path of the file to fetch relative to the repository base URI
+     * @param  hedgeDelay         how long to wait for a repository before asking the next one too
+     * @param  requestTimeout     how long to wait for the response headers of a single repository
+     * @return                    an {@link InputStream} of the first successful response
+     * @throws IOException        if none of the repositories was able to deliver the file
+     */
+    static InputStream open(List<String> remoteRepositories, String relativePath, Duration hedgeDelay,
+            Duration requestTimeout) throws IOException {
+        return new MirrorFetcher(remoteRepositories, relativePath, hedgeDelay, requestTimeout).fetch();
+    }
+
+    InputStream fetch() throws IOException {
+        if (uris.isEmpty()) {
+            throw new IOException("No remote repositories to fetch from");
+        }
+        launch(0);
+        try {
+            return winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching from " + uris, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            synchronized (attempts) {
+                attempts.forEach(a -> a.cancel(true));
+            }
+        }
+    }
+
+    void launch(int index) {
+        if (index >= uris.size() || winner.isDone() || !launched.compareAndSet(index, index + 1)) {
+            return;
+        }
+        final URI uri = uris.get(index);
+        final String repository = repositories.get(index);
+        final long start = System.nanoTime();
+        final CompletableFuture<InputStream> attempt = attempt(uri, requestTimeout);
+        synchronized (attempts) {
+            attempts.add(attempt);
+        }
+        attempt.whenComplete((in, e) -> {
+            if (e instanceof CancellationException) {
+                /* Cancelled by fetch() because another repository has won; not a failure of this repository */
+                return;
+            }
+            if (e == null) {
+                if (winner.complete(new CountingInputStream(in, repository))) {
+                    ResolutionMetrics.getInstance().fetched(repository, System.nanoTime() - start, 0);
+                } else {
+                    /* A loser */
+                    closeQuietly(in);
+                }
+            } else {
+                ResolutionMetrics.getInstance().failed(repository);
+                synchronized (failures) {
+                    failures.add(e);
+                }
+                if (failed.incrementAndGet() == uris.size()) {
+                    final IOException ex = new IOException("Could not get any of " + uris);
+                    synchronized (failures) {
+                        failures.forEach(ex::addSuppressed);
+                    }
+                    winner.completeExceptionally(ex);
+                } else {
+                    launch(launched.get());
+                }
+            }
+        });
+        if (index + 1 < uris.size()) {
+            CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> launch(index + 1));
+        }
+    }
+
+    /**
+     * @param  uri            the URI to fetch
+     * @param  requestTimeout how long to wait for the response headers
+     * @return                a {@link CompletableFuture} that may be cancelled at any time; the body of a response
+     *                        arriving after the cancellation is closed
+     */
+    static CompletableFuture<InputStream> attempt(URI uri, Duration requestTimeout) {
+        final String scheme = uri.getScheme();
+        if ("http".equals(scheme) || "https".equals(scheme)) {
+            final HttpRequest request = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET().build();
+            final CompletableFuture<InputStream> result = new CompletableFuture<>();
+            /*
+             * Cancelling the future returned by sendAsync() does not abort the exchange, so we never cancel it and
+             * rather close the body of any response that is not wanted anymore
+             */
+            client().sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                    .whenComplete((response, e) -> {
+                        if (e != null) {
+                            result.completeExceptionally(e);
+                        } else if (response.statusCode() != 200) {
+                            closeQuietly(response.body());
+                            result.completeExceptionally(
+                                    new IOException("Got HTTP " + response.statusCode() + " from " + uri));
+                        } else if (!result.complete(response.body())) {
+                            /* Cancelled in the meantime */
+                            closeQuietly(response.body());
+                        }
+                    });
+            return result;
+        }
+        /* file: and other schemes supported by URL */
+        final CompletableFuture<InputStream> result = new CompletableFuture<>();
+        CompletableFuture.runAsync(() -> {
+            try {
+                final InputStream in = uri.toURL().openStream();
+                if (!result.complete(in)) {
+                    /* Cancelled in the meantime */
+                    closeQuietly(in);
+                }
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reports the number of bytes read to {@link ResolutionMetrics} when closed.
+     */
+    static class CountingInputStream extends FilterInputStream {
+        private final String repository;
+        private long count;
+        private boolean closed;
+
+        CountingInputStream(InputStream in, String repository) {
+            super(in);
+            this.repository = repository;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            if (result >= 0) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                ResolutionMetrics.getInstance().transferred(repository, count);
+            }
+            super.close();
+        }
+    }
+
+    static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            /* ignore */
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * A process wide cache of {@link Model}s parsed from {@code pom.xml} files, used by
+ * {@link CqCommonUtils#readPom(Path, Charset)}. An entry is valid as long as the size and the last modification time
+ * of the file do not change. Entries whose modification time is so close to the time when they were read that a
+ * subsequent change could go unnoticed due to coarse file system timestamps are additionally verified by comparing the
+ * content of the file.
+ * <p>
+ * The cached {@link Model}s are never exposed; {@link #get(Path, Charset)} returns a deep copy.
+ */
+public final class ParsedPomCache {
+    /** The system property to set the maximum number of entries */
+    public static final String MAX_ENTRIES_PROPERTY = "cq.pomCache.maxEntries";
+    /** The default maximum number of entries */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    /** Modification times closer than this to the read time are not trusted */
+    static final long RACY_MILLIS = 2000L;
+
+    private static final ParsedPomCache instance = new ParsedPomCache(
+            Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+    static {
+        final CqMetrics metrics = CqMetrics.getInstance();
+        metrics.gauge("ParsedPomCache.hits", instance::getHits);
+        metrics.gauge("ParsedPomCache.misses", instance::getMisses);
+        metrics.gauge("ParsedPomCache.size", instance::getSize);
+    }
+
+    /**
+     * @return the process wide {@link ParsedPomCache}
+     */
+    public static ParsedPomCache getInstance() {
+        return instance;
+    }
+
+    private final int maxEntries;
+    /** Access ordered, so that the least recently used entry comes first */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    ParsedPomCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param  path    the {@code pom.xml} file to read
+     * @param  charset the encoding of the file
+     * @return         a {@link Model} that the caller may freely modify
+     */
+    public Model get(Path path, Charset charset) {
+        final String key = path.toAbsolutePath().normalize().toString() + "|" + charset.name();
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse " + path, e);
+        }
+        final long size = attrs.size();
+        final long lastModified = attrs.lastModifiedTime().toMillis();
+
+        final Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        byte[] content = null;
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            if (!cached.isRacy()) {
+                hit();
+                return cached.model.clone();
+            }
+            content = read(path);
+            if (Arrays.equals(content, cached.content)) {
+                hit();
+                return cached.model.clone();
+            }
+        }
+
+        final long readTime = System.currentTimeMillis();
+        if (content == null) {
+            content = read(path);
+        }
+        final Model model = parse(path, new StringReader(new String(content, charset)));
+        final boolean racy = readTime - lastModified < RACY_MILLIS;
+        final Entry entry = new Entry(model, size, lastModified, racy ? content : null);
+        synchronized (this) {
+            misses++;
+            entries.put(key, entry);
+            for (Iterator<Entry> it = entries.values().iterator(); entries.size() > maxEntries;) {
+                it.next();
+                it.remove();
+            }
+        }
+        return model.clone();
+    }
+
+    synchronized void hit() {
+        hits++;
+    }
+
+    static byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse " + path, e);
+        }
+    }
+
+    static Model parse(Path path, Reader reader) {
+        try (Reader r = reader) {
+            return new MavenXpp3Reader().read(r);
+        } catch (XmlPullParserException | IOException e) {
+            throw new RuntimeException("Could not parse " + path, e);
+        }
+    }
+
+    /**
+     * Removes all entries from this cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of entries currently held by this cache
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * @return how many times a {@link Model} was served from this cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return how many times a {@code pom.xml} file had to be parsed
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ParsedPomCache [entries: " + entries.size() + "/" + maxEntries + ", hits: " + hits + ", misses: " + misses
+                + "]";
+    }
+
+    static class Entry {
+        private final Model model;
+        private final long size;
+        private final long lastModified;
+        /** Non-null only if the last modification time is too close to the read time to be trusted */
+        private final byte[] content;
+
+        Entry(Model model, long size, long lastModified, byte[] content) {
+            this.model = model;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+
+        boolean isRacy() {
+            return content != null;
+        }
+    }
+}
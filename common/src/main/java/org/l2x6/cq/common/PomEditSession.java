@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.apache.maven.model.Model;
+import org.l2x6.pom.tuner.MavenSourceTree;
+import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
+import org.l2x6.pom.tuner.PomTransformer.Transformation;
+
+/**
+ * Keeps the {@code pom.xml} files edited within one mojo execution in memory, so that a file transformed several
+ * times is read from and written to the disk only once.
+ * <p>
+ * {@link Transformation}s passed to {@link #transform(Path, Collection)} are queued per file and applied in the order
+ * of submission; consecutive transformations of the same file are applied in a single DOM parse/serialize pass once
+ * the content is needed, i.e. upon {@link #getContent(Path)}, {@link #readPom(Path)} or {@link #flush()}. Readers
+ * going through the file system, such as {@link MavenSourceTree}, see the edits only after {@link #flush()};
+ * {@link #loadSourceTree(Path, Predicate)} flushes implicitly. Any code writing a file directly must {@link #flush()}
+ * before, otherwise its changes may get overwritten.
+ */
+public class PomEditSession implements AutoCloseable {
+    /** The name of the {@link CqMetrics} counter of files actually written by {@link #flush()} */
+    public static final String FLUSHED_COUNTER = "PomEditSession.flushed";
+    /** The name of the {@link CqMetrics} counter of DOM passes saved by batching transformations */
+    public static final String SAVED_PASSES_COUNTER = "PomEditSession.savedPasses";
+
+    private final Charset charset;
+    private final SimpleElementWhitespace simpleElementWhitespace;
+    private final Map<Path, PomEdits> files = new LinkedHashMap<>();
+
+    public PomEditSession(Charset charset, SimpleElementWhitespace simpleElementWhitespace) {
+        this.charset = charset;
+        this.simpleElementWhitespace = simpleElementWhitespace;
+    }
+
+    /**
+     * Queues the given {@code transformations} of the given {@code pom.xml} file.
+     *
+     * @param  path            the file to transform
+     * @param  transformations the transformations to apply
+     * @return                 this {@link PomEditSession}
+     */
+    public PomEditSession transform(Path path, Transformation... transformations) {
+        return transform(path, Arrays.asList(transformations));
+    }
+
+    /**
+     * Queues the given {@code transformations} of the given {@code pom.xml} file.
+     *
+     * @param  path            the file to transform
+     * @param  transformations the transformations to apply
+     * @return                 this {@link PomEditSession}
+     */
+    public PomEditSession transform(Path path, Collection<Transformation> transformations) {
+        final PomEdits edits = files.computeIfAbsent(path.toAbsolutePath().normalize(), PomEdits::new);
+        if (!edits.pending.isEmpty()) {
+            CqMetrics.getInstance().increment(SAVED_PASSES_COUNTER);
+        }
+        edits.pending.addAll(transformations);
+        return this;
+    }
+
+    /**
+     * Sets the content of the given {@code pom.xml} file to the given {@code content}, dropping any transformations
+     * queued for it so far. The file does not need to exist. Like with {@link #transform(Path, Collection)}, nothing
+     * is written before {@link #flush()} and an unchanged file is not written at all.
+     *
+     * @param  path    the file to create or overwrite
+     * @param  content the new content of the file
+     * @return         this {@link PomEditSession}
+     */
+    public PomEditSession create(Path path, String content) {
+        final PomEdits edits = files.computeIfAbsent(path.toAbsolutePath().normalize(), PomEdits::new);
+        edits.pending.clear();
+        edits.content = content;
+        return this;
+    }
+
+    /**
+     * @param  path the file to read
+     * @return      the content of the given file including all transformations queued so far
+     */
+    public String getContent(Path path) {
+        final PomEdits edits = files.get(path.toAbsolutePath().normalize());
+        return edits != null
+                ? edits.apply()
+                : new String(CqPomTransformer.read(path), charset);
+    }
+
+    /**
+     * @param  path the file to read
+     * @return      the {@link Model} of the given file including all transformations queued so far
+     */
+    public Model readPom(Path path) {
+        final PomEdits edits = files.get(path.toAbsolutePath().normalize());
+        return edits != null
+                ? ParsedPomCache.parse(path, new StringReader(edits.apply()))
+                : CqCommonUtils.readPom(path, charset);
+    }
+
+    /**
+     * @param  path the file to check
+     * @return      {@code true} if the given file is held by this session; {@code false} otherwise
+     */
+    public boolean contains(Path path) {
+        return files.containsKey(path.toAbsolutePath().normalize());
+    }
+
+    /**
+     * {@link #flush() Flushes} this session and loads a {@link MavenSourceTree} via
+     * {@link CqCommonUtils#loadSourceTree(Path, Charset, Predicate)}.
+     *
+     * @param  rootPomPath        the path to the root {@code pom.xml} file
+     * @param  dependencyExcludes the dependencies to ignore
+     * @return                    a new {@link MavenSourceTree}
+     */
+    public MavenSourceTree loadSourceTree(Path rootPomPath,
+            Predicate<org.l2x6.pom.tuner.model.Dependency> dependencyExcludes) {
+        flush();
+        return CqCommonUtils.loadSourceTree(rootPomPath, charset, dependencyExcludes);
+    }
+
+    /**
+     * {@link #flush() Flushes} this session and loads a {@link MavenSourceTree} via
+     * {@link CqCommonUtils#loadSourceTree(Path, Charset)}.
+     *
+     * @param  rootPomPath the path to the root {@code pom.xml} file
+     * @return             a new {@link MavenSourceTree}
+     */
+    public MavenSourceTree loadSourceTree(Path rootPomPath) {
+        flush();
+        return CqCommonUtils.loadSourceTree(rootPomPath, charset);
+    }
+
+    /**
+     * Applies all queued transformations, writes the files whose content has changed via {@link FileUpdater} and
+     * forgets all files, so that the subsequent edits start from the current content on the disk.
+     *
+     * @throws IllegalStateException if a file held by this session was changed on the disk by someone else in the
+     *                               meantime
+     */
+    public void flush() {
+        final CqMetrics metrics = CqMetrics.getInstance();
+        try {
+            for (PomEdits edits : files.values()) {
+                final byte[] newBytes = edits.apply().getBytes(charset);
+                final byte[] diskBytes = readIfExists(edits.path);
+                if (!Arrays.equals(edits.bytes, diskBytes)) {
+                    throw new IllegalStateException("Cannot write " + edits.path
+                            + ": the file was changed on the disk after it was loaded into PomEditSession;"
+                            + " call PomEditSession.flush() before writing it directly");
+                }
+                if (FileUpdater.write(edits.path, diskBytes, newBytes)) {
+                    metrics.increment(FLUSHED_COUNTER);
+                }
+            }
+        } finally {
+            files.clear();
+        }
+    }
+
+    /**
+     * Same as {@link #flush()}.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    static byte[] readIfExists(Path path) {
+        return Files.exists(path) ? CqPomTransformer.read(path) : null;
+    }
+
+    class PomEdits {
+        private final Path path;
+        /** The content of {@link #path} on the disk when this {@link PomEdits} was created; {@code null} if none */
+        private final byte[] bytes;
+        private String content;
+        private final List<Transformation> pending = new ArrayList<>();
+
+        PomEdits(Path path) {
+            this.path = path;
+            this.bytes = readIfExists(path);
+            this.content = bytes == null ? null : new String(bytes, charset);
+        }
+
+        String apply() {
+            if (content == null) {
+                throw new IllegalStateException("Cannot transform " + path + ": the file does not exist");
+            }
+            if (!pending.isEmpty()) {
+                final List<Transformation> transformations = new ArrayList<>(pending);
+                pending.clear();
+                content = CqPomTransformer.transform(path, content, transformations, charset, simpleElementWhitespace);
+            }
+            return content;
+        }
+    }
+}
@@ -18,17 +18,32 @@ package org.l2x6.cq.common;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.apache.maven.model.Model;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.l2x6.pom.tuner.model.Gav;
 
+/**
+ * A cache of parsed {@link Model}s keyed by {@code groupId:artifactId:version}.
+ * <p>
+ * The resolved {@code pom.xml} files are parsed via {@link CqCommonUtils#readPom(Path, java.nio.charset.Charset)} so
+ * that subsequent mojo executions in the same JVM are served from the process wide {@link ParsedPomCache}.
+ * <p>
+ * The cached {@link Model}s are never exposed; {@link #get(String, String, String)} returns a deep copy.
+ */
 public class PomModelCache {
 
-    private final Map<String, Model> items = new HashMap<>();
+    private final Map<String, Model> items = new ConcurrentHashMap<>();
     private final Path localRepositoryPath;
     private final List<RemoteRepository> remoteRepositories;
     private final RepositorySystem repoSystem;
@@ -46,15 +61,56 @@ public class PomModelCache {
 
     public Model get(String groupId, String artifactId, String version) {
         final String key = groupId + ":" + artifactId + ":" + version;
-        if (key == "::") {
+        if ("::".equals(key)) {
             return self;
         }
-        return items.computeIfAbsent(key, k -> {
+        Model model = items.get(key);
+        if (model == null) {
+            /* Resolve outside of the map so that no lock is held during the I/O */
             final Path cqPomPath = CqCommonUtils.resolveArtifact(localRepositoryPath, groupId, artifactId, version,
                     "pom", remoteRepositories, repoSystem, repoSession);
-            final Model model = CqCommonUtils.readPom(cqPomPath, StandardCharsets.UTF_8);
-            return model;
-        });
+            model = CqCommonUtils.readPom(cqPomPath, StandardCharsets.UTF_8);
+            final Model previous = items.putIfAbsent(key, model);
+            if (previous != null) {
+                model = previous;
+            }
+        }
+        return model.clone();
+    }
+
+    /**
+     * Resolves and parses the given {@link Gav}s concurrently so that the subsequent {@link #get(String, String, String)}
+     * calls are served from this cache.
+     *
+     * @param gavs        the {@link Gav}s to fetch
+     * @param parallelism the maximum number of {@link Gav}s to resolve at the same time
+     */
+    public void prefetch(Collection<Gav> gavs, int parallelism) {
+        final List<Gav> missing = gavs.stream()
+                .distinct()
+                .filter(gav -> !items.containsKey(gav.getGroupId() + ":" + gav.getArtifactId() + ":" + gav.getVersion()))
+                .collect(Collectors.toList());
+        if (missing.size() <= 1 || parallelism <= 1) {
+            missing.forEach(gav -> get(gav.getGroupId(), gav.getArtifactId(), gav.getVersion()));
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, missing.size()));
+        try {
+            final List<Future<Model>> futures = missing.stream()
+                    .map(gav -> executor.submit(() -> get(gav.getGroupId(), gav.getArtifactId(), gav.getVersion())))
+                    .collect(Collectors.toList());
+            for (Future<Model> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching " + missing, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
 }
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Finds {@code pom.xml} files and optionally some additional files in a source tree. The directories are listed in
+ * parallel on a {@link ForkJoinPool} and {@code .git} directories as well as {@code target} and {@code src} directories
+ * of Maven modules are skipped as a whole. Further directories can be skipped using {@link #excludes(Collection)}.
+ * <p>
+ * Instances are immutable and thus can be shared.
+ */
+public final class PomWalker {
+    private static final Predicate<Path> NO_ADDITIONAL_FILES = path -> false;
+    private static final PomWalker POMS = new PomWalker(NO_ADDITIONAL_FILES, Collections.emptyList(),
+            Collections.emptyList());
+
+    /**
+     * @return a {@link PomWalker} finding only {@code pom.xml} files
+     */
+    public static PomWalker poms() {
+        return POMS;
+    }
+
+    /**
+     * Note that {@code src} directories of Maven modules are walked by the returned {@link PomWalker} because the
+     * additional files may be located there.
+     *
+     * @param  additionalFiles selects the files to find in addition to {@code pom.xml} files
+     * @return                 a {@link PomWalker} finding {@code pom.xml} files and files selected by
+     *                         {@code additionalFiles}
+     */
+    public static PomWalker of(Predicate<Path> additionalFiles) {
+        return new PomWalker(additionalFiles, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private final Predicate<Path> additionalFiles;
+    private final List<String> excludes;
+    private final List<PathMatcher> excludeMatchers;
+
+    PomWalker(Predicate<Path> additionalFiles, List<String> excludes, List<PathMatcher> excludeMatchers) {
+        this.additionalFiles = additionalFiles;
+        this.excludes = excludes;
+        this.excludeMatchers = excludeMatchers;
+    }
+
+    /**
+     * @param  globs glob patterns such as {@code docs/**} relative to the root directory passed to {@link #walk(Path)};
+     *               matching directories are skipped including their subtrees and matching files are not returned
+     * @return       a new {@link PomWalker} with the given {@code globs} added to the excludes of this
+     *               {@link PomWalker}
+     */
+    public PomWalker excludes(Collection<String> globs) {
+        if (globs == null || globs.isEmpty()) {
+            return this;
+        }
+        final List<String> newExcludes = new ArrayList<>(excludes);
+        newExcludes.addAll(globs);
+        return new PomWalker(
+                additionalFiles,
+                Collections.unmodifiableList(newExcludes),
+                Collections.unmodifiableList(newExcludes.stream()
+                        .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+                        .collect(Collectors.toList())));
+    }
+
+    /**
+     * @return the {@link Predicate} selecting the files to find in addition to {@code pom.xml} files
+     */
+    public Predicate<Path> getAdditionalFiles() {
+        return additionalFiles;
+    }
+
+    /**
+     * @return the glob patterns of paths to skip
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Walks the given {@code root} directory using {@link ForkJoinPool#commonPool()}.
+     *
+     * @param  root the directory to walk
+     * @return      an immutable sorted {@link List} of {@code pom.xml} files and additional files found under
+     *              {@code root}
+     */
+    public List<Path> walk(Path root) {
+        return walk(root, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param  root the directory to walk
+     * @param  pool the pool to list the directories on
+     * @return      an immutable sorted {@link List} of {@code pom.xml} files and additional files found under
+     *              {@code root}
+     */
+    public List<Path> walk(Path root, ForkJoinPool pool) {
+        final List<Path> result = pool.invoke(new WalkTask(root, root));
+        Collections.sort(result);
+        return Collections.unmodifiableList(result);
+    }
+
+    boolean isExcluded(Path root, Path path) {
+        if (excludeMatchers.isEmpty()) {
+            return false;
+        }
+        final Path relPath = root.relativize(path);
+        for (PathMatcher matcher : excludeMatchers) {
+            if (matcher.matches(relPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isPruned(String dirName, boolean parentHasPom) {
+        switch (dirName) {
+        case ".git":
+            return true;
+        case "target":
+            return parentHasPom;
+        case "src":
+            return parentHasPom && additionalFiles == NO_ADDITIONAL_FILES;
+        default:
+            return false;
+        }
+    }
+
+    class WalkTask extends RecursiveTask<List<Path>> {
+        private static final long serialVersionUID = 1L;
+        private final Path root;
+        private final Path dir;
+
+        WalkTask(Path root, Path dir) {
+            this.root = root;
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            final List<Path> files = new ArrayList<>();
+            final List<Path> subdirs = new ArrayList<>();
+            boolean hasPom = false;
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    final BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        subdirs.add(child);
+                    } else if (attrs.isRegularFile()) {
+                        final boolean isPom = child.getFileName().toString().equals("pom.xml");
+                        hasPom |= isPom;
+                        if ((isPom || additionalFiles.test(child)) && !isExcluded(root, child)) {
+                            files.add(child);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not visit pom.xml files under " + dir, e);
+            }
+            final List<WalkTask> tasks = new ArrayList<>(subdirs.size());
+            for (Path subdir : subdirs) {
+                if (!isPruned(subdir.getFileName().toString(), hasPom) && !isExcluded(root, subdir)) {
+                    tasks.add(new WalkTask(root, subdir));
+                }
+            }
+            for (WalkTask task : invokeAll(tasks)) {
+                files.addAll(task.join());
+            }
+            return files;
+        }
+    }
+
+}
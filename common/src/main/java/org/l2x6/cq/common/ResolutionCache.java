@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+
+/**
+ * Coalesces concurrent resolutions of the same artifact into a single in-flight resolution and remembers resolutions
+ * that failed because the artifact is missing for a limited time so that missing artifacts do not hit the remote
+ * repositories over and over again. Other failures, such as network errors, are not remembered.
+ */
+class ResolutionCache {
+    /** How long a failed resolution is remembered by default */
+    static final long DEFAULT_NEGATIVE_TTL_MS = 60_000;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final long negativeTtlMs;
+    private final LongSupplier clock;
+
+    ResolutionCache(long negativeTtlMs) {
+        this(negativeTtlMs, System::currentTimeMillis);
+    }
+
+    ResolutionCache(long negativeTtlMs, LongSupplier clock) {
+        this.negativeTtlMs = negativeTtlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * @param  key              the key identifying the artifact to resolve
+     * @param  resolver         performs the actual resolution; called at most once for all concurrent callers with the same
+     *                          {@code key}
+     * @return                  the result of the {@code resolver}
+     * @throws RuntimeException if the {@code resolver} has failed now or if it has failed with a
+     *                          {@link #isMissing(Throwable) missing} artifact within the negative TTL
+     */
+    Path resolve(String key, Supplier<Path> resolver) {
+        assertNotFailed(key);
+        final CompletableFuture<Path> future = new CompletableFuture<>();
+        final CompletableFuture<Path> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(key, existing);
+        }
+        try {
+            final Path result = resolver.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            if (isMissing(e)) {
+                failed(key, e);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @param  key              the key identifying the artifact
+     * @throws RuntimeException if the resolution of the given artifact has failed within the negative TTL
+     */
+    void assertNotFailed(String key) {
+        final Failure failure = failures.get(key);
+        if (failure != null) {
+            if (clock.getAsLong() < failure.expires) {
+                throw new RuntimeException(failure.cause.getMessage() + " (failed recently, not retrying)", failure.cause);
+            }
+            failures.remove(key, failure);
+        }
+    }
+
+    /**
+     * Remember that the resolution of the given artifact has failed.
+     *
+     * @param key   the key identifying the artifact
+     * @param cause the failure
+     */
+    void failed(String key, RuntimeException cause) {
+        failures.put(key, new Failure(cause, clock.getAsLong() + negativeTtlMs));
+    }
+
+    /**
+     * @param  e the failure to inspect
+     * @return   {@code true} if the given failure was caused by artifacts not found in any of the repositories;
+     *           {@code false} otherwise
+     */
+    static boolean isMissing(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ArtifactResolutionException) {
+                return ((ArtifactResolutionException) t).getResults().stream()
+                        .allMatch(r -> r.isResolved() || r.isMissing());
+            } else if (t instanceof ArtifactNotFoundException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Path await(String key, CompletableFuture<Path> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + key, e);
+        } catch (ExecutionException | CompletionException e) {
+            final Throwable cause = e.getCause();
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    static class Failure {
+        private final RuntimeException cause;
+        private final long expires;
+
+        Failure(RuntimeException cause, long expires) {
+            this.cause = cause;
+            this.expires = expires;
+        }
+    }
+}
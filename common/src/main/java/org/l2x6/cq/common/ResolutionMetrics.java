@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Process wide statistics about artifact resolution: hits in the local Maven repository, fetches from remote
+ * repositories with their latencies, transferred bytes and failures.
+ * <p>
+ * Mojos take a {@link #snapshot()} when they start and pass it to {@link #report(String, Snapshot, Log, Path)} when
+ * they finish to get the numbers for their own execution.
+ */
+public final class ResolutionMetrics {
+    /** Upper bounds of the latency histogram buckets in milliseconds; the last bucket is unbounded */
+    static final long[] LATENCY_BUCKETS_MS = { 10, 50, 100, 250, 500, 1000, 2500, 5000, Long.MAX_VALUE };
+    /** The repository name used for failures and fetches where the resolver does not tell the repository */
+    public static final String UNKNOWN_REPOSITORY = "unknown";
+
+    private static final ResolutionMetrics instance = new ResolutionMetrics();
+
+    /**
+     * @return the process wide {@link ResolutionMetrics}
+     */
+    public static ResolutionMetrics getInstance() {
+        return instance;
+    }
+
+    private long localHits;
+    private final Map<String, RepositoryStats> repositories = new TreeMap<>();
+
+    ResolutionMetrics() {
+    }
+
+    /**
+     * Records an artifact found in the local Maven repository.
+     */
+    public synchronized void localHit() {
+        localHits++;
+    }
+
+    /**
+     * Records a successful fetch from a remote repository.
+     *
+     * @param repository   the URL or id of the repository
+     * @param latencyNanos how long the fetch took
+     * @param bytes        the number of bytes transferred or {@code 0} if not known (yet)
+     */
+    public synchronized void fetched(String repository, long latencyNanos, long bytes) {
+        repositories.computeIfAbsent(repository, k -> new RepositoryStats()).fetched(latencyNanos, bytes);
+    }
+
+    /**
+     * Records bytes transferred from a remote repository that were not known at the time of
+     * {@link #fetched(String, long, long)}.
+     *
+     * @param repository the URL or id of the repository
+     * @param bytes      the number of bytes transferred
+     */
+    public synchronized void transferred(String repository, long bytes) {
+        repositories.computeIfAbsent(repository, k -> new RepositoryStats()).bytes += bytes;
+    }
+
+    /**
+     * Records a failed fetch.
+     *
+     * @param repository the URL or id of the repository or {@link #UNKNOWN_REPOSITORY}
+     */
+    public synchronized void failed(String repository) {
+        repositories.computeIfAbsent(repository, k -> new RepositoryStats()).failures++;
+    }
+
+    /**
+     * @return an immutable copy of the current state
+     */
+    public synchronized Snapshot snapshot() {
+        final Map<String, RepositoryStats> repos = new TreeMap<>();
+        repositories.forEach((k, v) -> repos.put(k, v.copy()));
+        return new Snapshot(localHits, Collections.unmodifiableMap(repos));
+    }
+
+    /**
+     * Logs the resolution activity since {@code start} and writes it to {@code jsonFile}. The report is opt-in: unless
+     * a {@code jsonFile} is given, the summary is logged on the debug level only. Nothing is logged or written if no
+     * artifacts were resolved.
+     *
+     * @param goal     the goal of the calling mojo
+     * @param start    the {@link Snapshot} taken when the mojo started
+     * @param log      the log to write the summary to
+     * @param jsonFile the file to write the JSON report to or {@code null} if no report was requested
+     */
+    public void report(String goal, Snapshot start, Log log, Path jsonFile) {
+        final Snapshot delta = snapshot().since(start);
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (jsonFile == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Artifact resolution in " + goal + ": " + delta.localHits + " local hits");
+                delta.repositories.forEach((repo, stats) -> log.debug("    " + repo + ": " + stats));
+            }
+            return;
+        }
+        log.info("Artifact resolution in " + goal + ": " + delta.localHits + " local hits");
+        delta.repositories.forEach((repo, stats) -> log.info("    " + repo + ": " + stats));
+        try {
+            Files.createDirectories(jsonFile.getParent());
+            try (Writer w = Files.newBufferedWriter(jsonFile, StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(delta.toMap(goal), w);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write " + jsonFile, e);
+        }
+    }
+
+    /**
+     * An immutable state of {@link ResolutionMetrics}.
+     */
+    public static final class Snapshot {
+        private final long localHits;
+        private final Map<String, RepositoryStats> repositories;
+
+        Snapshot(long localHits, Map<String, RepositoryStats> repositories) {
+            this.localHits = localHits;
+            this.repositories = repositories;
+        }
+
+        /**
+         * @param  start an earlier {@link Snapshot}
+         * @return       the difference between this and the given {@code start}
+         */
+        public Snapshot since(Snapshot start) {
+            final Map<String, RepositoryStats> repos = new TreeMap<>();
+            repositories.forEach((repo, stats) -> {
+                final RepositoryStats startStats = start.repositories.get(repo);
+                final RepositoryStats delta = startStats == null ? stats : stats.minus(startStats);
+                if (!delta.isEmpty()) {
+                    repos.put(repo, delta);
+                }
+            });
+            return new Snapshot(localHits - start.localHits, Collections.unmodifiableMap(repos));
+        }
+
+        /**
+         * @return the number of artifacts found in the local Maven repository
+         */
+        public long getLocalHits() {
+            return localHits;
+        }
+
+        /**
+         * @return the number of successful remote fetches over all repositories
+         */
+        public long getFetches() {
+            return repositories.values().stream().mapToLong(s -> s.fetches).sum();
+        }
+
+        /**
+         * @return the number of failed remote fetches over all repositories
+         */
+        public long getFailures() {
+            return repositories.values().stream().mapToLong(s -> s.failures).sum();
+        }
+
+        /**
+         * @return the number of bytes transferred from all repositories
+         */
+        public long getBytes() {
+            return repositories.values().stream().mapToLong(s -> s.bytes).sum();
+        }
+
+        boolean isEmpty() {
+            return localHits == 0 && repositories.isEmpty();
+        }
+
+        Map<String, Object> toMap(String goal) {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("goal", goal);
+            result.put("localHits", localHits);
+            result.put("fetches", getFetches());
+            result.put("failures", getFailures());
+            result.put("bytes", getBytes());
+            final Map<String, Object> repos = new LinkedHashMap<>();
+            repositories.forEach((repo, stats) -> repos.put(repo, stats.toMap()));
+            result.put("repositories", repos);
+            return result;
+        }
+    }
+
+    static final class RepositoryStats {
+        private long fetches;
+        private long failures;
+        private long bytes;
+        private long totalNanos;
+        private long maxNanos;
+        private final long[] histogram;
+
+        RepositoryStats() {
+            this.histogram = new long[LATENCY_BUCKETS_MS.length];
+        }
+
+        RepositoryStats(long fetches, long failures, long bytes, long totalNanos, long maxNanos, long[] histogram) {
+            this.fetches = fetches;
+            this.failures = failures;
+            this.bytes = bytes;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.histogram = histogram;
+        }
+
+        void fetched(long latencyNanos, long bytes) {
+            fetches++;
+            this.bytes += bytes;
+            totalNanos += latencyNanos;
+            maxNanos = Math.max(maxNanos, latencyNanos);
+            final long millis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+            for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+                if (millis < LATENCY_BUCKETS_MS[i]) {
+                    histogram[i]++;
+                    break;
+                }
+            }
+        }
+
+        RepositoryStats copy() {
+            return new RepositoryStats(fetches, failures, bytes, totalNanos, maxNanos, histogram.clone());
+        }
+
+        RepositoryStats minus(RepositoryStats start) {
+            final long[] h = new long[histogram.length];
+            for (int i = 0; i < h.length; i++) {
+                h[i] = histogram[i] - start.histogram[i];
+            }
+            /* The maximum cannot be subtracted; keep the overall one */
+            return new RepositoryStats(fetches - start.fetches, failures - start.failures, bytes - start.bytes,
+                    totalNanos - start.totalNanos, maxNanos, h);
+        }
+
+        boolean isEmpty() {
+            return fetches == 0 && failures == 0 && bytes == 0;
+        }
+
+        Map<String, Object> toMap() {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("fetches", fetches);
+            result.put("failures", failures);
+            result.put("bytes", bytes);
+            result.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+            result.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos));
+            final Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < histogram.length; i++) {
+                buckets.put(bucketName(i), histogram[i]);
+            }
+            result.put("latencyHistogram", buckets);
+            return result;
+        }
+
+        static String bucketName(int i) {
+            return LATENCY_BUCKETS_MS[i] == Long.MAX_VALUE
+                    ? ">=" + LATENCY_BUCKETS_MS[i - 1] + "ms"
+                    : "<" + LATENCY_BUCKETS_MS[i] + "ms";
+        }
+
+        @Override
+        public String toString() {
+            return fetches + " fetches, " + failures + " failures, " + bytes + " bytes, avg "
+                    + (fetches == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos / fetches)) + " ms, max "
+                    + TimeUnit.NANOSECONDS.toMillis(maxNanos) + " ms, latency histogram " + Arrays.toString(histogram);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records nested spans and writes them as a JSON file in the Chrome trace event format that can be viewed in
+ * {@code chrome://tracing} or in <a href="https://ui.perfetto.dev">Perfetto</a>.
+ * <p>
+ * Spans are recorded as complete ({@code "ph": "X"}) events of the thread that opened them; the viewers derive the
+ * nesting from the timestamps. Use {@link #NOOP} if no trace is requested.
+ */
+public class TraceRecorder {
+    /** A {@link TraceRecorder} recording nothing */
+    public static final TraceRecorder NOOP = new TraceRecorder(null) {
+        @Override
+        public Span span(String name, Map<String, Object> args) {
+            return Span.NOOP;
+        }
+
+        @Override
+        public void write() {
+        }
+    };
+
+    /**
+     * @param  traceFile the file to write the trace to or {@code null} if no trace should be recorded
+     * @return           a new {@link TraceRecorder} or {@link #NOOP} if {@code traceFile} is {@code null}
+     */
+    public static TraceRecorder of(Path traceFile) {
+        return traceFile == null ? NOOP : new TraceRecorder(traceFile);
+    }
+
+    private final Path traceFile;
+    private final long startNanos = System.nanoTime();
+    private final List<Map<String, Object>> events = new ArrayList<>();
+    private final Map<Long, String> threadNames = new LinkedHashMap<>();
+
+    TraceRecorder(Path traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    /**
+     * @param  name the name of the span
+     * @return      a new {@link Span} started right now; {@link Span#end() end} it when done
+     */
+    public Span span(String name) {
+        return span(name, Collections.emptyMap());
+    }
+
+    /**
+     * @param  name the name of the span
+     * @param  args additional data shown by the viewer when the span is selected
+     * @return      a new {@link Span} started right now; {@link Span#end() end} it when done
+     */
+    public Span span(String name, Map<String, Object> args) {
+        return new Span(this, name, args, System.nanoTime());
+    }
+
+    /**
+     * Records a span around the given {@code action}.
+     *
+     * @param  <T>    the type of the result
+     * @param  name   the name of the span
+     * @param  action the action to record
+     * @return        the result of {@code action}
+     */
+    public <T> T time(String name, Supplier<T> action) {
+        final Span span = span(name);
+        try {
+            return action.get();
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Records a span around the given {@code action}.
+     *
+     * @param name   the name of the span
+     * @param action the action to record
+     */
+    public void time(String name, Runnable action) {
+        final Span span = span(name);
+        try {
+            action.run();
+        } finally {
+            span.end();
+        }
+    }
+
+    void record(Span span, long endNanos) {
+        final Thread thread = Thread.currentThread();
+        final Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", span.name);
+        event.put("cat", "cq");
+        event.put("ph", "X");
+        event.put("ts", micros(span.startNanos - startNanos));
+        event.put("dur", micros(endNanos - span.startNanos));
+        event.put("pid", 1);
+        event.put("tid", thread.getId());
+        if (!span.args.isEmpty()) {
+            event.put("args", span.args);
+        }
+        synchronized (events) {
+            events.add(event);
+            threadNames.putIfAbsent(thread.getId(), thread.getName());
+        }
+    }
+
+    static double micros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * Writes the spans recorded so far to the trace file.
+     */
+    public void write() {
+        final List<Map<String, Object>> traceEvents = new ArrayList<>();
+        synchronized (events) {
+            threadNames.forEach((tid, threadName) -> {
+                final Map<String, Object> event = new LinkedHashMap<>();
+                event.put("name", "thread_name");
+                event.put("ph", "M");
+                event.put("pid", 1);
+                event.put("tid", tid);
+                event.put("args", Collections.singletonMap("name", threadName));
+                traceEvents.add(event);
+            });
+            traceEvents.addAll(events);
+        }
+        final Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", traceEvents);
+        trace.put("displayTimeUnit", "ms");
+        try {
+            if (traceFile.getParent() != null) {
+                Files.createDirectories(traceFile.getParent());
+            }
+            try (Writer w = Files.newBufferedWriter(traceFile, StandardCharsets.UTF_8)) {
+                new GsonBuilder().create().toJson(trace, w);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write " + traceFile, e);
+        }
+    }
+
+    /**
+     * A span of time recorded by {@link TraceRecorder}.
+     */
+    public static class Span {
+        static final Span NOOP = new Span(null, null, Collections.emptyMap(), 0) {
+            @Override
+            public void end() {
+            }
+        };
+
+        private final TraceRecorder recorder;
+        private final String name;
+        private final Map<String, Object> args;
+        private final long startNanos;
+
+        Span(TraceRecorder recorder, String name, Map<String, Object> args, long startNanos) {
+            this.recorder = recorder;
+            this.name = name;
+            this.args = args;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Ends this span. Must be called on the thread that opened the span.
+         */
+        public void end() {
+            recorder.record(this, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled {@code versionTransformations} entry of a product source JSON file, i.e. a FreeMarker template with a
+ * single {@code version} variable. Plain {@code ${version}} substitutions and {@code ${version?replace(...)}} calls are
+ * evaluated without FreeMarker; everything else is delegated to a FreeMarker {@link Template} parsed only once.
+ * <p>
+ * Compiled transformations are cached per process, see {@link #compile(String)}.
+ */
+public final class VersionTransformation {
+    private static final String VERSION_PLACEHOLDER = "${version}";
+    /** {@code ${version?replace('from', 'to')}} or {@code ${version?replace('from', 'to', 'r')}} */
+    private static final Pattern REPLACE_PATTERN = Pattern.compile(
+            "\\$\\{\\s*version\\s*\\?\\s*replace\\s*\\(\\s*(?<from>'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\")\\s*,"
+                    + "\\s*(?<to>'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\")\\s*(?:,\\s*(?<flags>'r'|\"r\")\\s*)?\\)\\s*\\}");
+    private static final Configuration templateCfg;
+    static {
+        templateCfg = new Configuration(Configuration.VERSION_2_3_28);
+        templateCfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+    }
+    private static final Map<String, VersionTransformation> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param  template the FreeMarker template to compile
+     * @return          a cached or newly compiled {@link VersionTransformation}
+     */
+    public static VersionTransformation compile(String template) {
+        return cache.computeIfAbsent(template, VersionTransformation::doCompile);
+    }
+
+    static VersionTransformation doCompile(String template) {
+        if (!hasMarkup(template.replace(VERSION_PLACEHOLDER, ""))) {
+            return new VersionTransformation(template, false,
+                    version -> template.replace(VERSION_PLACEHOLDER, version));
+        }
+        final Matcher m = REPLACE_PATTERN.matcher(template);
+        if (m.matches()) {
+            final String from = unquote(m.group("from"));
+            final String to = unquote(m.group("to"));
+            if (from != null && to != null) {
+                if (m.group("flags") != null) {
+                    final Pattern pattern = Pattern.compile(from);
+                    return new VersionTransformation(template, false, version -> pattern.matcher(version).replaceAll(to));
+                }
+                return new VersionTransformation(template, false, version -> version.replace(from, to));
+            }
+        }
+        final Template t;
+        try {
+            t = new Template(template, new StringReader(template), templateCfg);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse " + template, e);
+        }
+        return new VersionTransformation(template, true, version -> {
+            final StringWriter out = new StringWriter();
+            try {
+                t.process(Collections.singletonMap("version", version), out);
+            } catch (IOException | TemplateException e) {
+                throw new RuntimeException("Could not process " + template, e);
+            }
+            return out.toString();
+        });
+    }
+
+    static boolean hasMarkup(String template) {
+        return template.contains("${") || template.contains("#{") || template.contains("<#") || template.contains("</#")
+                || template.contains("[#") || template.contains("<@") || template.contains("[@");
+    }
+
+    /**
+     * @param  literal a FreeMarker string literal including the quotes
+     * @return         the value of the literal or {@code null} if it contains escapes other than {@code \\},
+     *                 {@code \'} and {@code \"}, or an interpolation
+     */
+    static String unquote(String literal) {
+        final String body = literal.substring(1, literal.length() - 1);
+        if (body.contains("${") || body.contains("#{")) {
+            return null;
+        }
+        final StringBuilder result = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            final char c = body.charAt(i);
+            if (c == '\\') {
+                final char next = body.charAt(++i);
+                switch (next) {
+                case '\\':
+                case '\'':
+                case '"':
+                    result.append(next);
+                    break;
+                default:
+                    return null;
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private final String template;
+    private final boolean freeMarker;
+    private final UnaryOperator<String> function;
+
+    VersionTransformation(String template, boolean freeMarker, UnaryOperator<String> function) {
+        this.template = template;
+        this.freeMarker = freeMarker;
+        this.function = function;
+    }
+
+    /**
+     * @param  version the version to transform
+     * @return         the transformed {@code version}
+     */
+    public String apply(String version) {
+        if (version == null) {
+            throw new RuntimeException("Could not process " + template + ": version is null");
+        }
+        return function.apply(version);
+    }
+
+    /**
+     * @return {@code true} if this transformation is evaluated by FreeMarker; {@code false} otherwise
+     */
+    public boolean isFreeMarker() {
+        return freeMarker;
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
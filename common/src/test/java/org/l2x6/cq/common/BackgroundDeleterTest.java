@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BackgroundDeleterTest {
+
+    @Test
+    void delete(@TempDir Path baseDir) throws IOException {
+        final Path trashDir = baseDir.resolve("trash");
+        final Path leftover = trashDir.resolve("leftover");
+        createTree(leftover);
+        final Path target1 = baseDir.resolve("module-1/target");
+        final Path target2 = baseDir.resolve("module-2/target");
+        createTree(target1);
+        createTree(target2);
+
+        try (BackgroundDeleter deleter = new BackgroundDeleter(trashDir, 2)) {
+            deleter.delete(target1);
+            deleter.delete(target2);
+            deleter.delete(baseDir.resolve("no-such-dir"));
+            /* The original locations are free immediately */
+            Assertions.assertThat(target1).doesNotExist();
+            Assertions.assertThat(target2).doesNotExist();
+            Files.createDirectories(target1.resolve("classes"));
+        }
+        Assertions.assertThat(target1.resolve("classes")).isDirectory();
+        Assertions.assertThat(trashDir).isEmptyDirectory();
+    }
+
+    @Test
+    void deleteDirectoryParallel(@TempDir Path dir) throws IOException {
+        createTree(dir);
+        CqCommonUtils.deleteDirectory(dir, new ForkJoinPool(3));
+        Assertions.assertThat(dir).doesNotExist();
+        /* No-op for non-existent directories */
+        CqCommonUtils.deleteDirectory(dir, ForkJoinPool.commonPool());
+    }
+
+    static void createTree(Path dir) throws IOException {
+        for (int i = 0; i < 5; i++) {
+            final Path subDir = dir.resolve("sub-" + i + "/nested");
+            Files.createDirectories(subDir);
+            for (int j = 0; j < 5; j++) {
+                Files.write(subDir.resolve("file-" + j + ".txt"), new byte[] { (byte) j });
+                Files.write(subDir.getParent().resolve("file-" + j + ".txt"), new byte[] { (byte) j });
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.camel.catalog.Kind;
+import org.apache.camel.tooling.model.ArtifactModel;
+import org.apache.camel.tooling.model.OtherModel;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.l2x6.cq.common.CqCatalog.Flavor;
+import org.l2x6.cq.common.CqCatalog.Index;
+
+public class CatalogModelCacheTest {
+
+    @Test
+    void eviction() {
+        final CatalogModelCache cache = new CatalogModelCache(10);
+        final List<CqCatalog> catalogs = Arrays.asList(new CqCatalog(Flavor.camel), new CqCatalog(Flavor.camel),
+                new CqCatalog(Flavor.camel));
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get(catalogs.get(0), () -> index(4, loads));
+        cache.get(catalogs.get(1), () -> index(4, loads));
+        cache.get(catalogs.get(0), () -> index(4, loads));
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+        Assertions.assertThat(cache.getModelCount()).isEqualTo(8);
+
+        /* catalogs.get(1) is the least recently used one */
+        cache.get(catalogs.get(2), () -> index(4, loads));
+        Assertions.assertThat(cache.getCatalogCount()).isEqualTo(2);
+        Assertions.assertThat(cache.getModelCount()).isEqualTo(8);
+        Assertions.assertThat(cache.getEvictions()).isEqualTo(1);
+
+        cache.get(catalogs.get(0), () -> index(4, loads));
+        Assertions.assertThat(loads.get()).isEqualTo(3);
+        cache.get(catalogs.get(1), () -> index(4, loads));
+        Assertions.assertThat(loads.get()).isEqualTo(4);
+
+        Assertions.assertThat(cache.getHits()).isEqualTo(2);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(4);
+
+        /* A single catalog bigger than the limit is kept */
+        cache.get(catalogs.get(2), () -> index(20, loads));
+        Assertions.assertThat(cache.getCatalogCount()).isEqualTo(1);
+        Assertions.assertThat(cache.getModelCount()).isEqualTo(20);
+    }
+
+    @Test
+    void weakKeys() throws InterruptedException {
+        final CatalogModelCache cache = new CatalogModelCache(100);
+        final AtomicInteger loads = new AtomicInteger();
+        final CqCatalog kept = new CqCatalog(Flavor.camel);
+        cache.get(kept, () -> index(4, loads));
+        cache.get(new CqCatalog(Flavor.camel), () -> index(4, loads));
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+
+        /* The second catalog is not referenced anymore so its models must go away together with it */
+        for (int i = 0; i < 100 && cache.getCatalogCount() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(cache.getCatalogCount()).isEqualTo(1);
+        Assertions.assertThat(cache.getModelCount()).isEqualTo(4);
+        Assertions.assertThat(cache.get(kept, () -> index(4, loads))).isNotNull();
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    static Index index(int size, AtomicInteger loads) {
+        loads.incrementAndGet();
+        final Map<Kind, List<ArtifactModel<?>>> models = new EnumMap<>(Kind.class);
+        CqCatalog.kinds().forEach(kind -> models.put(kind, Collections.emptyList()));
+        models.put(Kind.other, IntStream.range(0, size)
+                .<ArtifactModel<?>> mapToObj(i -> {
+                    final OtherModel m = new OtherModel();
+                    m.setName("other-" + i);
+                    m.setArtifactId("camel-other-" + i);
+                    return m;
+                })
+                .collect(Collectors.toList()));
+        return new Index(models);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.apache.camel.catalog.Kind;
+import org.apache.camel.tooling.model.ArtifactModel;
+import org.apache.camel.tooling.model.ComponentModel;
+import org.apache.camel.tooling.model.DataFormatModel;
+import org.apache.camel.tooling.model.JsonMapper;
+import org.apache.camel.tooling.model.LanguageModel;
+import org.apache.camel.tooling.model.OtherModel;
+import org.apache.camel.tooling.model.SupportLevel;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.cq.common.CqCatalog.Flavor;
+
+public class CatalogSnapshotTest {
+
+    @Test
+    void roundTrip(@TempDir Path tempDir) throws IOException {
+        final Map<Kind, List<ArtifactModel<?>>> models = new CqCatalog(Flavor.camel).loadModels(ForkJoinPool.commonPool());
+        final Path snapshot = tempDir.resolve("catalog.jar" + CatalogSnapshot.SUFFIX);
+        CatalogSnapshot.write(snapshot, "key1", models);
+
+        final Map<Kind, List<ArtifactModel<?>>> read = CatalogSnapshot.read(snapshot, "key1");
+        Assertions.assertThat(read).isNotNull();
+        Assertions.assertThat(read.keySet()).containsExactlyElementsOf(models.keySet());
+        for (Kind kind : models.keySet()) {
+            Assertions.assertThat(read.get(kind)).extracting(ArtifactModel::getName)
+                    .containsExactlyElementsOf(models.get(kind).stream().map(ArtifactModel::getName)
+                            .collect(Collectors.toList()));
+            /* Compare all models via their JSON form, which does not depend on the reflection used by the snapshot */
+            final List<ArtifactModel<?>> expected = models.get(kind);
+            final List<ArtifactModel<?>> actual = read.get(kind);
+            for (int i = 0; i < expected.size(); i++) {
+                Assertions.assertThat(json(actual.get(i)))
+                        .as("%s %s", kind, expected.get(i).getName())
+                        .isEqualTo(json(expected.get(i)));
+            }
+            /* And a few of them field by field */
+            Assertions.assertThat(actual.subList(0, 5))
+                    .usingRecursiveComparison()
+                    .isEqualTo(expected.subList(0, 5));
+        }
+        final ComponentModel timer = (ComponentModel) read.get(Kind.component).stream()
+                .filter(m -> m.getName().equals("timer"))
+                .findFirst()
+                .get();
+        Assertions.assertThat(timer.getEndpointOptions()).isNotEmpty();
+
+        /* Another key */
+        Assertions.assertThat(CatalogSnapshot.read(snapshot, "key2")).isNull();
+
+        /* Corrupted file */
+        Files.write(snapshot, new byte[] { 1, 2, 3 });
+        Assertions.assertThat(CatalogSnapshot.read(snapshot, "key1")).isNull();
+    }
+
+    @Test
+    void foreignClassesRejected() throws ClassNotFoundException {
+        final CatalogSnapshot.Reader reader = new CatalogSnapshot.Reader(new String[0]);
+        Assertions.assertThat(reader.loadClass(ComponentModel.class.getName(), false)).isEqualTo(ComponentModel.class);
+        Assertions.assertThat(reader.loadClass(SupportLevel.class.getName(), true)).isEqualTo(SupportLevel.class);
+        Assertions.assertThatThrownBy(() -> reader.loadClass("java.util.ArrayList", false))
+                .isInstanceOf(IllegalStateException.class);
+        Assertions.assertThatThrownBy(() -> reader.loadClass(ComponentModel.class.getName(), true))
+                .isInstanceOf(IllegalStateException.class);
+        Assertions.assertThatThrownBy(() -> reader.loadClass(SupportLevel.class.getName(), false))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void layout() {
+        final String component = CatalogSnapshot.layout(Arrays.asList(ComponentModel.class));
+        Assertions.assertThat(component)
+                .contains(ComponentModel.class.getName() + "{")
+                .contains(ComponentModel.EndpointOptionModel.class.getName() + "{")
+                .contains("ComponentModel.endpointOptions:java.util.List<"
+                        + ComponentModel.EndpointOptionModel.class.getName() + ">;")
+                .contains(SupportLevel.class.getName() + "{");
+        Assertions.assertThat(CatalogSnapshot.layout(Arrays.asList(ComponentModel.class))).isEqualTo(component);
+        Assertions.assertThat(CatalogSnapshot.layout(Arrays.asList(OtherModel.class))).isNotEqualTo(component);
+
+        /* The layout is a part of the key */
+        Assertions.assertThat(CatalogSnapshot.layoutKey()).startsWith(CatalogSnapshot.pluginVersion() + ":");
+    }
+
+    static String json(ArtifactModel<?> model) {
+        if (model instanceof ComponentModel) {
+            return JsonMapper.createParameterJsonSchema((ComponentModel) model);
+        } else if (model instanceof DataFormatModel) {
+            return JsonMapper.createParameterJsonSchema((DataFormatModel) model);
+        } else if (model instanceof LanguageModel) {
+            return JsonMapper.createParameterJsonSchema((LanguageModel) model);
+        } else if (model instanceof OtherModel) {
+            return JsonMapper.createJsonSchema((OtherModel) model);
+        }
+        throw new IllegalStateException("Unexpected model type " + model.getClass().getName());
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.apache.camel.catalog.DefaultCamelCatalog;
+import org.apache.camel.catalog.Kind;
+import org.apache.camel.tooling.model.ArtifactModel;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.cq.common.CqCatalog.Flavor;
+
+public class CqCatalogTest {
+
+    @Test
+    void index() {
+        final CqCatalog catalog = new CqCatalog(Flavor.camel);
+
+        Assertions.assertThat(catalog.models(Kind.component).map(ArtifactModel::getName).collect(Collectors.toList()))
+                .isEqualTo(new DefaultCamelCatalog().findComponentNames());
+
+        Assertions.assertThat(catalog.findModel(Kind.component, "timer")).isPresent();
+        Assertions.assertThat(catalog.findModel(Kind.component, "no-such-scheme")).isEmpty();
+        Assertions.assertThat(catalog.findModel(Kind.dataformat, "timer")).isEmpty();
+
+        final List<ArtifactModel<?>> sql = catalog.filterModels("sql").collect(Collectors.toList());
+        Assertions.assertThat(sql).extracting(ArtifactModel::getName).containsExactly("sql", "sql-stored");
+        Assertions.assertThat(catalog.primaryModel("timer")).extracting(ArtifactModel::getName).containsExactly("timer");
+
+        /* More than one artifactId */
+        Assertions.assertThat(catalog.filterModels("core"))
+                .extracting(ArtifactModel::getArtifactId)
+                .isNotEmpty()
+                .isSubsetOf("camel-base", "camel-core-languages");
+    }
+
+    @Test
+    void warmUp(@TempDir Path baseDir) throws IOException {
+        final DefaultCamelCatalog camelCatalog = new DefaultCamelCatalog();
+        final CqCatalog catalog = new CqCatalog(Flavor.camel).warmUp(new ForkJoinPool(4));
+        CqCatalog.kinds().forEach(kind -> {
+            final List<String> expected = camelCatalog.findNames(kind).stream()
+                    .map(name -> ((ArtifactModel<?>) camelCatalog.model(kind, name)).getTitle())
+                    .collect(Collectors.toList());
+            Assertions.assertThat(catalog.models(kind).map(ArtifactModel::getTitle).collect(Collectors.toList()))
+                    .isEqualTo(expected);
+        });
+
+        /* A directory based catalog */
+        final Path catalogDir = baseDir.resolve("org/apache/camel/catalog");
+        Files.createDirectories(catalogDir.resolve("components"));
+        Files.write(catalogDir.resolve("components.properties"), "timer\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(catalogDir.resolve("components/timer.json"),
+                camelCatalog.componentJSonSchema("timer").getBytes(StandardCharsets.UTF_8));
+        for (String kind : new String[] { "dataformats", "languages", "others" }) {
+            Files.write(catalogDir.resolve(kind + ".properties"), new byte[0]);
+        }
+        final CqCatalog dirCatalog = new CqCatalog(baseDir, Flavor.camel).warmUp(new ForkJoinPool(2));
+        Assertions.assertThat(dirCatalog.models().map(ArtifactModel::getName)).containsExactly("timer");
+    }
+}
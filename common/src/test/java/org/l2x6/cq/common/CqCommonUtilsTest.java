@@ -16,8 +16,19 @@
  */
 package org.l2x6.cq.common;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class CqCommonUtilsTest {
     public void normalizeXML() {
@@ -30,4 +41,75 @@ public class CqCommonUtilsTest {
                 .isEqualTo(Arrays.asList("   <foo a=\"\"/>"));
 
     }
+
+    @Test
+    void copyPoms(@TempDir Path tempDir) throws IOException {
+        final Path src = Files.createDirectories(tempDir.resolve("copy-poms-src"));
+        final Path dest = Files.createDirectories(tempDir.resolve("copy-poms-dest"));
+        write(src.resolve("pom.xml"), "<project/>");
+        write(src.resolve("a/pom.xml"), "<project>a</project>");
+        write(src.resolve("b/pom.xml"), "<project>b</project>");
+        write(dest.resolve("stale/pom.xml"), "<project>stale</project>");
+
+        CqCommonUtils.copyPoms(src, dest, PomWalker.poms());
+        Assertions.assertThat(PomWalkerTest.relativize(dest, PomWalker.poms().walk(dest)))
+                .containsExactly("a/pom.xml", "b/pom.xml", "pom.xml");
+        Assertions.assertThat(dest.resolve("stale")).doesNotExist();
+
+        /* Unchanged files are not copied again */
+        Assertions.assertThat(CqCommonUtils.syncFile(src.resolve("a/pom.xml"), dest.resolve("a/pom.xml"))).isFalse();
+
+        /* Same content, different mtime */
+        Files.setLastModifiedTime(dest.resolve("a/pom.xml"), FileTime.fromMillis(1000));
+        Assertions.assertThat(CqCommonUtils.syncFile(src.resolve("a/pom.xml"), dest.resolve("a/pom.xml"))).isFalse();
+        Assertions.assertThat(Files.getLastModifiedTime(dest.resolve("a/pom.xml")))
+                .isEqualTo(Files.getLastModifiedTime(src.resolve("a/pom.xml")));
+
+        /* Edited in dest, same size */
+        write(dest.resolve("b/pom.xml"), "<project>x</project>");
+        Files.delete(src.resolve("a/pom.xml"));
+        CqCommonUtils.copyPoms(src, dest, PomWalker.poms());
+        Assertions.assertThat(PomWalkerTest.relativize(dest, PomWalker.poms().walk(dest)))
+                .containsExactly("b/pom.xml", "pom.xml");
+        Assertions.assertThat(dest.resolve("b/pom.xml")).hasContent("<project>b</project>");
+        Assertions.assertThat(dest.resolve("a")).doesNotExist();
+    }
+
+    @Test
+    void assertPomsMatch(@TempDir Path tempDir) throws IOException {
+        final Path src = Files.createDirectories(tempDir.resolve("assert-poms-src"));
+        final Path dest = Files.createDirectories(tempDir.resolve("assert-poms-dest"));
+        for (Path dir : Arrays.asList(src, dest)) {
+            write(dir.resolve("pom.xml"), "<project/>");
+            write(dir.resolve("a/pom.xml"), "<project>a</project>");
+            write(dir.resolve("c/pom.xml"), "<project>c</project>");
+        }
+        write(src.resolve("b/pom.xml"), "<project>\n  <foo />\n</project>");
+        write(dest.resolve("b/pom.xml"), "<project>\n  <foo/>\n</project>");
+        final Set<String> active = new HashSet<>(Arrays.asList("a/pom.xml", "b/pom.xml", "c/pom.xml"));
+        final Path referenceFile = src.resolve("ref.txt");
+
+        /* Identical and equal after normalization */
+        CqCommonUtils.assertPomsMatch(src, dest, active, PomWalker.poms(), StandardCharsets.UTF_8, dest, referenceFile,
+                OnFailure.FAIL, msg -> Assertions.fail("Unexpected warning " + msg));
+
+        /* All mismatches are reported at once */
+        write(dest.resolve("a/pom.xml"), "<project>A</project>");
+        write(dest.resolve("c/pom.xml"), "<project>C</project>");
+        Assertions.assertThatThrownBy(() -> CqCommonUtils.assertPomsMatch(src, dest, active, PomWalker.poms(),
+                StandardCharsets.UTF_8, dest, referenceFile, OnFailure.FAIL, msg -> {
+                }))
+                .hasMessageContaining("File [a/pom.xml] is not in sync")
+                .hasMessageContaining("File [c/pom.xml] is not in sync");
+
+        final List<String> warnings = new ArrayList<>();
+        CqCommonUtils.assertPomsMatch(src, dest, active, PomWalker.poms(), StandardCharsets.UTF_8, dest, referenceFile,
+                OnFailure.WARN, warnings::add);
+        Assertions.assertThat(warnings).hasSize(1);
+    }
+
+    static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
 }
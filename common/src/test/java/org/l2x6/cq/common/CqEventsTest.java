@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
+import org.l2x6.pom.tuner.PomTransformer.Transformation;
+
+public class CqEventsTest {
+
+    @Test
+    void events(@TempDir Path dir) throws IOException {
+        final Path pom = dir.resolve("pom.xml");
+        Files.write(pom, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>org.l2x6.cq.test</groupId>\n"
+                + "    <artifactId>root</artifactId>\n"
+                + "    <version>0.0.1</version>\n"
+                + "    <packaging>pom</packaging>\n"
+                + "</project>\n").getBytes(StandardCharsets.UTF_8));
+
+        final Path jfr = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CqEvents.MojoPhase.class);
+            recording.enable(CqEvents.PomTransform.class);
+            recording.enable(CqEvents.TreeLoad.class);
+            recording.start();
+
+            CqEvents.MojoPhase phase = CqEvents.MojoPhase.begin("test-goal", "transform");
+            new CqPomTransformer(pom, StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)
+                    .transform(Transformation.addOrSetProperty("foo", "bar"));
+            phase = phase.next("load-tree");
+            CqCommonUtils.loadSourceTree(pom, StandardCharsets.UTF_8);
+            phase.commit();
+
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(jfr).stream()
+                .filter(e -> e.getEventType().getName().startsWith("org.l2x6.cq."))
+                .collect(Collectors.toList());
+        Assertions.assertThat(events)
+                .filteredOn(e -> e.getEventType().getName().equals("org.l2x6.cq.MojoPhase"))
+                .extracting(e -> e.getString("name"))
+                .containsExactlyInAnyOrder("transform", "load-tree");
+
+        final RecordedEvent transform = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.l2x6.cq.PomTransform"))
+                .findFirst()
+                .get();
+        Assertions.assertThat(transform.getString("path")).isEqualTo(pom.toString());
+        Assertions.assertThat(transform.getInt("transformationCount")).isEqualTo(1);
+        Assertions.assertThat(transform.getLong("bytesOut")).isGreaterThan(transform.getLong("bytesIn"));
+
+        final RecordedEvent treeLoad = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.l2x6.cq.TreeLoad"))
+                .findFirst()
+                .get();
+        Assertions.assertThat(treeLoad.getInt("moduleCount")).isEqualTo(1);
+    }
+
+    @Test
+    void artifactResolve(@TempDir Path dir) throws IOException {
+        final Path localRepo = Files.createDirectories(dir.resolve("local"));
+        final Path remoteRepo = dir.resolve("remote");
+        final Path jar = remoteRepo.resolve(CqCommonUtils.relativeArtifactPath("org.foo", "foo", "1.0", "jar"));
+        Files.createDirectories(jar.getParent());
+        Files.write(jar, new byte[] { 1, 2, 3 });
+        final List<String> remoteRepos = Collections.singletonList(remoteRepo.toUri().toString());
+
+        final Path jfr = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CqEvents.ArtifactResolve.class);
+            recording.start();
+
+            CqCommonUtils.copyArtifact(localRepo, "org.foo", "foo", "1.0", "jar", remoteRepos);
+            Assertions.assertThatThrownBy(
+                    () -> CqCommonUtils.copyArtifact(localRepo, "org.foo", "missing", "1.0", "jar", remoteRepos))
+                    .isInstanceOf(RuntimeException.class);
+
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        final Map<String, Boolean> failedByGav = RecordingFile.readAllEvents(jfr).stream()
+                .filter(e -> e.getEventType().getName().equals("org.l2x6.cq.ArtifactResolve"))
+                .collect(Collectors.toMap(e -> e.getString("gav"), e -> e.getBoolean("failed")));
+        Assertions.assertThat(failedByGav)
+                .containsEntry("org.foo:foo:1.0:jar", false)
+                .containsEntry("org.foo:missing:1.0:jar", true);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CqMetricsTest {
+
+    @Test
+    void disabled(@TempDir Path tempDir) throws IOException {
+        final CqMetrics metrics = new CqMetrics(false);
+        final CqMetrics.Snapshot start = metrics.snapshot();
+        Assertions.assertThat(metrics.time("timer", () -> "result")).isEqualTo("result");
+        metrics.increment("counter");
+
+        final CqMetrics.Snapshot delta = metrics.snapshot().since(start);
+        Assertions.assertThat(delta.getTimerCount("timer")).isEqualTo(0);
+        Assertions.assertThat(delta.getCounter("counter")).isEqualTo(0);
+
+        final Path json = tempDir.resolve("target/metrics.json");
+        metrics.report("test-goal", start, new SystemStreamLog(), json);
+        Assertions.assertThat(json.getParent()).doesNotExist();
+    }
+
+    @Test
+    void report(@TempDir Path tempDir) throws IOException {
+        final CqMetrics metrics = new CqMetrics(true);
+        final AtomicLong gaugeValue = new AtomicLong(5);
+        metrics.gauge("gauge", gaugeValue::get);
+        metrics.increment("counter");
+        metrics.time("timer", () -> {
+        });
+        final CqMetrics.Snapshot start = metrics.snapshot();
+
+        metrics.add("counter", 3);
+        metrics.time("timer", () -> new byte[1024]);
+        metrics.time("timer", () -> {
+        });
+        Assertions.assertThatThrownBy(() -> metrics.time("failing", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        gaugeValue.set(42);
+
+        final CqMetrics.Snapshot delta = metrics.snapshot().since(start);
+        Assertions.assertThat(delta.getCounter("counter")).isEqualTo(3);
+        Assertions.assertThat(delta.getTimerCount("timer")).isEqualTo(2);
+        Assertions.assertThat(delta.getTimerCount("failing")).isEqualTo(1);
+        Assertions.assertThat(delta.getGauge("gauge")).isEqualTo(42L);
+
+        final Path json = tempDir.resolve("target/metrics.json");
+        metrics.report("test-goal", start, new SystemStreamLog(), json);
+        try (Reader r = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            final Map<String, Object> report = new Gson().fromJson(r, Map.class);
+            Assertions.assertThat(report.get("goal")).isEqualTo("test-goal");
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> timer = (Map<String, Object>) ((Map<String, Object>) report.get("timers"))
+                    .get("timer");
+            Assertions.assertThat(timer.get("count")).isEqualTo(2.0);
+            Assertions.assertThat(timer).containsKeys("totalMillis", "maxMillis", "allocatedBytes");
+            Assertions.assertThat(((Map<?, ?>) report.get("counters")).get("counter")).isEqualTo(3.0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FileEditSchedulerTest {
+
+    @Test
+    void editsOfSameFileKeepOrder() {
+        final Map<String, List<Integer>> edits = new ConcurrentHashMap<>();
+        final FileEditScheduler scheduler = new FileEditScheduler();
+        for (int i = 0; i < 100; i++) {
+            final int edit = i;
+            final String file = "file-" + (i % 7);
+            scheduler.submit(Paths.get(file), () -> edits
+                    .computeIfAbsent(file, k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(edit));
+        }
+        Assertions.assertThat(scheduler.getFileCount()).isEqualTo(7);
+        Assertions.assertThat(scheduler.hasEdits(Paths.get("file-0").toAbsolutePath())).isTrue();
+
+        scheduler.run(4);
+
+        Assertions.assertThat(scheduler.getFileCount()).isEqualTo(0);
+        Assertions.assertThat(edits).hasSize(7);
+        edits.forEach((file, fileEdits) -> Assertions.assertThat(fileEdits).isSorted().hasSize(file.equals("file-0")
+                || file.equals("file-1") ? 15 : 14));
+    }
+
+    @Test
+    void failures() {
+        final FileEditScheduler scheduler = new FileEditScheduler();
+        final Path a = Paths.get("a");
+        final List<String> done = Collections.synchronizedList(new ArrayList<>());
+        scheduler.submit(a, () -> {
+            throw new IllegalStateException("a failed");
+        });
+        scheduler.submit(a, () -> done.add("a"));
+        scheduler.submit(Paths.get("b"), () -> done.add("b"));
+        scheduler.submit(Paths.get("c"), () -> {
+            throw new IllegalStateException("c failed");
+        });
+
+        Assertions.assertThatThrownBy(() -> scheduler.run(3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("a failed")
+                .satisfies(e -> Assertions.assertThat(e.getSuppressed()).extracting(Throwable::getMessage)
+                        .containsExactly("c failed"));
+        Assertions.assertThat(done).containsExactly("b");
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
+import org.l2x6.pom.tuner.PomTransformer.Transformation;
+
+public class FileUpdaterTest {
+
+    @Test
+    void write(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("sub/file.txt");
+
+        Assertions.assertThat(FileUpdater.write(file, "foo", StandardCharsets.UTF_8)).isTrue();
+        Assertions.assertThat(file).hasContent("foo");
+
+        final FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(file, past);
+        Assertions.assertThat(FileUpdater.write(file, "foo", StandardCharsets.UTF_8)).isFalse();
+        Assertions.assertThat(Files.getLastModifiedTime(file)).isEqualTo(past);
+
+        Assertions.assertThat(FileUpdater.write(file, "bar", StandardCharsets.UTF_8)).isTrue();
+        Assertions.assertThat(file).hasContent("bar");
+        Assertions.assertThat(Files.getLastModifiedTime(file)).isNotEqualTo(past);
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            /* No temporary files left behind */
+            Assertions.assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void pomTransformerNoop(@TempDir Path tempDir) throws IOException {
+        final Path pom = tempDir.resolve("pom.xml");
+        Files.write(pom, ("<project>\n"
+                + "    <properties>\n"
+                + "        <foo>bar</foo>\n"
+                + "    </properties>\n"
+                + "</project>\n").getBytes(StandardCharsets.UTF_8));
+        final FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(pom, past);
+
+        new CqPomTransformer(pom, StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)
+                .transform(Transformation.addOrSetProperty("foo", "bar"));
+        Assertions.assertThat(Files.getLastModifiedTime(pom)).isEqualTo(past);
+
+        new CqPomTransformer(pom, StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)
+                .transform(Transformation.addOrSetProperty("foo", "baz"));
+        Assertions.assertThat(new String(Files.readAllBytes(pom), StandardCharsets.UTF_8)).contains("<foo>baz</foo>");
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.cq.common.CqCatalog.Flavor;
+import org.l2x6.cq.common.CqCatalog.GavCqCatalog;
+
+public class GavCqCatalogPoolTest {
+
+    @Test
+    void shared(@TempDir Path tempDir) throws IOException {
+        final Path jar = emptyJar(tempDir);
+        try (GavCqCatalogPool pool = new GavCqCatalogPool()) {
+            final GavCqCatalog c1 = pool.open(Flavor.camel, "1.2.3", jar);
+            final GavCqCatalog c2 = pool.open(Flavor.camel, "1.2.3", jar);
+            Assertions.assertThat(c2).isNotSameAs(c1);
+            Assertions.assertThat(pool.open(Flavor.camelQuarkus, "1.2.3", jar)).isNotSameAs(c1);
+            Assertions.assertThat(pool.size()).isEqualTo(2);
+
+            c1.close();
+            /* Closing the same handle again must not release the reference held by c2 */
+            c1.close();
+            pool.closeIdle();
+            /* Still referenced through c2 */
+            Assertions.assertThat(pool.size()).isEqualTo(2);
+
+            c2.close();
+            pool.closeIdle();
+            Assertions.assertThat(pool.size()).isEqualTo(1);
+        }
+    }
+
+    static Path emptyJar(Path dir) throws IOException {
+        final Path jar = dir.resolve("catalog.jar");
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            zip.closeEntry();
+        }
+        return jar;
+    }
+}
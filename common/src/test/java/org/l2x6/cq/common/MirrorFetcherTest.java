@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MirrorFetcherTest {
+
+    @Test
+    void slowFirstMirror() throws IOException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final HttpServer slow = server(200, "slow", release);
+        final HttpServer fast = server(200, "fast", null);
+        try {
+            final long start = System.nanoTime();
+            try (InputStream in = MirrorFetcher.open(Arrays.asList(url(slow), url(fast)), "foo/bar.pom",
+                    Duration.ofMillis(50))) {
+                Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("fast");
+            }
+            Assertions.assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        } finally {
+            release.countDown();
+            slow.stop(0);
+            fast.stop(0);
+        }
+    }
+
+    @Test
+    void failingFirstMirror() throws IOException {
+        final HttpServer missing = server(404, "missing", null);
+        final HttpServer ok = server(200, "ok", null);
+        try {
+            /* A long hedge delay so that only the failure can trigger the second request */
+            try (InputStream in = MirrorFetcher.open(Arrays.asList(url(missing), url(ok)), "foo/bar.pom",
+                    Duration.ofMinutes(5))) {
+                Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("ok");
+            }
+        } finally {
+            missing.stop(0);
+            ok.stop(0);
+        }
+    }
+
+    @Test
+    void allMirrorsFailing() throws IOException {
+        final HttpServer missing1 = server(404, "missing", null);
+        final HttpServer missing2 = server(500, "error", null);
+        try {
+            Assertions.assertThatThrownBy(() -> MirrorFetcher.open(Arrays.asList(url(missing1), url(missing2)),
+                    "foo/bar.pom", Duration.ofMillis(50)))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("foo/bar.pom");
+        } finally {
+            missing1.stop(0);
+            missing2.stop(0);
+        }
+    }
+
+    @Test
+    void preferFirstMirror() throws IOException {
+        final HttpServer first = server(200, "first", null);
+        final HttpServer second = server(200, "second", null);
+        try {
+            try (InputStream in = MirrorFetcher.open(Arrays.asList(url(first), url(second)), "foo/bar.pom",
+                    Duration.ofMinutes(5))) {
+                Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("first");
+            }
+        } finally {
+            first.stop(0);
+            second.stop(0);
+        }
+    }
+
+    @Test
+    void stalledMirror() throws IOException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final HttpServer stalled = server(200, "stalled", release);
+        try {
+            final long start = System.nanoTime();
+            Assertions.assertThatThrownBy(() -> MirrorFetcher.open(Arrays.asList(url(stalled)), "foo/bar.pom",
+                    Duration.ofMillis(50), Duration.ofMillis(500)))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("foo/bar.pom");
+            Assertions.assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+        } finally {
+            release.countDown();
+            stalled.stop(0);
+        }
+    }
+
+    @Test
+    void lateLoserClosed() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch slowClosed = new CountDownLatch(1);
+        final HttpServer slow = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        slow.setExecutor(Executors.newCachedThreadPool());
+        slow.createContext("/maven2", exchange -> {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+                /* Unknown length, so that the response can only end when the client closes the body */
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    for (int i = 0; i < 10_000; i++) {
+                        out.write(new byte[1024]);
+                        out.flush();
+                    }
+                } catch (IOException expected) {
+                    /* Written to a closed stream */
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                slowClosed.countDown();
+            }
+        });
+        slow.start();
+        final HttpServer fast = server(200, "fast", null);
+        try {
+            try (InputStream in = MirrorFetcher.open(Arrays.asList(url(slow), url(fast)), "foo/bar.pom",
+                    Duration.ofMillis(50))) {
+                Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("fast");
+            }
+            /* The late response of the loser must get closed rather than left hanging */
+            release.countDown();
+            Assertions.assertThat(slowClosed.await(20, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            slow.stop(0);
+            fast.stop(0);
+        }
+    }
+
+    static String url(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort() + "/maven2";
+    }
+
+    static HttpServer server(int status, String body, CountDownLatch release) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/maven2", exchange -> {
+            if (release != null) {
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
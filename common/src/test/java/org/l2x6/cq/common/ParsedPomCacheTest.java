@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.apache.maven.model.Model;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParsedPomCacheTest {
+
+    @Test
+    void get(@TempDir Path dir) throws IOException {
+        final ParsedPomCache cache = new ParsedPomCache(2);
+        final Path pom1 = dir.resolve("pom1.xml");
+        write(pom1, "a", 0);
+
+        final Model model1 = cache.get(pom1, StandardCharsets.UTF_8);
+        Assertions.assertThat(model1.getArtifactId()).isEqualTo("a");
+        /* Modifying the returned model does not affect the cache */
+        model1.setArtifactId("modified");
+        Assertions.assertThat(cache.get(pom1, StandardCharsets.UTF_8).getArtifactId()).isEqualTo("a");
+        Assertions.assertThat(cache.getHits()).isEqualTo(1);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(1);
+
+        /* Changed size */
+        write(pom1, "ab", 0);
+        Assertions.assertThat(cache.get(pom1, StandardCharsets.UTF_8).getArtifactId()).isEqualTo("ab");
+        Assertions.assertThat(cache.getMisses()).isEqualTo(2);
+
+        /* Same size, different mtime */
+        write(pom1, "cd", 10_000);
+        Assertions.assertThat(cache.get(pom1, StandardCharsets.UTF_8).getArtifactId()).isEqualTo("cd");
+        Assertions.assertThat(cache.getMisses()).isEqualTo(3);
+
+        /* Same size and mtime, but the mtime is too recent to be trusted */
+        final Path pom2 = dir.resolve("pom2.xml");
+        write(pom2, "ef", 0);
+        final FileTime mtime = Files.getLastModifiedTime(pom2);
+        Assertions.assertThat(cache.get(pom2, StandardCharsets.UTF_8).getArtifactId()).isEqualTo("ef");
+        write(pom2, "gh", 0);
+        Files.setLastModifiedTime(pom2, mtime);
+        Assertions.assertThat(cache.get(pom2, StandardCharsets.UTF_8).getArtifactId()).isEqualTo("gh");
+        Assertions.assertThat(cache.get(pom2, StandardCharsets.UTF_8).getArtifactId()).isEqualTo("gh");
+        Assertions.assertThat(cache.getMisses()).isEqualTo(5);
+        Assertions.assertThat(cache.getHits()).isEqualTo(2);
+
+        /* Eviction */
+        final Path pom3 = dir.resolve("pom3.xml");
+        write(pom3, "ij", 0);
+        cache.get(pom3, StandardCharsets.UTF_8);
+        Assertions.assertThat(cache.getSize()).isEqualTo(2);
+    }
+
+    static void write(Path pom, String artifactId, long ageMillis) throws IOException {
+        Files.write(pom, ("<project><modelVersion>4.0.0</modelVersion><artifactId>" + artifactId + "</artifactId></project>")
+                .getBytes(StandardCharsets.UTF_8));
+        if (ageMillis > 0) {
+            Files.setLastModifiedTime(pom, FileTime.fromMillis(System.currentTimeMillis() - ageMillis));
+        }
+    }
+}
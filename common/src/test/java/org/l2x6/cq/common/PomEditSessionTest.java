@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
+import org.l2x6.pom.tuner.PomTransformer.Transformation;
+import org.l2x6.pom.tuner.PomTransformer.TransformationContext;
+import org.w3c.dom.Document;
+
+public class PomEditSessionTest {
+    private static final String POM = "<project>\n"
+            + "    <modelVersion>4.0.0</modelVersion>\n"
+            + "    <groupId>org.foo</groupId>\n"
+            + "    <artifactId>foo</artifactId>\n"
+            + "    <version>1.0</version>\n"
+            + "    <properties>\n"
+            + "        <foo>bar</foo>\n"
+            + "    </properties>\n"
+            + "</project>\n";
+
+    @Test
+    void transform(@TempDir Path dir) throws IOException {
+        final Path pom = dir.resolve("pom.xml");
+        Files.write(pom, POM.getBytes(StandardCharsets.UTF_8));
+        final Path expectedPom = dir.resolve("expected.xml");
+        Files.write(expectedPom, POM.getBytes(StandardCharsets.UTF_8));
+        new CqPomTransformer(expectedPom, StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)
+                .transform(Transformation.addOrSetProperty("foo", "baz"));
+        new CqPomTransformer(expectedPom, StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)
+                .transform(Transformation.addModule("module-1"));
+        final String expected = new String(Files.readAllBytes(expectedPom), StandardCharsets.UTF_8);
+
+        final PomEditSession session = new PomEditSession(StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY);
+        session.transform(pom, Transformation.addOrSetProperty("foo", "baz"));
+        session.transform(pom, Transformation.addModule("module-1"));
+        Assertions.assertThat(session.contains(pom)).isTrue();
+
+        /* Nothing written before flush() */
+        Assertions.assertThat(new String(Files.readAllBytes(pom), StandardCharsets.UTF_8)).isEqualTo(POM);
+
+        /* But visible to in-memory readers */
+        Assertions.assertThat(session.getContent(pom)).isEqualTo(expected);
+        Assertions.assertThat(session.readPom(pom).getProperties().getProperty("foo")).isEqualTo("baz");
+        Assertions.assertThat(session.readPom(pom).getModules()).containsExactly("module-1");
+
+        session.flush();
+        Assertions.assertThat(session.contains(pom)).isFalse();
+        Assertions.assertThat(new String(Files.readAllBytes(pom), StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @Test
+    void noop(@TempDir Path tempDir) throws IOException {
+        final Path pom = tempDir.resolve("pom.xml");
+        Files.write(pom, POM.getBytes(StandardCharsets.UTF_8));
+        final FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(pom, past);
+
+        try (PomEditSession session = new PomEditSession(StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)) {
+            session.transform(pom, Transformation.addOrSetProperty("foo", "baz"));
+            session.transform(pom, Transformation.addOrSetProperty("foo", "bar"));
+        }
+        Assertions.assertThat(Files.getLastModifiedTime(pom)).isEqualTo(past);
+    }
+
+    @Test
+    void create(@TempDir Path dir) throws IOException {
+        final Path pom = dir.resolve("module/pom.xml");
+
+        try (PomEditSession session = new PomEditSession(StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)) {
+            session.create(pom, POM);
+            session.transform(pom, Transformation.addOrSetProperty("foo", "baz"));
+            Assertions.assertThat(pom).doesNotExist();
+            Assertions.assertThat(session.readPom(pom).getProperties().getProperty("foo")).isEqualTo("baz");
+        }
+        Assertions.assertThat(new String(Files.readAllBytes(pom), StandardCharsets.UTF_8)).contains("<foo>baz</foo>");
+
+        /* Re-creating with the same result does not touch the file */
+        final FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(pom, past);
+        try (PomEditSession session = new PomEditSession(StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY)) {
+            session.create(pom, POM);
+            session.transform(pom, Transformation.addOrSetProperty("foo", "baz"));
+        }
+        Assertions.assertThat(Files.getLastModifiedTime(pom)).isEqualTo(past);
+    }
+
+    @Test
+    void concurrentChange(@TempDir Path tempDir) throws IOException {
+        final Path pom = tempDir.resolve("pom.xml");
+        Files.write(pom, POM.getBytes(StandardCharsets.UTF_8));
+
+        final PomEditSession session = new PomEditSession(StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY);
+        session.transform(pom, Transformation.addOrSetProperty("foo", "baz"));
+        Assertions.assertThat(session.getContent(pom)).contains("<foo>baz</foo>");
+
+        /* Someone writes the file directly without flushing the session first */
+        final String direct = POM.replace("<foo>bar</foo>", "<foo>direct</foo>");
+        Files.write(pom, direct.getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertThatThrownBy(session::flush)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(pom.toString());
+        /* The direct change is not overwritten */
+        Assertions.assertThat(new String(Files.readAllBytes(pom), StandardCharsets.UTF_8)).isEqualTo(direct);
+        Assertions.assertThat(session.contains(pom)).isFalse();
+    }
+
+    @Test
+    void failureNamesRealFile(@TempDir Path dir) throws IOException {
+        final Path pom = dir.resolve("pom.xml");
+        Files.write(pom, POM.getBytes(StandardCharsets.UTF_8));
+
+        final PomEditSession session = new PomEditSession(StandardCharsets.UTF_8, SimpleElementWhitespace.EMPTY);
+        session.transform(pom, (Document document, TransformationContext context) -> {
+            throw new IllegalStateException("Cannot edit " + context.getPomXmlPath());
+        });
+        Assertions.assertThatThrownBy(() -> session.getContent(pom))
+                .hasMessageContaining("Cannot edit " + pom);
+        /* No scratch files left next to the pom.xml */
+        try (Stream<Path> files = Files.list(dir)) {
+            Assertions.assertThat(files).containsExactly(pom);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.apache.maven.model.Model;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.pom.tuner.model.Gav;
+
+public class PomModelCacheTest {
+
+    @Test
+    void changedFile(@TempDir Path localRepo) throws IOException {
+        final Path pomPath = localRepo.resolve("org/foo/foo-bom/1.2.3/foo-bom-1.2.3.pom");
+        Files.createDirectories(pomPath.getParent());
+        Files.write(pomPath, pom("1.0.0").getBytes(StandardCharsets.UTF_8));
+
+        final Model model1 = newCache(localRepo).get("org.foo", "foo-bom", "1.2.3");
+        Assertions.assertThat(model1.getProperties().getProperty("bar.version")).isEqualTo("1.0.0");
+
+        /* A fresh cache notices the change */
+        Files.write(pomPath, pom("2.0.0").getBytes(StandardCharsets.UTF_8));
+        final Model model2 = newCache(localRepo).get("org.foo", "foo-bom", "1.2.3");
+        Assertions.assertThat(model2.getProperties().getProperty("bar.version")).isEqualTo("2.0.0");
+
+        /* Nothing is written next to the local repository */
+        try (Stream<Path> files = Files.list(localRepo)) {
+            Assertions.assertThat(files.map(p -> p.getFileName().toString())).containsExactly("org");
+        }
+    }
+
+    @Test
+    void copies(@TempDir Path localRepo) throws IOException {
+        final Path pomPath = localRepo.resolve("org/foo/foo-bom/1.2.3/foo-bom-1.2.3.pom");
+        Files.createDirectories(pomPath.getParent());
+        Files.write(pomPath, pom("0.9.0").getBytes(StandardCharsets.UTF_8));
+
+        final PomModelCache cache = newCache(localRepo);
+        cache.get("org.foo", "foo-bom", "1.2.3").getProperties().setProperty("bar.version", "changed");
+        Assertions.assertThat(cache.get("org.foo", "foo-bom", "1.2.3").getProperties().getProperty("bar.version"))
+                .isEqualTo("0.9.0");
+
+        /* The same holds for the process wide ParsedPomCache shared by all instances */
+        newCache(localRepo).get("org.foo", "foo-bom", "1.2.3").getProperties()
+                .setProperty("bar.version", "changed");
+        Assertions.assertThat(newCache(localRepo).get("org.foo", "foo-bom", "1.2.3").getProperties()
+                .getProperty("bar.version")).isEqualTo("0.9.0");
+    }
+
+    @Test
+    void prefetch(@TempDir Path localRepo) throws IOException {
+        final List<Gav> gavs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final String version = "1." + i;
+            final Path pomPath = localRepo.resolve("org/foo/foo-bom/" + version + "/foo-bom-" + version + ".pom");
+            Files.createDirectories(pomPath.getParent());
+            Files.write(pomPath, pom(version + ".0").getBytes(StandardCharsets.UTF_8));
+            gavs.add(new Gav("org.foo", "foo-bom", version));
+        }
+        final PomModelCache cache = newCache(localRepo);
+        cache.prefetch(gavs, 3);
+
+        /* All models must be served from memory now even if the files are gone */
+        CqCommonUtils.deleteDirectory(localRepo);
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertThat(cache.get("org.foo", "foo-bom", "1." + i).getProperties().getProperty("bar.version"))
+                    .isEqualTo("1." + i + ".0");
+        }
+    }
+
+    static PomModelCache newCache(Path localRepo) {
+        return new PomModelCache(localRepo, Collections.emptyList(), null, null, null);
+    }
+
+    static String pom(String barVersion) {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>org.foo</groupId>\n"
+                + "    <artifactId>foo-bom</artifactId>\n"
+                + "    <version>1.2.3</version>\n"
+                + "    <properties>\n"
+                + "        <bar.version>" + barVersion + "</bar.version>\n"
+                + "    </properties>\n"
+                + "</project>\n";
+    }
+}
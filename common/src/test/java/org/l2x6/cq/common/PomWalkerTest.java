@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PomWalkerTest {
+
+    @Test
+    void walk(@TempDir Path root) throws IOException {
+        for (String relPath : Arrays.asList(
+                "pom.xml",
+                "Jenkinsfile",
+                "a/pom.xml",
+                "a/target/pom.xml",
+                "a/src/main/resources/extension.yaml",
+                "a/src/it/pom.xml",
+                "b/pom.xml",
+                "b/c/pom.xml",
+                "docs/pom.xml",
+                "docs/modules/pom.xml",
+                "no-module/target/pom.xml",
+                ".git/pom.xml")) {
+            final Path file = root.resolve(relPath);
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[0]);
+        }
+
+        Assertions.assertThat(relativize(root, PomWalker.poms().walk(root)))
+                .containsExactly(
+                        "a/pom.xml",
+                        "b/c/pom.xml",
+                        "b/pom.xml",
+                        "docs/modules/pom.xml",
+                        "docs/pom.xml",
+                        "no-module/target/pom.xml",
+                        "pom.xml");
+
+        Assertions.assertThat(relativize(root, PomWalker.poms().excludes(Arrays.asList("docs", "b/c")).walk(root)))
+                .containsExactly(
+                        "a/pom.xml",
+                        "b/pom.xml",
+                        "no-module/target/pom.xml",
+                        "pom.xml");
+
+        final List<Path> withAdditionalFiles = PomWalker
+                .of(path -> path.endsWith("extension.yaml") || path.endsWith("Jenkinsfile"))
+                .excludes(Arrays.asList("docs/**"))
+                .walk(root, new ForkJoinPool(2));
+        Assertions.assertThat(relativize(root, withAdditionalFiles))
+                .containsExactly(
+                        "Jenkinsfile",
+                        "a/pom.xml",
+                        "a/src/it/pom.xml",
+                        "a/src/main/resources/extension.yaml",
+                        "b/c/pom.xml",
+                        "b/pom.xml",
+                        "no-module/target/pom.xml",
+                        "pom.xml");
+        Assertions.assertThatThrownBy(() -> withAdditionalFiles.add(root)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    static List<String> relativize(Path root, List<Path> paths) {
+        return paths.stream()
+                .map(p -> root.relativize(p).toString().replace('\\', '/'))
+                .collect(Collectors.toList());
+    }
+}
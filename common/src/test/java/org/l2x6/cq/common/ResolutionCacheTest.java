@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.api.Assertions;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.junit.jupiter.api.Test;
+
+public class ResolutionCacheTest {
+
+    @Test
+    void singleFlight() throws Exception {
+        final ResolutionCache cache = new ResolutionCache(1000);
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Path path = Paths.get("foo.jar");
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Path> first = executor.submit(() -> cache.resolve("foo", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return path;
+            }));
+            started.await(10, TimeUnit.SECONDS);
+            final Future<Path> second = executor.submit(() -> cache.resolve("foo", () -> {
+                calls.incrementAndGet();
+                return Paths.get("bar.jar");
+            }));
+            /* Give the second caller a chance to join the in-flight resolution */
+            Thread.sleep(100);
+            release.countDown();
+            Assertions.assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(path);
+            Assertions.assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(path);
+            Assertions.assertThat(calls.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void negativeTtl() {
+        final AtomicLong now = new AtomicLong(0);
+        final ResolutionCache cache = new ResolutionCache(1000, now::get);
+        final AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThatThrownBy(() -> cache.resolve("foo", () -> {
+                calls.incrementAndGet();
+                throw new RuntimeException("Not found",
+                        new ArtifactNotFoundException(new DefaultArtifact("org.foo:foo:1.0"), null));
+            })).hasMessageContaining("Not found");
+        }
+        Assertions.assertThat(calls.get()).isEqualTo(1);
+
+        now.set(1000);
+        Assertions.assertThat(cache.resolve("foo", () -> {
+            calls.incrementAndGet();
+            return Paths.get("foo.jar");
+        })).isEqualTo(Paths.get("foo.jar"));
+        Assertions.assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void transientFailuresNotRemembered() {
+        final ResolutionCache cache = new ResolutionCache(1000, () -> 0L);
+        final AtomicInteger calls = new AtomicInteger();
+
+        Assertions.assertThatThrownBy(() -> cache.resolve("foo", () -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("Connection refused");
+        })).hasMessageContaining("Connection refused");
+        Assertions.assertThat(cache.resolve("foo", () -> {
+            calls.incrementAndGet();
+            return Paths.get("foo.jar");
+        })).isEqualTo(Paths.get("foo.jar"));
+        Assertions.assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void resolutionKey() {
+        final Path localRepo = Paths.get("repo");
+        final RemoteRepository central = new RemoteRepository.Builder("central", "default",
+                "https://repo.maven.apache.org/maven2").build();
+        final RemoteRepository other = new RemoteRepository.Builder("other", "default", "https://example.com/maven2")
+                .build();
+        Assertions.assertThat(CqCommonUtils.resolutionKey(localRepo, Arrays.asList(central), "org.foo", "foo", "1.0", "pom"))
+                .isNotEqualTo(CqCommonUtils.resolutionKey(localRepo, Arrays.asList(central, other), "org.foo", "foo", "1.0",
+                        "pom"));
+    }
+}
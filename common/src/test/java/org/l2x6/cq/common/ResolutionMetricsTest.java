@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResolutionMetricsTest {
+
+    @Test
+    void report(@TempDir Path tempDir) throws IOException {
+        final ResolutionMetrics metrics = new ResolutionMetrics();
+        metrics.localHit();
+        metrics.fetched("https://repo1", TimeUnit.MILLISECONDS.toNanos(30), 100);
+        final ResolutionMetrics.Snapshot start = metrics.snapshot();
+
+        metrics.localHit();
+        metrics.localHit();
+        metrics.fetched("https://repo1", TimeUnit.MILLISECONDS.toNanos(5), 10);
+        metrics.fetched("https://repo1", TimeUnit.MILLISECONDS.toNanos(7000), 0);
+        metrics.transferred("https://repo1", 20);
+        metrics.failed("https://repo2");
+
+        final ResolutionMetrics.Snapshot delta = metrics.snapshot().since(start);
+        Assertions.assertThat(delta.getLocalHits()).isEqualTo(2);
+        Assertions.assertThat(delta.getFetches()).isEqualTo(2);
+        Assertions.assertThat(delta.getFailures()).isEqualTo(1);
+        Assertions.assertThat(delta.getBytes()).isEqualTo(30);
+
+        final Path targetDir = tempDir.resolve("target");
+        final Path json = targetDir.resolve("cq-resolution-metrics.json");
+        metrics.report("test-goal", start, new SystemStreamLog(), json);
+        try (Reader r = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            final Map<String, Object> report = new Gson().fromJson(r, Map.class);
+            Assertions.assertThat(report.get("localHits")).isEqualTo(2.0);
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> repo1 = (Map<String, Object>) ((Map<String, Object>) report.get("repositories"))
+                    .get("https://repo1");
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> histogram = (Map<String, Object>) repo1.get("latencyHistogram");
+            Assertions.assertThat(histogram.get("<10ms")).isEqualTo(1.0);
+            Assertions.assertThat(histogram.get("<50ms")).isEqualTo(0.0);
+            Assertions.assertThat(histogram.get(">=5000ms")).isEqualTo(1.0);
+        }
+
+        /* Nothing happened since the last snapshot */
+        final Path emptyDir = targetDir.resolveSibling("empty");
+        metrics.report("test-goal", metrics.snapshot(), new SystemStreamLog(), emptyDir.resolve("metrics.json"));
+        Assertions.assertThat(emptyDir).doesNotExist();
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TraceRecorderTest {
+
+    @Test
+    void write(@TempDir Path tempDir) throws IOException {
+        final Path traceFile = tempDir.resolve("target/trace.json");
+        final TraceRecorder trace = TraceRecorder.of(traceFile);
+        final TraceRecorder.Span outer = trace.span("outer");
+        Assertions.assertThat(trace.time("inner", () -> 42)).isEqualTo(42);
+        trace.span("withArgs", Collections.singletonMap("artifactId", "foo")).end();
+        outer.end();
+        trace.write();
+
+        try (Reader r = Files.newBufferedReader(traceFile, StandardCharsets.UTF_8)) {
+            @SuppressWarnings("unchecked")
+            final List<Map<String, Object>> events = (List<Map<String, Object>>) new Gson().fromJson(r, Map.class)
+                    .get("traceEvents");
+            Assertions.assertThat(events)
+                    .filteredOn(e -> "M".equals(e.get("ph")))
+                    .extracting(e -> e.get("name"))
+                    .containsExactly("thread_name");
+            final Map<String, Map<String, Object>> spans = events.stream()
+                    .filter(e -> "X".equals(e.get("ph")))
+                    .collect(Collectors.toMap(e -> (String) e.get("name"), e -> e));
+            Assertions.assertThat(spans).containsOnlyKeys("outer", "inner", "withArgs");
+
+            final Map<String, Object> outerEvent = spans.get("outer");
+            final Map<String, Object> innerEvent = spans.get("inner");
+            final double outerStart = (Double) outerEvent.get("ts");
+            final double innerStart = (Double) innerEvent.get("ts");
+            Assertions.assertThat(innerStart).isGreaterThanOrEqualTo(outerStart);
+            Assertions.assertThat(innerStart + (Double) innerEvent.get("dur"))
+                    .isLessThanOrEqualTo(outerStart + (Double) outerEvent.get("dur"));
+            Assertions.assertThat(spans.get("withArgs").get("args")).isEqualTo(Collections.singletonMap("artifactId", "foo"));
+        }
+    }
+
+    @Test
+    void noop() {
+        final TraceRecorder trace = TraceRecorder.of(null);
+        Assertions.assertThat(trace).isSameAs(TraceRecorder.NOOP);
+        trace.span("foo").end();
+        trace.time("bar", () -> {
+        });
+        trace.write();
+    }
+}
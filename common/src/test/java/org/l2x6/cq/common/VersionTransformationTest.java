@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.common;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VersionTransformationTest {
+
+    @Test
+    void compile() {
+        assertTransformation("${version}", "1.2.3.redhat-00001", false, "1.2.3.redhat-00001");
+        assertTransformation("v${version}-${version}", "1.2", false, "v1.2-1.2");
+        assertTransformation("${version?replace('.redhat-', '-')}", "1.2.3.redhat-00001", false, "1.2.3-00001");
+        assertTransformation("${version?replace(\"\\\\.redhat-\\\\d+\", '', 'r')}", "1.2.3.redhat-00001", false, "1.2.3");
+        assertTransformation("${version?replace('(\\\\d+)\\\\.(\\\\d+)', '$2.$1', 'r')}", "1.2.3", false, "2.1.3");
+        assertTransformation("${version?keep_before('.redhat')}", "1.2.3.redhat-00001", true, "1.2.3");
+        assertTransformation("<#if version?contains('redhat')>prod<#else>community</#if>", "1.2.3.redhat-00001", true,
+                "prod");
+        /* Escapes FreeMarker supports but we do not; should fall back to FreeMarker */
+        assertTransformation("${version?replace('\\x0031', 'one')}", "1.2", true, "one.2");
+
+        Assertions.assertThat(VersionTransformation.compile("${version}"))
+                .isSameAs(VersionTransformation.compile("${version}"));
+    }
+
+    static void assertTransformation(String template, String version, boolean freeMarker, String expected) {
+        final VersionTransformation transformation = VersionTransformation.doCompile(template);
+        Assertions.assertThat(transformation.isFreeMarker()).isEqualTo(freeMarker);
+        Assertions.assertThat(transformation.apply(version)).isEqualTo(expected);
+        if (!freeMarker) {
+            /* Make sure we are consistent with FreeMarker */
+            final VersionTransformation viaFreeMarker = new VersionTransformation(template, true,
+                    VersionTransformation.doCompile("<#if true>" + template + "</#if>")::apply);
+            Assertions.assertThat(viaFreeMarker.apply(version)).isEqualTo(expected);
+        }
+    }
+}
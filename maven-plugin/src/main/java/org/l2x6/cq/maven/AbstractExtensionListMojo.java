@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.stream.Stream;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.l2x6.cq.common.CqCommonUtils;
 import org.l2x6.pom.tuner.MavenSourceTree;
 import org.l2x6.pom.tuner.model.Dependency;
 
@@ -89,7 +90,8 @@ public abstract class AbstractExtensionListMojo extends AbstractMojo {
 
     public MavenSourceTree getTree() {
         if (tree == null) {
-            tree = MavenSourceTree.of(getRootModuleDirectory().resolve("pom.xml"), getCharset(), Dependency::isVirtual);
+            tree = CqCommonUtils.loadSourceTree(getRootModuleDirectory().resolve("pom.xml"), getCharset(),
+                    Dependency::isVirtual);
         }
         return tree;
     }
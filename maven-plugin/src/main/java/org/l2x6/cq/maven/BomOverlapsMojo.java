@@ -20,7 +20,9 @@ import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -113,13 +115,10 @@ public class BomOverlapsMojo extends AbstractMojo {
             }
             final Gav baseGav = Gav.of(compare.substring(0, delimPos));
             final Gav compareGav = Gav.of(compare.substring(delimPos + delim.length()));
-            baseBomPath = CqCommonUtils.resolveArtifact(localRepositoryPath, baseGav.getGroupId(), baseGav.getArtifactId(),
-                    baseGav.getVersion(),
-                    "pom", repositories, repoSystem, repoSession);
-            compareBomPath = CqCommonUtils.resolveArtifact(localRepositoryPath, compareGav.getGroupId(),
-                    compareGav.getArtifactId(),
-                    compareGav.getVersion(),
-                    "pom", repositories, repoSystem, repoSession);
+            final Map<Gav, Path> bomPaths = CqCommonUtils.resolveArtifacts(localRepositoryPath,
+                    Arrays.asList(baseGav, compareGav), "pom", repositories, repoSystem, repoSession);
+            baseBomPath = bomPaths.get(baseGav);
+            compareBomPath = bomPaths.get(compareGav);
         }
 
         final Set<Ga> baseGas = toGas(baseBomPath);
@@ -25,8 +25,8 @@ import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateExceptionHandler;
 import java.io.IOException;
-import java.io.Writer;
-import java.nio.file.Files;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
@@ -43,6 +43,7 @@ import javax.lang.model.SourceVersion;
 import org.apache.camel.tooling.model.ArtifactModel;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugin.logging.Log;
+import org.l2x6.cq.common.FileUpdater;
 import org.l2x6.cq.maven.TemplateParams.ExtensionStatus;
 import org.l2x6.pom.tuner.model.Module;
 
@@ -134,10 +135,9 @@ public class CqUtils {
         log.accept("Generating " + dest);
         try {
             final Template template = cfg.getTemplate(templateUri);
-            Files.createDirectories(dest.getParent());
-            try (Writer out = Files.newBufferedWriter(dest)) {
-                template.process(model, out);
-            }
+            final StringWriter out = new StringWriter();
+            template.process(model, out);
+            FileUpdater.write(dest, out.toString(), StandardCharsets.UTF_8);
         } catch (IOException | TemplateException e) {
             throw new RuntimeException("Could not evaluate template " + templateUri, e);
         }
@@ -32,6 +32,8 @@ import org.apache.maven.project.MavenProject;
 import org.l2x6.cq.common.CqCatalog;
 import org.l2x6.cq.common.CqCatalog.Flavor;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.CqPomTransformer;
 import org.l2x6.pom.tuner.PomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.Transformation;
@@ -227,49 +229,54 @@ public class CreateTestMojo extends AbstractExtensionListMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         basePath = getRootModuleDirectory();
-        if (extensionsDir == null) {
-            extensionsDir = nativeSupported ? basePath.resolve(CQ_EXTENSIONS_DIR).toFile()
-                    : basePath.resolve(CQ_EXTENSIONS_JVM_DIR).toFile();
-        }
-        extensionsPath = extensionsDir.toPath();
-
-        final CqCatalog cqCatalog = new CqCatalog(Flavor.camel);
-        this.models = cqCatalog.filterModels(artifactIdBase).collect(Collectors.toList());
-        final List<ArtifactModel<?>> primaryModels = cqCatalog.primaryModel(artifactIdBase);
-        switch (primaryModels.size()) {
-        case 0:
-            throw new IllegalStateException("Could not find name " + artifactIdBase + " in Camel catalog");
-        default:
-            this.model = primaryModels.get(0);
-            break;
-        }
+        try {
+            if (extensionsDir == null) {
+                extensionsDir = nativeSupported ? basePath.resolve(CQ_EXTENSIONS_DIR).toFile()
+                        : basePath.resolve(CQ_EXTENSIONS_JVM_DIR).toFile();
+            }
+            extensionsPath = extensionsDir.toPath();
+
+            final CqCatalog cqCatalog = new CqCatalog(Flavor.camel);
+            this.models = cqCatalog.filterModels(artifactIdBase).collect(Collectors.toList());
+            final List<ArtifactModel<?>> primaryModels = cqCatalog.primaryModel(artifactIdBase);
+            switch (primaryModels.size()) {
+            case 0:
+                throw new IllegalStateException("Could not find name " + artifactIdBase + " in Camel catalog");
+            default:
+                this.model = primaryModels.get(0);
+                break;
+            }
 
-        if (artifactIdPrefix == null) {
-            artifactIdPrefix = "";
-        }
-        artifactId = artifactIdPrefix == null || artifactIdPrefix.isEmpty() ? artifactIdBase
-                : artifactIdPrefix + artifactIdBase;
+            if (artifactIdPrefix == null) {
+                artifactIdPrefix = "";
+            }
+            artifactId = artifactIdPrefix == null || artifactIdPrefix.isEmpty() ? artifactIdBase
+                    : artifactIdPrefix + artifactIdBase;
 
-        if (nameBase == null) {
-            nameBase = model.getTitle();
             if (nameBase == null) {
-                throw new MojoFailureException("Name not found for " + artifactIdBase);
+                nameBase = model.getTitle();
+                if (nameBase == null) {
+                    throw new MojoFailureException("Name not found for " + artifactIdBase);
+                }
+            }
+            if (namePrefix == null) {
+                namePrefix = "";
             }
-        }
-        if (namePrefix == null) {
-            namePrefix = "";
-        }
-
-        extensionsPomPath = this.extensionsPath.resolve("pom.xml");
-        extensionsModel = CqCommonUtils.readPom(extensionsPomPath, getCharset());
-        this.groupId = getGroupId(extensionsModel);
-        this.version = CqUtils.getVersion(extensionsModel);
-
-        cfg = CqUtils.getTemplateConfig(basePath, CqUtils.DEFAULT_TEMPLATES_URI_BASE, templatesUriBase,
-                encoding);
-        doExecute();
 
+            extensionsPomPath = this.extensionsPath.resolve("pom.xml");
+            extensionsModel = CqCommonUtils.readPom(extensionsPomPath, getCharset());
+            this.groupId = getGroupId(extensionsModel);
+            this.version = CqUtils.getVersion(extensionsModel);
+
+            cfg = CqUtils.getTemplateConfig(basePath, CqUtils.DEFAULT_TEMPLATES_URI_BASE, templatesUriBase,
+                    encoding);
+            doExecute();
+        } finally {
+            CqMetrics.getInstance().report("new-test", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-new-test.json"));
+        }
     }
 
     void doExecute() {
@@ -282,7 +289,7 @@ public class CreateTestMojo extends AbstractExtensionListMojo {
     }
 
     PomTransformer pomTransformer(Path basePomXml) {
-        return new PomTransformer(basePomXml, getCharset(), simpleElementWhitespace);
+        return new CqPomTransformer(basePomXml, getCharset(), simpleElementWhitespace);
     }
 
     TemplateParams.Builder getTemplateParams() {
@@ -338,7 +345,7 @@ public class CreateTestMojo extends AbstractExtensionListMojo {
 
         final Set<String> extensionArtifactIds = findExtensions().map(e -> "camel-quarkus-" + e.getArtifactIdBase())
                 .collect(Collectors.toSet());
-        new PomTransformer(itestPomPath, getCharset(), simpleElementWhitespace)
+        new CqPomTransformer(itestPomPath, getCharset(), simpleElementWhitespace)
                 .transform(
                         FormatPomsMojo
                                 .updateTestVirtualDependencies(gavtcs -> extensionArtifactIds.contains(gavtcs.getArtifactId())),
@@ -23,7 +23,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Properties;
@@ -37,7 +36,8 @@ import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.l2x6.cq.common.CqCommonUtils;
-import org.l2x6.pom.tuner.PomTransformer;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.CqPomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.ContainerElement;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.TransformationContext;
@@ -114,6 +114,15 @@ public class ExamplesSetPlatformMojo extends AbstractMojo {
     @Parameter(defaultValue = "${settings.localRepository}", readonly = true)
     String localRepository;
 
+    /**
+     * The remote repositories to download the Camel Quarkus and Quarkus Platform BOMs from. If there are several, they
+     * are queried concurrently, preferring the ones listed first.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.remoteRepositories", defaultValue = "https://repo1.maven.org/maven2")
+    List<String> remoteRepositories;
+
     /**
      * How to format simple XML elements ({@code <elem/>}) - with or without space before the slash.
      *
@@ -135,143 +144,157 @@ public class ExamplesSetPlatformMojo extends AbstractMojo {
             getLog().info("Skipping as requested by the user");
             return;
         }
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         basePath = basedir != null ? basedir.toPath().toAbsolutePath().normalize() : Paths.get(".");
-        charset = Charset.forName(encoding);
+        try {
+            charset = Charset.forName(encoding);
 
-        if (isChecking()) {
-            if (quarkusPlatformVersion != null) {
-                throw new MojoFailureException(CQ_QUARKUS_PLATFORM_VERSION + " should be null in checking mode");
-            }
-            if (camelQuarkusVersion != null) {
-                throw new MojoFailureException(CQ_CAMEL_QUARKUS_VERSION + " should be null in checking mode");
+            if (isChecking()) {
+                if (quarkusPlatformVersion != null) {
+                    throw new MojoFailureException(CQ_QUARKUS_PLATFORM_VERSION + " should be null in checking mode");
+                }
+                if (camelQuarkusVersion != null) {
+                    throw new MojoFailureException(CQ_CAMEL_QUARKUS_VERSION + " should be null in checking mode");
+                }
+
+                try (Stream<Path> dirs = Files.list(basePath)) {
+                    final Path firstPomXml = dirs
+                            .map(dir -> dir.resolve("pom.xml"))
+                            .filter(Files::isRegularFile)
+                            .findFirst()
+                            .orElseThrow(() -> new RuntimeException("Could not find any example project under " + basePath));
+
+                    final Model fistModel = CqCommonUtils.readPom(firstPomXml, charset);
+                    final Properties props = fistModel.getProperties();
+                    final String cqBomVersion = props.getProperty("camel-quarkus.platform.version");
+                    if (!cqBomVersion.startsWith("$")) {
+                        camelQuarkusVersion = cqBomVersion;
+                    } else {
+                        final String quarkusBomVersion = props.getProperty("quarkus.platform.version");
+                        if (!quarkusBomVersion.startsWith("$")) {
+                            quarkusPlatformVersion = quarkusBomVersion;
+                        } else {
+                            throw new MojoFailureException(
+                                    "One of camel-quarkus.platform.version and quarkus.platform.version in " + firstPomXml
+                                            + " must be a literal. Found: "
+                                            + camelQuarkusVersion + " and " + quarkusBomVersion);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not list " + basePath, e);
+                }
+
+            } else {
+                if (quarkusPlatformVersion != null && camelQuarkusVersion != null) {
+                    throw new MojoFailureException(
+                            "Set only one of " + CQ_QUARKUS_PLATFORM_VERSION + " and " + CQ_CAMEL_QUARKUS_VERSION);
+                }
             }
 
+            final String quarkusBomGroupId;
+            final String quarkusBomArtifactId;
+            final String quarkusBomVersion;
+            final String cqBomGroupId;
+            final String cqBomArtifactId;
+            final String cqBomVersion;
+            final String cqVersion;
+            if (quarkusPlatformVersion != null) {
+                quarkusBomGroupId = "io.quarkus.platform";
+                quarkusBomArtifactId = "quarkus-bom";
+                quarkusBomVersion = quarkusPlatformVersion;
+
+                cqBomGroupId = "${quarkus.platform.group-id}";
+                cqBomArtifactId = "quarkus-camel-bom";
+                cqBomVersion = "${quarkus.platform.version}";
+
+                cqVersion = findCamelQuarkusVersion(Paths.get(localRepository), charset, quarkusPlatformVersion,
+                        remoteRepositories);
+            } else {
+                quarkusBomGroupId = "io.quarkus";
+                quarkusBomArtifactId = "quarkus-bom";
+                quarkusBomVersion = findQuarkusVersion(Paths.get(localRepository), charset, camelQuarkusVersion,
+                        remoteRepositories);
+
+                cqBomGroupId = "org.apache.camel.quarkus";
+                cqBomArtifactId = "camel-quarkus-bom";
+                cqBomVersion = camelQuarkusVersion;
+
+                cqVersion = "${camel-quarkus.platform.version}";
+            }
+            final List<String> issues = new ArrayList<>();
             try (Stream<Path> dirs = Files.list(basePath)) {
-                final Path firstPomXml = dirs
+                dirs
                         .map(dir -> dir.resolve("pom.xml"))
                         .filter(Files::isRegularFile)
-                        .findFirst()
-                        .orElseThrow(() -> new RuntimeException("Could not find any example project under " + basePath));
-
-                final Model fistModel = CqCommonUtils.readPom(firstPomXml, charset);
-                final Properties props = fistModel.getProperties();
-                final String cqBomVersion = props.getProperty("camel-quarkus.platform.version");
-                if (!cqBomVersion.startsWith("$")) {
-                    camelQuarkusVersion = cqBomVersion;
-                } else {
-                    final String quarkusBomVersion = props.getProperty("quarkus.platform.version");
-                    if (!quarkusBomVersion.startsWith("$")) {
-                        quarkusPlatformVersion = quarkusBomVersion;
-                    } else {
-                        throw new MojoFailureException(
-                                "One of camel-quarkus.platform.version and quarkus.platform.version in " + firstPomXml
-                                        + " must be a literal. Found: "
-                                        + camelQuarkusVersion + " and " + quarkusBomVersion);
-                    }
-                }
+                        .forEach(pomXmlPath -> {
+                            if (isChecking()) {
+                                final Model model = CqCommonUtils.readPom(pomXmlPath, charset);
+                                final Properties props = model.getProperties();
+
+                                assertRequiredProperty(pomXmlPath, props, "quarkus.platform.group-id", quarkusBomGroupId,
+                                        issues);
+                                assertRequiredProperty(pomXmlPath, props, "quarkus.platform.artifact-id", quarkusBomArtifactId,
+                                        issues);
+                                assertRequiredProperty(pomXmlPath, props, "quarkus.platform.version", quarkusBomVersion,
+                                        issues);
+
+                                assertRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.group-id", cqBomGroupId,
+                                        issues);
+                                assertRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.artifact-id", cqBomArtifactId,
+                                        issues);
+                                assertRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.version", cqBomVersion,
+                                        issues);
+
+                                if (props.containsKey("camel-quarkus.version")) {
+                                    assertRequiredProperty(pomXmlPath, props, "camel-quarkus.version", cqVersion, issues);
+                                }
+                            } else {
+                                new CqPomTransformer(pomXmlPath, charset, simpleElementWhitespace).transform(
+                                        (Document document, TransformationContext context) -> {
+                                            if (newVersion != null && !newVersion.isEmpty()) {
+                                                context.getContainerElement("project", "version")
+                                                        .ifPresent(version -> version.getNode().setTextContent(newVersion));
+                                            }
+                                            final ContainerElement props = context.getOrAddContainerElement("properties");
+
+                                            setRequiredProperty(pomXmlPath, props, "quarkus.platform.group-id",
+                                                    quarkusBomGroupId);
+                                            setRequiredProperty(pomXmlPath, props, "quarkus.platform.artifact-id",
+                                                    quarkusBomArtifactId);
+                                            setRequiredProperty(pomXmlPath, props, "quarkus.platform.version",
+                                                    quarkusBomVersion);
+
+                                            setRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.group-id",
+                                                    cqBomGroupId);
+                                            setRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.artifact-id",
+                                                    cqBomArtifactId);
+                                            setRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.version",
+                                                    cqBomVersion);
+
+                                            props.getChildContainerElement("camel-quarkus.version")
+                                                    .ifPresent(v -> v.getNode().setTextContent(cqVersion));
+
+                                        });
+                            }
+                        });
+
             } catch (IOException e) {
                 throw new RuntimeException("Could not list " + basePath, e);
             }
 
-        } else {
-            if (quarkusPlatformVersion != null && camelQuarkusVersion != null) {
+            if (isChecking() && !issues.isEmpty()) {
+                final String param = quarkusPlatformVersion != null
+                        ? "-D" + CQ_QUARKUS_PLATFORM_VERSION + "=" + quarkusPlatformVersion
+                        : "-D" + CQ_CAMEL_QUARKUS_VERSION + "=" + camelQuarkusVersion;
                 throw new MojoFailureException(
-                        "Set only one of " + CQ_QUARKUS_PLATFORM_VERSION + " and " + CQ_CAMEL_QUARKUS_VERSION);
+                        "Found " + issues.size() + " consistency issues:\n - "
+                                + issues.stream().collect(Collectors.joining("\n - "))
+                                + "\n\nYou may want to run mvn org.l2x6.cq:cq-maven-plugin:" + plugin.getVersion()
+                                + ":examples-set-platform " + param);
             }
-        }
-
-        final String quarkusBomGroupId;
-        final String quarkusBomArtifactId;
-        final String quarkusBomVersion;
-        final String cqBomGroupId;
-        final String cqBomArtifactId;
-        final String cqBomVersion;
-        final String cqVersion;
-        if (quarkusPlatformVersion != null) {
-            quarkusBomGroupId = "io.quarkus.platform";
-            quarkusBomArtifactId = "quarkus-bom";
-            quarkusBomVersion = quarkusPlatformVersion;
-
-            cqBomGroupId = "${quarkus.platform.group-id}";
-            cqBomArtifactId = "quarkus-camel-bom";
-            cqBomVersion = "${quarkus.platform.version}";
-
-            cqVersion = findCamelQuarkusVersion(Paths.get(localRepository), charset, quarkusPlatformVersion);
-        } else {
-            quarkusBomGroupId = "io.quarkus";
-            quarkusBomArtifactId = "quarkus-bom";
-            quarkusBomVersion = findQuarkusVersion(Paths.get(localRepository), charset, camelQuarkusVersion);
-
-            cqBomGroupId = "org.apache.camel.quarkus";
-            cqBomArtifactId = "camel-quarkus-bom";
-            cqBomVersion = camelQuarkusVersion;
-
-            cqVersion = "${camel-quarkus.platform.version}";
-        }
-        final List<String> issues = new ArrayList<>();
-        try (Stream<Path> dirs = Files.list(basePath)) {
-            dirs
-                    .map(dir -> dir.resolve("pom.xml"))
-                    .filter(Files::isRegularFile)
-                    .forEach(pomXmlPath -> {
-                        if (isChecking()) {
-                            final Model model = CqCommonUtils.readPom(pomXmlPath, charset);
-                            final Properties props = model.getProperties();
-
-                            assertRequiredProperty(pomXmlPath, props, "quarkus.platform.group-id", quarkusBomGroupId, issues);
-                            assertRequiredProperty(pomXmlPath, props, "quarkus.platform.artifact-id", quarkusBomArtifactId,
-                                    issues);
-                            assertRequiredProperty(pomXmlPath, props, "quarkus.platform.version", quarkusBomVersion, issues);
-
-                            assertRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.group-id", cqBomGroupId, issues);
-                            assertRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.artifact-id", cqBomArtifactId,
-                                    issues);
-                            assertRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.version", cqBomVersion, issues);
-
-                            if (props.containsKey("camel-quarkus.version")) {
-                                assertRequiredProperty(pomXmlPath, props, "camel-quarkus.version", cqVersion, issues);
-                            }
-                        } else {
-                            new PomTransformer(pomXmlPath, charset, simpleElementWhitespace).transform(
-                                    (Document document, TransformationContext context) -> {
-                                        if (newVersion != null && !newVersion.isEmpty()) {
-                                            context.getContainerElement("project", "version")
-                                                    .ifPresent(version -> version.getNode().setTextContent(newVersion));
-                                        }
-                                        final ContainerElement props = context.getOrAddContainerElement("properties");
-
-                                        setRequiredProperty(pomXmlPath, props, "quarkus.platform.group-id", quarkusBomGroupId);
-                                        setRequiredProperty(pomXmlPath, props, "quarkus.platform.artifact-id",
-                                                quarkusBomArtifactId);
-                                        setRequiredProperty(pomXmlPath, props, "quarkus.platform.version", quarkusBomVersion);
-
-                                        setRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.group-id",
-                                                cqBomGroupId);
-                                        setRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.artifact-id",
-                                                cqBomArtifactId);
-                                        setRequiredProperty(pomXmlPath, props, "camel-quarkus.platform.version",
-                                                cqBomVersion);
-
-                                        props.getChildContainerElement("camel-quarkus.version")
-                                                .ifPresent(v -> v.getNode().setTextContent(cqVersion));
-
-                                    });
-                        }
-                    });
-
-        } catch (IOException e) {
-            throw new RuntimeException("Could not list " + basePath, e);
-        }
-
-        if (isChecking() && !issues.isEmpty()) {
-            final String param = quarkusPlatformVersion != null
-                    ? "-D" + CQ_QUARKUS_PLATFORM_VERSION + "=" + quarkusPlatformVersion
-                    : "-D" + CQ_CAMEL_QUARKUS_VERSION + "=" + camelQuarkusVersion;
-            throw new MojoFailureException(
-                    "Found " + issues.size() + " consistency issues:\n - "
-                            + issues.stream().collect(Collectors.joining("\n - "))
-                            + "\n\nYou may want to run mvn org.l2x6.cq:cq-maven-plugin:" + plugin.getVersion()
-                            + ":examples-set-platform " + param);
+        } finally {
+            CqMetrics.getInstance().report("examples-set-platform", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-examples-set-platform.json"));
         }
     }
 
@@ -283,14 +306,15 @@ public class ExamplesSetPlatformMojo extends AbstractMojo {
         }
     }
 
-    static String findQuarkusVersion(Path localRepository, Charset charset, String camelQuarkusVersion) {
+    static String findQuarkusVersion(Path localRepository, Charset charset, String camelQuarkusVersion,
+            List<String> remoteRepositories) {
         final Path cqPomPath = CqCommonUtils.copyArtifact(
                 localRepository,
                 "org.apache.camel.quarkus",
                 "camel-quarkus",
                 camelQuarkusVersion,
                 "pom",
-                Collections.singletonList("https://repo1.maven.org/maven2"));
+                remoteRepositories);
         final Model cqModel = CqCommonUtils.readPom(cqPomPath, charset);
         final String v = cqModel.getProperties().entrySet().stream()
                 .filter(prop -> prop.getKey().equals("quarkus.version"))
@@ -305,14 +329,15 @@ public class ExamplesSetPlatformMojo extends AbstractMojo {
         return v;
     }
 
-    static String findCamelQuarkusVersion(Path localRepository, Charset charset, String quarkusPlatformVersion) {
+    static String findCamelQuarkusVersion(Path localRepository, Charset charset, String quarkusPlatformVersion,
+            List<String> remoteRepositories) {
         final Path cqPomPath = CqCommonUtils.copyArtifact(
                 localRepository,
                 "io.quarkus.platform",
                 "quarkus-camel-bom",
                 quarkusPlatformVersion,
                 "pom",
-                Collections.singletonList("https://repo1.maven.org/maven2"));
+                remoteRepositories);
         final Model cqModel = CqCommonUtils.readPom(cqPomPath, charset);
         final String v = cqModel.getDependencyManagement().getDependencies().stream()
                 .filter(dep -> dep.getGroupId().equals("org.apache.camel.quarkus"))
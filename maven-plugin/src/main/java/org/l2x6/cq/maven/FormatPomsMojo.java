@@ -22,9 +22,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
@@ -34,14 +37,18 @@ import java.util.stream.Collectors;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.shared.model.fileset.FileSet;
 import org.apache.maven.shared.model.fileset.util.FileSetManager;
 import org.apache.maven.shared.utils.io.DirectoryScanner;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqEvents;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.CqPomTransformer;
+import org.l2x6.cq.common.FileEditScheduler;
 import org.l2x6.pom.tuner.MavenSourceTree;
-import org.l2x6.pom.tuner.PomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.ContainerElement;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.Transformation;
@@ -137,109 +144,231 @@ public class FormatPomsMojo extends AbstractExtensionListMojo {
     @Parameter
     List<PomSet> mergePoms;
 
+    /**
+     * The maximum number of files to edit concurrently. Edits of distinct files run in parallel, edits of the same
+     * file run one after another in the same order as with {@code 1}. Defaults to the number of available processors.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.format.parallelism")
+    Integer parallelism;
+
+    /**
+     * If {@code true}, the state of the execution is stored in {@code target/cq-format.state} and the next execution
+     * only formats the files that have changed since then. All files are formatted if the configuration of this mojo
+     * has changed; all files depending on the set of extensions are formatted if that set has changed.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.format.incremental", defaultValue = "false")
+    boolean incremental;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true)
+    PluginDescriptor plugin;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         if (skip) {
             getLog().info("Skipping as requested by the user");
             return;
         }
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         final Path basePath = multiModuleProjectDirectory.toPath();
+        try {
+            final int threads = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+            final FileEditScheduler scheduler = new FileEditScheduler();
 
-        PomSorter.sortDependencyManagement(basePath, sortDependencyManagementPaths);
-        PomSorter.sortModules(basePath, sortModulesPaths);
-
-        if (mergePoms != null && !mergePoms.isEmpty()) {
-            for (PomSet pomSet : mergePoms) {
-
+            CqEvents.MojoPhase phase = CqEvents.MojoPhase.begin("format", "plan");
+            final Map<Path, List<Path>> mergeInputs = new LinkedHashMap<>();
+            if (mergePoms != null) {
                 final FileSetManager fileSetManager = new FileSetManager();
-                FileSet sourcePoms = pomSet.getSourcePoms();
-                final Path dir = Paths.get(sourcePoms.getDirectory());
-                final String[] includedFiles = fileSetManager.getIncludedFiles(sourcePoms);
-                final Set<Gavtcs> allDeps = new TreeSet<>(Gavtcs.scopeAndTypeFirstComparator());
+                for (PomSet pomSet : mergePoms) {
+                    final FileSet sourcePoms = pomSet.getSourcePoms();
+                    final Path dir = Paths.get(sourcePoms.getDirectory());
+                    final List<Path> inputs = mergeInputs.computeIfAbsent(
+                            Paths.get(pomSet.getDestinationPom()).toAbsolutePath().normalize(),
+                            k -> new ArrayList<>());
+                    for (String includedFile : fileSetManager.getIncludedFiles(sourcePoms)) {
+                        inputs.add(dir.resolve(includedFile));
+                    }
+                }
+            }
+            final List<Path> virtualDependenciesPoms = scan(updateVirtualDependencies);
+            final List<Path> virtualDependenciesAllExtensionsPoms = scan(updateVirtualDependenciesAllExtensions);
+            final FormatState state = incremental
+                    ? FormatState.load(basePath, basePath.resolve(FormatState.DEFAULT_PATH),
+                            config(mergeInputs, virtualDependenciesPoms, virtualDependenciesAllExtensionsPoms))
+                    : FormatState.NONE;
+
+            phase = phase.next("sort");
+            for (String pomPath : sortDependencyManagementPaths) {
+                final Path pomXmlPath = basePath.resolve(pomPath.trim());
+                if (!isUpToDate(state, pomXmlPath, mergeInputs, false)) {
+                    scheduler.submit(pomXmlPath, () -> PomSorter.sortDependencyManagement(pomXmlPath));
+                }
+            }
+            for (String pomPath : sortModulesPaths) {
+                final Path pomXmlPath = basePath.resolve(pomPath.trim());
+                if (!isUpToDate(state, pomXmlPath, mergeInputs, false)) {
+                    scheduler.submit(pomXmlPath, () -> PomSorter.sortModules(pomXmlPath));
+                }
+            }
 
-                final List<Transformation> transformers = new ArrayList<>();
+            phase = phase.next("merge-poms");
+            if (mergePoms != null && !mergePoms.isEmpty()) {
+                for (PomSet pomSet : mergePoms) {
+                    final Path destPath = Paths.get(pomSet.getDestinationPom());
+                    if (isUpToDate(state, destPath, mergeInputs, false)) {
+                        continue;
+                    }
 
-                for (String includedFile : includedFiles) {
-                    final Path pomPath = dir.resolve(includedFile);
-                    Model pom = CqCommonUtils.readPom(pomPath, getCharset());
-                    pom.getDependencies().stream()
-                            .map(dep -> new Gavtcs(
-                                    dep.getGroupId(),
-                                    dep.getArtifactId(),
-                                    dep.getVersion(),
-                                    dep.getType(),
-                                    dep.getClassifier(),
-                                    dep.getScope(),
-                                    dep.getExclusions().stream()
-                                            .map(e -> new Ga(e.getGroupId(), e.getArtifactId()))
-                                            .collect(Collectors.toList())))
-                            .filter(gavtcs -> !gavtcs.isVirtual())
-                            .forEach(allDeps::add);
-                }
+                    final FileSetManager fileSetManager = new FileSetManager();
+                    FileSet sourcePoms = pomSet.getSourcePoms();
+                    final Path dir = Paths.get(sourcePoms.getDirectory());
+                    final String[] includedFiles = fileSetManager.getIncludedFiles(sourcePoms);
+                    final Set<Gavtcs> allDeps = new TreeSet<>(Gavtcs.scopeAndTypeFirstComparator());
+
+                    final List<Transformation> transformers = new ArrayList<>();
+
+                    for (String includedFile : includedFiles) {
+                        final Path pomPath = dir.resolve(includedFile);
+                        if (scheduler.hasEdits(pomPath)) {
+                            /* Read the source only after the pending edits of it are done */
+                            scheduler.run(threads);
+                        }
+                        Model pom = CqCommonUtils.readPom(pomPath, getCharset());
+                        pom.getDependencies().stream()
+                                .map(dep -> new Gavtcs(
+                                        dep.getGroupId(),
+                                        dep.getArtifactId(),
+                                        dep.getVersion(),
+                                        dep.getType(),
+                                        dep.getClassifier(),
+                                        dep.getScope(),
+                                        dep.getExclusions().stream()
+                                                .map(e -> new Ga(e.getGroupId(), e.getArtifactId()))
+                                                .collect(Collectors.toList())))
+                                .filter(gavtcs -> !gavtcs.isVirtual())
+                                .forEach(allDeps::add);
+                    }
 
-                Iterator<Gavtcs> it = allDeps.iterator();
-                while (it.hasNext()) {
-                    final Gavtcs gavtcs = it.next();
-                    if ("test".equals(gavtcs.getScope())
-                            && "software.amazon.awssdk".equals(gavtcs.getGroupId())
-                            && allDeps.stream()
-                                    .anyMatch(gav -> "org.apache.camel.quarkus".equals(gav.getGroupId())
-                                            && ("camel-quarkus-aws2-" + gavtcs.getArtifactId()).equals(gav.getArtifactId()))) {
-                        it.remove();
+                    Iterator<Gavtcs> it = allDeps.iterator();
+                    while (it.hasNext()) {
+                        final Gavtcs gavtcs = it.next();
+                        if ("test".equals(gavtcs.getScope())
+                                && "software.amazon.awssdk".equals(gavtcs.getGroupId())
+                                && allDeps.stream()
+                                        .anyMatch(gav -> "org.apache.camel.quarkus".equals(gav.getGroupId())
+                                                && ("camel-quarkus-aws2-" + gavtcs.getArtifactId())
+                                                        .equals(gav.getArtifactId()))) {
+                            it.remove();
+                        }
                     }
-                }
 
-                transformers.add(Transformation.removeDependency(true, true, dep -> allDeps.contains(dep)));
-                allDeps.stream()
-                        .map(gavtcs -> Transformation.addDependencyIfNeeded(gavtcs, Gavtcs.scopeAndTypeFirstComparator()))
-                        .forEach(transformers::add);
+                    transformers.add(Transformation.removeDependency(true, true, dep -> allDeps.contains(dep)));
+                    allDeps.stream()
+                            .map(gavtcs -> Transformation.addDependencyIfNeeded(gavtcs, Gavtcs.scopeAndTypeFirstComparator()))
+                            .forEach(transformers::add);
 
-                final Path destPath = Paths.get(pomSet.getDestinationPom());
-                new PomTransformer(destPath, getCharset(), simpleElementWhitespace).transform(transformers);
+                    scheduler.submit(destPath,
+                            () -> new CqPomTransformer(destPath, getCharset(), simpleElementWhitespace)
+                                    .transform(transformers));
 
+                }
             }
-        }
+            /* The tree must see the sorted and merged files */
+            scheduler.run(threads);
 
-        final Set<Gavtcs> allExtensions = findExtensions()
-                .map(extensionModule -> new Gavtcs("org.apache.camel.quarkus",
-                        "camel-quarkus-" + extensionModule.getArtifactIdBase(), null))
-                .collect(Collectors.toSet());
-        final MavenSourceTree tree = getTree();
-        for (DirectoryScanner scanner : updateVirtualDependencies) {
-            scanner.scan();
-            final Path base = scanner.getBasedir().toPath().toAbsolutePath().normalize();
-            for (String scannerPath : scanner.getIncludedFiles()) {
-                final Path pomXmlAbsolutePath = base.resolve(scannerPath);
-                if (tree.getModuleByPath(pomXmlAbsolutePath) != null) {
+            phase = phase.next("update-virtual-dependencies");
+            final Set<Gavtcs> allExtensions = findExtensions()
+                    .map(extensionModule -> new Gavtcs("org.apache.camel.quarkus",
+                            "camel-quarkus-" + extensionModule.getArtifactIdBase(), null))
+                    .collect(Collectors.toSet());
+            state.setExtensions(allExtensions);
+            final MavenSourceTree tree = getTree();
+            for (Path pomXmlAbsolutePath : virtualDependenciesPoms) {
+                if (tree.getModuleByPath(pomXmlAbsolutePath) != null
+                        && !isUpToDate(state, pomXmlAbsolutePath, mergeInputs, true)) {
                     /* Ignore unlinked modules */
 
-                    new PomTransformer(pomXmlAbsolutePath, getCharset(), simpleElementWhitespace)
-                            .transform(
-                                    updateTestVirtualDependencies(gavtcs -> allExtensions.contains(gavtcs)),
-                                    Transformation.keepFirst(CqCommonUtils.virtualDepsCommentXPath(), true));
+                    scheduler.submit(pomXmlAbsolutePath,
+                            () -> new CqPomTransformer(pomXmlAbsolutePath, getCharset(), simpleElementWhitespace)
+                                    .transform(
+                                            updateTestVirtualDependencies(gavtcs -> allExtensions.contains(gavtcs)),
+                                            Transformation.keepFirst(CqCommonUtils.virtualDepsCommentXPath(), true)));
                 }
             }
-        }
 
-        updateVirtualDependenciesAllExtensions(updateVirtualDependenciesAllExtensions, allExtensions, getCharset(),
-                simpleElementWhitespace);
-
-        if (removeEmptyApplicationProperties != null) {
-            final FileSetManager fileSetManager = new FileSetManager();
-            final Path dir = Paths.get(removeEmptyApplicationProperties.getDirectory());
-            final String[] includedFiles = fileSetManager.getIncludedFiles(removeEmptyApplicationProperties);
-            for (String includedFile : includedFiles) {
-                final Path propsFilePath = dir.resolve(includedFile);
-                if (Files.isRegularFile(propsFilePath) && CqCommonUtils.isEmptyPropertiesFile(propsFilePath)) {
-                    try {
-                        Files.delete(propsFilePath);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Could not remove " + propsFilePath, e);
+            final Set<Gavtcs> allVirtualExtensions = allExtensions.stream()
+                    .map(gavtcs -> gavtcs.toVirtual())
+                    .collect(Collectors.toSet());
+            for (Path pomXmlPath : virtualDependenciesAllExtensionsPoms) {
+                if (!isUpToDate(state, pomXmlPath, mergeInputs, true)) {
+                    scheduler.submit(pomXmlPath, () -> CqCommonUtils.updateVirtualDependencies(getCharset(),
+                            simpleElementWhitespace, allVirtualExtensions, pomXmlPath));
+                }
+            }
+            scheduler.run(threads);
+
+            phase = phase.next("remove-empty-application-properties");
+            if (removeEmptyApplicationProperties != null) {
+                final FileSetManager fileSetManager = new FileSetManager();
+                final Path dir = Paths.get(removeEmptyApplicationProperties.getDirectory());
+                final String[] includedFiles = fileSetManager.getIncludedFiles(removeEmptyApplicationProperties);
+                for (String includedFile : includedFiles) {
+                    final Path propsFilePath = dir.resolve(includedFile);
+                    if (Files.isRegularFile(propsFilePath) && CqCommonUtils.isEmptyPropertiesFile(propsFilePath)) {
+                        try {
+                            Files.delete(propsFilePath);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Could not remove " + propsFilePath, e);
+                        }
                     }
                 }
             }
+
+            phase = phase.next("store-state");
+            state.store();
+
+            phase.commit();
+        } finally {
+            CqMetrics.getInstance().report("format", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-format.json"));
         }
+    }
+
+    static boolean isUpToDate(FormatState state, Path pomXmlPath, Map<Path, List<Path>> mergeInputs,
+            boolean dependsOnExtensions) {
+        final Path absolutePath = pomXmlPath.toAbsolutePath().normalize();
+        return state.isUpToDate(absolutePath, mergeInputs.getOrDefault(absolutePath, Collections.emptyList()),
+                dependsOnExtensions);
+    }
+
+    static List<Path> scan(List<DirectoryScanner> scanners) {
+        final List<Path> result = new ArrayList<>();
+        if (scanners != null) {
+            for (DirectoryScanner scanner : scanners) {
+                scanner.scan();
+                final Path base = scanner.getBasedir().toPath().toAbsolutePath().normalize();
+                for (String pomXmlRelPath : scanner.getIncludedFiles()) {
+                    result.add(base.resolve(pomXmlRelPath));
+                }
+            }
+        }
+        return result;
+    }
 
+    String config(Map<Path, List<Path>> mergeInputs, List<Path> virtualDependenciesPoms,
+            List<Path> virtualDependenciesAllExtensionsPoms) {
+        /* A new version of this plugin may format differently */
+        return "pluginVersion=" + (plugin == null ? "unknown" : plugin.getVersion())
+                + "\ncharset=" + getCharset()
+                + "\nsimpleElementWhitespace=" + simpleElementWhitespace
+                + "\nsortDependencyManagementPaths=" + sortDependencyManagementPaths
+                + "\nsortModulesPaths=" + sortModulesPaths
+                + "\nmergePoms=" + mergeInputs
+                + "\nupdateVirtualDependencies=" + virtualDependenciesPoms
+                + "\nupdateVirtualDependenciesAllExtensions=" + virtualDependenciesAllExtensionsPoms;
     }
 
     public static Transformation updateTestVirtualDependencies(final Predicate<Gavtcs> isExtension) {
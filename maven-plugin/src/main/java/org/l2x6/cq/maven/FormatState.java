@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.maven;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.pom.tuner.model.Gavtcs;
+
+/**
+ * The state of the previous {@link FormatPomsMojo} execution allowing to skip the files whose inputs have not changed
+ * since then.
+ * <p>
+ * The state consists of a hash of the mojo configuration including the plugin version, a hash of the set of extensions
+ * and a fingerprint of each
+ * file formatted by the previous execution. The fingerprint covers the bytes of the file as left by the previous
+ * execution and the bytes of any additional inputs, such as the source POMs of a merge. Because formatting a formatted
+ * file is a no-op, a file whose fingerprint has not changed does not need to be formatted again.
+ */
+class FormatState {
+    static final String DEFAULT_PATH = "target/cq-format.state";
+    /** Bump when the state format or the semantics of the format goal change */
+    private static final String VERSION = "1";
+    private static final String VERSION_KEY = "version";
+    private static final String CONFIG_KEY = "config";
+    private static final String EXTENSIONS_KEY = "extensions";
+    private static final String FILE_KEY_PREFIX = "file:";
+    static final String UP_TO_DATE_COUNTER = "FormatState.upToDate";
+
+    /** A {@link FormatState} treating all files as changed and storing nothing */
+    static final FormatState NONE = new FormatState(null, null, new Properties(), null) {
+        @Override
+        void setExtensions(Collection<Gavtcs> extensions) {
+        }
+
+        @Override
+        boolean isUpToDate(Path file, Collection<Path> inputs, boolean dependsOnExtensions) {
+            return false;
+        }
+
+        @Override
+        void store() {
+        }
+    };
+
+    /**
+     * @param  basePath  the directory against which the file paths are relativized in the state file
+     * @param  stateFile the file to load the previous state from and to {@link #store()} the new state to
+     * @param  config    a description of the mojo configuration; the previous state is ignored if the configuration
+     *                   has changed
+     * @return           a new {@link FormatState}
+     */
+    static FormatState load(Path basePath, Path stateFile, String config) {
+        final Properties previous = new Properties();
+        try (Reader r = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+            previous.load(r);
+        } catch (NoSuchFileException e) {
+            /* first run */
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read " + stateFile, e);
+        }
+        final String configHash = sha1(config.getBytes(StandardCharsets.UTF_8));
+        if (!VERSION.equals(previous.getProperty(VERSION_KEY)) || !configHash.equals(previous.getProperty(CONFIG_KEY))) {
+            previous.clear();
+        }
+        return new FormatState(basePath, stateFile, previous, configHash);
+    }
+
+    private final Path basePath;
+    private final Path stateFile;
+    private final Properties previous;
+    private final String configHash;
+    private String extensionsHash;
+    private final Map<Path, Collection<Path>> files = new LinkedHashMap<>();
+
+    FormatState(Path basePath, Path stateFile, Properties previous, String configHash) {
+        this.basePath = basePath;
+        this.stateFile = stateFile;
+        this.previous = previous;
+        this.configHash = configHash;
+    }
+
+    /**
+     * @param extensions the extensions available in the source tree; the files depending on extensions are treated
+     *                   as changed if the set differs from the previous execution
+     */
+    void setExtensions(Collection<Gavtcs> extensions) {
+        final String joined = extensions.stream()
+                .map(Gavtcs::toString)
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        this.extensionsHash = sha1(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether the given {@code file} can be skipped and remembers it for {@link #store()}.
+     *
+     * @param  file                the file to format
+     * @param  inputs              other files whose content the formatting of {@code file} depends on
+     * @param  dependsOnExtensions whether the formatting of {@code file} depends on the set of extensions
+     * @return                     {@code true} if neither {@code file} nor any of its {@code inputs} has changed since
+     *                             the previous execution; {@code false} otherwise
+     */
+    boolean isUpToDate(Path file, Collection<Path> inputs, boolean dependsOnExtensions) {
+        files.putIfAbsent(file, inputs);
+        if (dependsOnExtensions && (extensionsHash == null || !extensionsHash.equals(previous.getProperty(EXTENSIONS_KEY)))) {
+            return false;
+        }
+        final String previousFingerprint = previous.getProperty(key(file));
+        final boolean result = previousFingerprint != null && previousFingerprint.equals(fingerprint(file, inputs));
+        if (result) {
+            CqMetrics.getInstance().increment(UP_TO_DATE_COUNTER);
+        }
+        return result;
+    }
+
+    /**
+     * Stores the fingerprints of the files passed to {@link #isUpToDate(Path, Collection, boolean)} as they are now.
+     */
+    void store() {
+        final Properties state = new Properties();
+        state.setProperty(VERSION_KEY, VERSION);
+        state.setProperty(CONFIG_KEY, configHash);
+        if (extensionsHash != null) {
+            state.setProperty(EXTENSIONS_KEY, extensionsHash);
+        }
+        for (Entry<Path, Collection<Path>> file : files.entrySet()) {
+            if (Files.isRegularFile(file.getKey())) {
+                state.setProperty(key(file.getKey()), fingerprint(file.getKey(), file.getValue()));
+            }
+        }
+        try {
+            Files.createDirectories(stateFile.getParent());
+            try (Writer w = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+                state.store(w, null);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write " + stateFile, e);
+        }
+    }
+
+    String key(Path file) {
+        return FILE_KEY_PREFIX + basePath.relativize(file.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    static String fingerprint(Path file, Collection<Path> inputs) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            update(digest, file);
+            for (Path input : inputs) {
+                digest.update(input.toString().getBytes(StandardCharsets.UTF_8));
+                update(digest, input);
+            }
+            return hex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void update(MessageDigest digest, Path file) {
+        try {
+            final byte[] bytes = Files.readAllBytes(file);
+            digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(bytes);
+        } catch (NoSuchFileException e) {
+            digest.update((byte) -1);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read " + file, e);
+        }
+    }
+
+    static String sha1(byte[] bytes) {
+        try {
+            return hex(MessageDigest.getInstance("SHA-1").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hex(byte[] digest) {
+        final StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -48,8 +48,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.xml.namespace.QName;
 import javax.xml.transform.TransformerException;
@@ -60,11 +58,15 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
+import org.l2x6.cq.common.FileUpdater;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 public class PomSorter {
+    static final String SORT_MARKER = "a..z";
+    private static final String GROUP_ID_START = "<groupId>";
+    private static final String GROUP_ID_END = "</groupId>";
 
     public static void sortDependencyManagement(Path baseDir, List<String> pomPaths) {
         for (String pomPath : pomPaths) {
@@ -75,55 +77,231 @@ public class PomSorter {
 
     public static void sortDependencyManagement(final Path pomXmlPath) {
         final String xmlSource = read(pomXmlPath);
+        write(pomXmlPath, sortDependencyManagement(xmlSource, pomXmlPath));
+    }
 
-        final Pattern sortSpanPattern = Pattern
-                .compile("(a\\.\\.z[^>]*>)(.*)</dependencies>(\\r?\\n)([ ]*)</dependencyManagement>", Pattern.DOTALL);
-        final Pattern groupIdPattern = Pattern.compile("<groupId>([^<]+)</groupId>");
-
-        final Matcher matcher = sortSpanPattern.matcher(xmlSource);
-        if (matcher.find()) {
-            String dependenciesString = matcher.group(2);
-            final String eol = matcher.group(3);
-            final String indent = matcher.group(4);
-
-            dependenciesString = dependenciesString.replaceAll("<!--\\$[^>]*\\$-->", "");
-            final String[] dependenciesArray = dependenciesString.split("</dependency>");
-            /* Sort by adding to a TreeMap */
-            final Map<String, Map<String, String>> sortedDeps = new TreeMap<>();
-            for (String dep : dependenciesArray) {
-                dep = dep.trim();
-                if (!dep.isEmpty()) {
-                    String key = dep
-                            .replaceAll(">[ \n\r\t]+", ">")
-                            .replaceAll("[ \n\r\t]+<", "<");
-                    final Matcher gMatcher = groupIdPattern.matcher(key);
-                    gMatcher.find();
-                    final String groupId = gMatcher.group(1);
-                    key = key.replaceAll("<[^>]+>", " ").replaceAll(" +", " ");
-
-                    Map<String, String> groupMap = sortedDeps.get(groupId);
-                    if (groupMap == null) {
-                        groupMap = new TreeMap<String, String>();
-                        sortedDeps.put(groupId, groupMap);
+    /**
+     * Sorts the {@code <dependency>} entries following an {@code a..z} marker comment in any
+     * {@code <dependencyManagement>} of the given {@code xmlSource}, including those in profiles. The entries of each
+     * marked section are grouped by {@code groupId} and sorted; everything outside of the marked sections is
+     * preserved as is.
+     *
+     * @param  xmlSource  the content of a {@code pom.xml} file
+     * @param  pomXmlPath the path of the file for error messages
+     * @return            the sorted {@code xmlSource}
+     */
+    static String sortDependencyManagement(String xmlSource, Path pomXmlPath) {
+        final Tokenizer tokenizer = new Tokenizer(xmlSource, pomXmlPath);
+        final StringBuilder result = new StringBuilder(xmlSource.length());
+        int copied = 0;
+        int sectionCount = 0;
+        /* The marked sections of the current <dependencyManagement>, written once its indentation is known */
+        final List<SortSection> sections = new ArrayList<>();
+        SortSection section = null;
+        /* The position after the marker comment or after the last </dependency> of the current section */
+        int chunkStart = -1;
+        int dependenciesEnd = -1;
+        while (tokenizer.next()) {
+            switch (tokenizer.kind) {
+            case COMMENT:
+                if (tokenizer.depth() >= 2
+                        && "dependencies".equals(tokenizer.parent(0).name)
+                        && "dependencyManagement".equals(tokenizer.parent(1).name)
+                        && tokenizer.contains(SORT_MARKER)) {
+                    if (section != null) {
+                        /* Another marker in the same <dependencies> */
+                        addChunk(section.chunks, xmlSource, chunkStart, tokenizer.start);
+                        section.end = tokenizer.start;
+                        sections.add(section);
+                    }
+                    section = new SortSection(tokenizer.end, tokenizer.parent(1).depth);
+                    chunkStart = tokenizer.end;
+                    sectionCount++;
+                }
+                break;
+            case END_TAG:
+                if (section != null && "dependency".equals(tokenizer.name) && tokenizer.depth() == section.depth + 2) {
+                    addChunk(section.chunks, xmlSource, chunkStart, tokenizer.start);
+                    chunkStart = tokenizer.end;
+                } else if (section != null && "dependencies".equals(tokenizer.name)
+                        && tokenizer.depth() == section.depth + 1) {
+                    addChunk(section.chunks, xmlSource, chunkStart, tokenizer.start);
+                    section.end = tokenizer.start;
+                    section.last = true;
+                    sections.add(section);
+                    section = null;
+                    dependenciesEnd = tokenizer.end;
+                } else if ("dependencyManagement".equals(tokenizer.name) && !sections.isEmpty()) {
+                    final Indentation indentation = Indentation.before(xmlSource, tokenizer, pomXmlPath);
+                    if (indentation.eolStart != dependenciesEnd) {
+                        throw new RuntimeException("Expected </dependencies> followed by a line break and "
+                                + "</dependencyManagement> indented with spaces in " + pomXmlPath);
+                    }
+                    final String itemIndent = indentation.indent(2);
+                    for (SortSection s : sections) {
+                        result.append(xmlSource, copied, s.start);
+                        appendDependencies(result, s.chunks, indentation.eol, itemIndent, pomXmlPath);
+                        if (s.last) {
+                            result.append(indentation.eol).append(indentation.indent(1));
+                        } else {
+                            result.append(indentation.eol).append(indentation.eol).append(itemIndent);
+                        }
+                        copied = s.end;
                     }
-                    groupMap.put(key, dep);
+                    sections.clear();
                 }
+                break;
+            default:
+                break;
             }
-            final StringBuilder result = new StringBuilder(xmlSource);
-            result.setLength(matcher.end(1));
+        }
+        if (sectionCount == 0) {
+            throw new RuntimeException("Could not find any <dependencyManagement> containing a comment with "
+                    + SORT_MARKER + " in " + pomXmlPath);
+        }
+        if (section != null || !sections.isEmpty()) {
+            throw new RuntimeException("Unclosed <dependencyManagement> in " + pomXmlPath);
+        }
+        result.append(xmlSource, copied, xmlSource.length());
+        return result.toString();
+    }
 
-            final Appender appender = new Appender(eol, indent, sortedDeps, result);
+    static void addChunk(List<String> chunks, String xmlSource, int start, int end) {
+        final String chunk = removeGroupComments(xmlSource, start, end).trim();
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+    }
 
-            appender.appendGroup("org.apache.camel", true);
-            appender.appendGroup("org.apache.camel.quarkus", true);
+    static void appendDependencies(StringBuilder result, List<String> chunks, String eol, String itemIndent,
+            Path pomXmlPath) {
+        /* Sort by adding to a TreeMap */
+        final Map<String, Map<String, String>> sortedDeps = new TreeMap<>();
+        for (String dep : chunks) {
+            sortedDeps
+                    .computeIfAbsent(groupId(dep, pomXmlPath), k -> new TreeMap<>())
+                    .put(sortKey(dep, true), dep);
+        }
+        final Appender appender = new Appender(eol, itemIndent, sortedDeps, result);
+        appender.appendGroup("org.apache.camel", true);
+        appender.appendGroup("org.apache.camel.quarkus", true);
+        appender.appendOther();
+    }
 
-            appender.appendOther();
-            appender.result().append(eol).append(indent).append(indent).append(xmlSource.substring(matcher.end(2)));
+    /**
+     * @param  xmlSource the string to process
+     * @param  start     the start index in {@code xmlSource}, inclusive
+     * @param  end       the end index in {@code xmlSource}, exclusive
+     * @return           the given range of {@code xmlSource} without the {@code <!--$ groupId $-->} comments
+     *                   produced by {@link Appender}
+     */
+    static String removeGroupComments(String xmlSource, int start, int end) {
+        final StringBuilder result = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            final int commentStart = indexOf(xmlSource, "<!--$", i, end);
+            if (commentStart < 0) {
+                break;
+            }
+            final int gt = indexOf(xmlSource, ">", commentStart, end);
+            if (gt >= commentStart + 8 && xmlSource.startsWith("$--", gt - 3)) {
+                result.append(xmlSource, i, commentStart);
+                i = gt + 1;
+            } else {
+                result.append(xmlSource, i, commentStart + 1);
+                i = commentStart + 1;
+            }
+        }
+        result.append(xmlSource, i, end);
+        return result.toString();
+    }
 
-            write(pomXmlPath, result.toString());
-        } else {
-            throw new RuntimeException("Could not match " + sortSpanPattern + " in " + pomXmlPath);
+    /**
+     * Like {@link String#indexOf(String, int)} but not looking beyond {@code end}.
+     *
+     * @param  source the string to search in
+     * @param  needle the string to search for
+     * @param  start  the start index in {@code source}, inclusive
+     * @param  end    the end index in {@code source}, exclusive
+     * @return        the index of the first occurrence of {@code needle} within the given range or {@code -1}
+     */
+    static int indexOf(String source, String needle, int start, int end) {
+        final int last = end - needle.length();
+        final char first = needle.charAt(0);
+        for (int i = start; i <= last; i++) {
+            if (source.charAt(i) == first && source.startsWith(needle, i)) {
+                return i;
+            }
         }
+        return -1;
+    }
+
+    static String groupId(String dependency, Path pomXmlPath) {
+        int start = dependency.indexOf(GROUP_ID_START);
+        while (start >= 0) {
+            final int valueStart = start + GROUP_ID_START.length();
+            final int valueEnd = dependency.indexOf('<', valueStart);
+            if (valueEnd > valueStart && dependency.startsWith(GROUP_ID_END, valueEnd)) {
+                return dependency.substring(valueStart, valueEnd);
+            }
+            start = dependency.indexOf(GROUP_ID_START, start + 1);
+        }
+        throw new RuntimeException("Could not find " + GROUP_ID_START + " in\n\n" + dependency + "\n\nin " + pomXmlPath);
+    }
+
+    /**
+     * Computes a sort key of an XML snippet: whitespace adjacent to tags is dropped and tags are removed or replaced
+     * by a single space.
+     *
+     * @param  snippet      the XML snippet
+     * @param  tagsAsSpaces if {@code true}, each tag is replaced by a space and runs of spaces are collapsed;
+     *                      otherwise the tags are removed
+     * @return              the sort key
+     */
+    static String sortKey(String snippet, boolean tagsAsSpaces) {
+        final int len = snippet.length();
+        final StringBuilder key = new StringBuilder(len);
+        int i = 0;
+        while (i < len) {
+            final char c = snippet.charAt(i);
+            if (isWhitespace(c)) {
+                int j = i + 1;
+                while (j < len && isWhitespace(snippet.charAt(j))) {
+                    j++;
+                }
+                if (!(i > 0 && snippet.charAt(i - 1) == '>') && !(j < len && snippet.charAt(j) == '<')) {
+                    for (int k = i; k < j; k++) {
+                        append(key, snippet.charAt(k), tagsAsSpaces);
+                    }
+                }
+                i = j;
+            } else if (c == '<') {
+                final int gt = snippet.indexOf('>', i + 1);
+                if (gt > i + 1) {
+                    if (tagsAsSpaces) {
+                        append(key, ' ', true);
+                    }
+                    i = gt + 1;
+                } else {
+                    append(key, c, tagsAsSpaces);
+                    i++;
+                }
+            } else {
+                append(key, c, tagsAsSpaces);
+                i++;
+            }
+        }
+        return key.toString();
+    }
+
+    static void append(StringBuilder key, char c, boolean collapseSpaces) {
+        if (!collapseSpaces || c != ' ' || key.length() == 0 || key.charAt(key.length() - 1) != ' ') {
+            key.append(c);
+        }
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
     }
 
     public static void sortModules(Path baseDir, List<String> sortModulesPaths) {
@@ -135,52 +313,95 @@ public class PomSorter {
 
     public static void sortModules(final Path pomXmlPath) {
         final String xmlSource = read(pomXmlPath);
+        write(pomXmlPath, sortModules(xmlSource, pomXmlPath));
+    }
 
-        final Pattern sortSpanPattern = Pattern.compile("(a\\.\\.z[^>]*>)(.*)(\\r?\\n)([ ]*)</modules>", Pattern.DOTALL);
-
-        Matcher matcher = sortSpanPattern.matcher(xmlSource);
-        if (!matcher.find()) {
-            final Pattern fallbackSortSpanPattern = Pattern.compile("(<modules>)(.*)(\\r?\\n)([ ]*)</modules>", Pattern.DOTALL);
-            matcher = fallbackSortSpanPattern.matcher(xmlSource);
-            if (!matcher.find()) {
-                throw new RuntimeException(
-                        "Could not match " + sortSpanPattern + " nor " + fallbackSortSpanPattern + " in " + pomXmlPath);
+    /**
+     * Sorts the {@code <module>} elements following an {@code a..z} marker comment in any {@code <modules>} element of
+     * the given {@code xmlSource}, including those in profiles. If there is no marker, all {@code <modules>} elements
+     * are sorted completely.
+     *
+     * @param  xmlSource  the content of a {@code pom.xml} file
+     * @param  pomXmlPath the path of the file for error messages
+     * @return            the sorted {@code xmlSource}
+     */
+    static String sortModules(String xmlSource, Path pomXmlPath) {
+        final List<SortSection> markedSections = new ArrayList<>();
+        final List<SortSection> allSections = new ArrayList<>();
+        final Tokenizer tokenizer = new Tokenizer(xmlSource, pomXmlPath);
+        int modulesStart = -1;
+        int markerEnd = -1;
+        while (tokenizer.next()) {
+            switch (tokenizer.kind) {
+            case START_TAG:
+                if ("modules".equals(tokenizer.name)) {
+                    modulesStart = tokenizer.end;
+                    markerEnd = -1;
+                }
+                break;
+            case COMMENT:
+                if (markerEnd < 0 && modulesStart >= 0 && tokenizer.depth() >= 1
+                        && "modules".equals(tokenizer.parent(0).name)
+                        && tokenizer.contains(SORT_MARKER)) {
+                    markerEnd = tokenizer.end;
+                }
+                break;
+            case END_TAG:
+                if ("modules".equals(tokenizer.name) && modulesStart >= 0) {
+                    final Indentation indentation = Indentation.before(xmlSource, tokenizer, pomXmlPath);
+                    final SortSection all = new SortSection(modulesStart, indentation);
+                    allSections.add(all);
+                    if (markerEnd >= 0) {
+                        markedSections.add(new SortSection(markerEnd, indentation));
+                    }
+                    modulesStart = -1;
+                }
+                break;
+            default:
+                break;
             }
         }
-        final String modulesString = matcher.group(2);
-        final String eol = matcher.group(3);
-        final String indent = matcher.group(4);
-        final String[] modulesArray = modulesString.split("[\r\n]+ *");
-        final Map<String, String> sortedModules = new TreeMap<String, String>();
-        for (String module : modulesArray) {
-            module = module.trim();
-            if (!module.isEmpty()) {
-                String key = module
-                        .replaceAll(">[ \n\r\t]+", ">")
-                        .replaceAll("[ \n\r\t]+<", "<");
-                key = key.replaceAll("<[^>]+>", "");
-                if (!key.isEmpty()) {
-                    sortedModules.put(key, module);
+        if (allSections.isEmpty()) {
+            throw new RuntimeException("Could not find any <modules> in " + pomXmlPath);
+        }
+        final StringBuilder result = new StringBuilder(xmlSource.length());
+        int copied = 0;
+        for (SortSection section : markedSections.isEmpty() ? allSections : markedSections) {
+            final Indentation indentation = section.indentation;
+            final Map<String, String> sortedModules = new TreeMap<String, String>();
+            int lineStart = section.start;
+            while (lineStart < indentation.eolStart) {
+                int lineEnd = lineStart;
+                while (lineEnd < indentation.eolStart && !isEol(xmlSource.charAt(lineEnd))) {
+                    lineEnd++;
                 }
+                final String module = xmlSource.substring(lineStart, lineEnd).trim();
+                if (!module.isEmpty()) {
+                    final String key = sortKey(module, false);
+                    if (!key.isEmpty()) {
+                        sortedModules.put(key, module);
+                    }
+                }
+                lineStart = lineEnd + 1;
             }
+            result.append(xmlSource, copied, section.start);
+            final String itemIndent = indentation.indent(1);
+            for (String module : sortedModules.values()) {
+                result.append(indentation.eol).append(itemIndent).append(module);
+            }
+            result.append(indentation.eol).append(indentation.indent(0));
+            copied = indentation.end;
         }
+        result.append(xmlSource, copied, xmlSource.length());
+        return result.toString();
+    }
 
-        final StringBuilder result = new StringBuilder(xmlSource);
-        result.setLength(matcher.end(1));
-        for (String module : sortedModules.values()) {
-            result.append(eol).append(indent).append(indent).append(module);
-        }
-        result.append(eol).append(indent).append(xmlSource.substring(matcher.end(4)));
-
-        write(pomXmlPath, result.toString());
+    static boolean isEol(char c) {
+        return c == '\n' || c == '\r';
     }
 
     static void write(final Path path, final String content) {
-        try {
-            Files.write(path, content.toString().getBytes(StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            throw new RuntimeException("Could not write " + path, e);
-        }
+        FileUpdater.write(path, content, StandardCharsets.UTF_8);
     }
 
     static String read(final Path path) {
@@ -245,23 +466,263 @@ public class PomSorter {
         }
     }
 
+    /**
+     * A range of a {@code pom.xml} file to sort.
+     */
+    static class SortSection {
+        /** The index right after the marker comment or after the start tag */
+        private final int start;
+        /** The depth of the {@code <dependencyManagement>} element */
+        private final int depth;
+        private final Indentation indentation;
+        private final List<String> chunks = new ArrayList<>();
+        /** The index of the next marker comment or of {@code </dependencies>} */
+        private int end;
+        private boolean last;
+
+        SortSection(int start, int depth) {
+            this.start = start;
+            this.depth = depth;
+            this.indentation = null;
+        }
+
+        SortSection(int start, Indentation indentation) {
+            this.start = start;
+            this.depth = indentation.depth;
+            this.indentation = indentation;
+        }
+    }
+
+    /**
+     * The line break and indentation preceding an end tag.
+     */
+    static class Indentation {
+        private final String eol;
+        private final String indent;
+        private final int depth;
+        /** The index of {@link #eol} */
+        private final int eolStart;
+        /** The index of the end tag */
+        private final int end;
+
+        /**
+         * @param  xmlSource  the content of a {@code pom.xml} file
+         * @param  tokenizer  a {@link Tokenizer} positioned at an end tag
+         * @param  pomXmlPath the path of the file for error messages
+         * @return            the line break and indentation preceding the current end tag of the {@code tokenizer}
+         */
+        static Indentation before(String xmlSource, Tokenizer tokenizer, Path pomXmlPath) {
+            final int end = tokenizer.start;
+            int i = end;
+            while (i > 0 && xmlSource.charAt(i - 1) == ' ') {
+                i--;
+            }
+            final int indentStart = i;
+            if (i > 0 && xmlSource.charAt(i - 1) == '\n') {
+                i--;
+                if (i > 0 && xmlSource.charAt(i - 1) == '\r') {
+                    i--;
+                }
+                return new Indentation(xmlSource.substring(i, indentStart), xmlSource.substring(indentStart, end),
+                        tokenizer.depth(), i, end);
+            }
+            throw new RuntimeException("Expected </" + tokenizer.name + "> on a separate line indented with spaces in "
+                    + pomXmlPath);
+        }
+
+        Indentation(String eol, String indent, int depth, int eolStart, int end) {
+            this.eol = eol;
+            this.indent = indent;
+            this.depth = depth;
+            this.eolStart = eolStart;
+            this.end = end;
+        }
+
+        /**
+         * @param  level the number of levels to add to the indentation of the end tag
+         * @return       the indentation of the given nesting {@code level} below the end tag, assuming that each
+         *               ancestor adds the same amount of spaces
+         */
+        String indent(int level) {
+            final int unit = depth > 0 && indent.length() % depth == 0 ? indent.length() / depth : indent.length();
+            final StringBuilder result = new StringBuilder(indent.length() + level * unit).append(indent);
+            for (int i = 0; i < level * unit; i++) {
+                result.append(' ');
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * A minimal XML tokenizer good enough for locating elements and comments in {@code pom.xml} files without
+     * touching their formatting.
+     */
+    static class Tokenizer {
+        enum Kind {
+            START_TAG,
+            END_TAG,
+            EMPTY_TAG,
+            COMMENT,
+            TEXT,
+            OTHER
+        }
+
+        /**
+         * An open element.
+         */
+        static class Element {
+            private final String name;
+            /** The number of ancestors */
+            private final int depth;
+
+            Element(String name, int depth) {
+                this.name = name;
+                this.depth = depth;
+            }
+        }
+
+        private final String source;
+        private final Path path;
+        private final List<Element> stack = new ArrayList<>();
+        private int pos;
+        Kind kind;
+        int start;
+        int end;
+        /** The name of the current tag or {@code null} */
+        String name;
+
+        Tokenizer(String source, Path path) {
+            this.source = source;
+            this.path = path;
+        }
+
+        /**
+         * Advances to the next token.
+         *
+         * @return {@code true} if there is a next token; {@code false} otherwise
+         */
+        boolean next() {
+            if (pos >= source.length()) {
+                return false;
+            }
+            start = pos;
+            name = null;
+            if (source.charAt(pos) != '<') {
+                final int lt = source.indexOf('<', pos);
+                end = lt < 0 ? source.length() : lt;
+                kind = Kind.TEXT;
+            } else if (source.startsWith("<!--", pos)) {
+                end = indexOf("-->", pos + 4) + 3;
+                kind = Kind.COMMENT;
+            } else if (source.startsWith("<![CDATA[", pos)) {
+                end = indexOf("]]>", pos + 9) + 3;
+                kind = Kind.OTHER;
+            } else if (source.startsWith("<?", pos)) {
+                end = indexOf("?>", pos + 2) + 2;
+                kind = Kind.OTHER;
+            } else if (source.startsWith("<!", pos)) {
+                end = indexOf(">", pos + 2) + 1;
+                kind = Kind.OTHER;
+            } else if (source.startsWith("</", pos)) {
+                end = tagEnd(pos + 2);
+                name = name(pos + 2);
+                kind = Kind.END_TAG;
+                final Element closed = stack.isEmpty() ? null : stack.remove(stack.size() - 1);
+                if (closed == null || !closed.name.equals(name)) {
+                    throw new RuntimeException("Unexpected </" + name + "> in " + path);
+                }
+            } else {
+                end = tagEnd(pos + 1);
+                name = name(pos + 1);
+                if (source.charAt(end - 2) == '/') {
+                    kind = Kind.EMPTY_TAG;
+                } else {
+                    kind = Kind.START_TAG;
+                    stack.add(new Element(name, stack.size()));
+                }
+            }
+            pos = end;
+            return true;
+        }
+
+        /**
+         * @return the number of elements enclosing the current token
+         */
+        int depth() {
+            return stack.size();
+        }
+
+        /**
+         * @param  level {@code 0} for the parent element of the current token, {@code 1} for the grand parent, etc.
+         * @return       an ancestor element of the current token
+         */
+        Element parent(int level) {
+            return stack.get(stack.size() - 1 - level);
+        }
+
+        /**
+         * @param  needle the string to look for
+         * @return        {@code true} if the current token contains the given {@code needle}
+         */
+        boolean contains(String needle) {
+            return PomSorter.indexOf(source, needle, start, end) >= 0;
+        }
+
+        int indexOf(String needle, int from) {
+            final int i = source.indexOf(needle, from);
+            if (i < 0) {
+                throw new RuntimeException("Could not find " + needle + " after offset " + from + " in " + path);
+            }
+            return i;
+        }
+
+        int tagEnd(int from) {
+            char quote = 0;
+            for (int i = from; i < source.length(); i++) {
+                final char c = source.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    return i + 1;
+                }
+            }
+            throw new RuntimeException("Unclosed tag at offset " + start + " in " + path);
+        }
+
+        String name(int from) {
+            int i = from;
+            while (i < source.length()) {
+                final char c = source.charAt(i);
+                if (c == '>' || c == '/' || isWhitespace(c)) {
+                    break;
+                }
+                i++;
+            }
+            return source.substring(from, i);
+        }
+    }
+
     static class Appender {
         private final Set<String> processedGroupIds = new HashSet<>();
         private final String eol;
-        private final String indent;
+        private final String itemIndent;
         private final Map<String, Map<String, String>> sortedDeps;
         private final StringBuilder result;
 
-        public Appender(String eol, String indent, Map<String, Map<String, String>> sortedDeps, StringBuilder result) {
+        public Appender(String eol, String itemIndent, Map<String, Map<String, String>> sortedDeps, StringBuilder result) {
             this.eol = eol;
-            this.indent = indent;
+            this.itemIndent = itemIndent;
             this.sortedDeps = sortedDeps;
             this.result = result;
         }
 
         public void comment(String comment) {
             result.append(eol).append(eol)
-                    .append(indent).append(indent).append(indent).append("<!--$ " + comment + " $-->");
+                    .append(itemIndent).append("<!--$ " + comment + " $-->");
         }
 
         public void appendGroup(String groupId, boolean isComment) {
@@ -275,8 +736,8 @@ public class PomSorter {
             }
             for (String dep : deps.values()) {
                 result.append(eol)
-                        .append(indent).append(indent).append(indent).append(dep)
-                        .append(eol).append(indent).append(indent).append(indent).append("</dependency>");
+                        .append(itemIndent).append(dep)
+                        .append(eol).append(itemIndent).append("</dependency>");
             }
         }
 
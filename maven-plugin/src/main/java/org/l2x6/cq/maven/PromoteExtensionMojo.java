@@ -41,7 +41,8 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.l2x6.pom.tuner.PomTransformer;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.CqPomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.Transformation;
 import org.l2x6.pom.tuner.PomTransformer.TransformationContext;
@@ -118,81 +119,88 @@ public class PromoteExtensionMojo extends AbstractMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         final Charset charset = Charset.forName(encoding);
         final Path sourceRootPath = multiModuleProjectDirectory.toPath().toAbsolutePath().normalize();
-        final Path extensionsPath = sourceRootPath.resolve(extensionsDir);
-        if (!Files.isDirectory(extensionsPath)) {
-            throw new RuntimeException("The parameter 'extensionsPath' does not point to a directory: " + extensionsPath);
-        }
-        final Path destParentDir = extensionsPath.resolve(artifactIdBase);
-        final Path destParentPomPath = destParentDir.resolve("pom.xml");
-        if (Files.isRegularFile(destParentPomPath)) {
-            throw new RuntimeException("The destination pom.xml file exists. Nothing to do? : " + destParentPomPath);
-        }
+        try {
+            final Path extensionsPath = sourceRootPath.resolve(extensionsDir);
+            if (!Files.isDirectory(extensionsPath)) {
+                throw new RuntimeException("The parameter 'extensionsPath' does not point to a directory: " + extensionsPath);
+            }
+            final Path destParentDir = extensionsPath.resolve(artifactIdBase);
+            final Path destParentPomPath = destParentDir.resolve("pom.xml");
+            if (Files.isRegularFile(destParentPomPath)) {
+                throw new RuntimeException("The destination pom.xml file exists. Nothing to do? : " + destParentPomPath);
+            }
 
-        final Path srcParentDir = sourceRootPath.resolve("extensions-jvm/" + artifactIdBase);
-        final Path jvmTestsDir = sourceRootPath.resolve("integration-tests-jvm");
-        if (!Files.exists(srcParentDir)) {
-            throw new RuntimeException(
-                    "The directory of the extension to promote does not exist. Maybe a typo in the artifactIdBase parameter? "
-                            + srcParentDir);
-        }
+            final Path srcParentDir = sourceRootPath.resolve("extensions-jvm/" + artifactIdBase);
+            final Path jvmTestsDir = sourceRootPath.resolve("integration-tests-jvm");
+            if (!Files.exists(srcParentDir)) {
+                throw new RuntimeException(
+                        "The directory of the extension to promote does not exist. Maybe a typo in the artifactIdBase parameter? "
+                                + srcParentDir);
+            }
 
-        /* Move the test */
-        final Path srcItestDir = jvmTestsDir.resolve(artifactIdBase);
-        final Path destItestDir = sourceRootPath.resolve("integration-tests/" + artifactIdBase);
-        try {
-            Files.move(srcItestDir, destItestDir, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not move '" + srcItestDir + "' to '" + destItestDir + "'", e);
-        }
+            /* Move the test */
+            final Path srcItestDir = jvmTestsDir.resolve(artifactIdBase);
+            final Path destItestDir = sourceRootPath.resolve("integration-tests/" + artifactIdBase);
+            try {
+                Files.move(srcItestDir, destItestDir, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not move '" + srcItestDir + "' to '" + destItestDir + "'", e);
+            }
 
-        /* Remove the test module from the extension parent */
-        final Path srcParentPomPath = jvmTestsDir.resolve("pom.xml");
-        new PomTransformer(srcParentPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.removeModule(true, true, artifactIdBase));
+            /* Remove the test module from the extension parent */
+            final Path srcParentPomPath = jvmTestsDir.resolve("pom.xml");
+            new CqPomTransformer(srcParentPomPath, charset, simpleElementWhitespace)
+                    .transform(Transformation.removeModule(true, true, artifactIdBase));
 
-        /* Adjust the names in the test POM */
-        adjustTestPom(artifactIdBase, destItestDir.resolve("pom.xml"), charset, templatesUriBase, simpleElementWhitespace);
+            /* Adjust the names in the test POM */
+            adjustTestPom(artifactIdBase, destItestDir.resolve("pom.xml"), charset, templatesUriBase, simpleElementWhitespace);
 
-        /* Add the test module to its new parent module */
-        final Path integrationTestsPomPath = sourceRootPath.resolve("integration-tests/pom.xml");
-        new PomTransformer(integrationTestsPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.addModule(artifactIdBase));
-        PomSorter.sortModules(integrationTestsPomPath);
+            /* Add the test module to its new parent module */
+            final Path integrationTestsPomPath = sourceRootPath.resolve("integration-tests/pom.xml");
+            new CqPomTransformer(integrationTestsPomPath, charset, simpleElementWhitespace)
+                    .transform(Transformation.addModule(artifactIdBase));
+            PomSorter.sortModules(integrationTestsPomPath);
 
-        /* Move the extension */
-        try {
-            Files.move(srcParentDir, destParentDir, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not move '" + srcParentDir + "' to '" + destParentDir + "'", e);
-        }
+            /* Move the extension */
+            try {
+                Files.move(srcParentDir, destParentDir, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not move '" + srcParentDir + "' to '" + destParentDir + "'", e);
+            }
 
-        /* Remove the extension module from the extensions-jvm POM */
-        final Path extensionsJvmPomPath = sourceRootPath.resolve("extensions-jvm/pom.xml");
-        new PomTransformer(extensionsJvmPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.removeModule(false, true, artifactIdBase));
-
-        /* Add the extension module to its new parent module */
-        final Path destExtensionsPomPath = extensionsPath.resolve("pom.xml");
-        new PomTransformer(destExtensionsPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.addModule(artifactIdBase));
-        PomSorter.sortModules(destExtensionsPomPath);
-
-        /* Set the camel.quarkus.nativeSince property in the runtime POM */
-        final Path runtimePomPath = destParentDir.resolve("runtime/pom.xml");
-        final String camelQuarkusNativeSinceVersion = camelQuarkusVersion.replaceAll("-SNAPSHOT", "");
-        Transformation addNativeSinceProperty = Transformation.addProperty("camel.quarkus.nativeSince",
-                camelQuarkusNativeSinceVersion);
-        new PomTransformer(runtimePomPath, charset, simpleElementWhitespace).transform(addNativeSinceProperty);
-
-        // Remove the warning build step from
-        // extensions/${EXT}/deployment/src/main/java/org/apache/camel/quarkus/component/${EXT}/deployment/${EXT}Processor.java:
-        final String javaPackage = CqUtils.getJavaPackage("org.apache.camel.quarkus", CreateExtensionMojo.CQ_JAVA_PACKAGE_INFIX,
-                artifactIdBase);
-        final String artifactIdBaseCapCamelCase = CqUtils.toCapCamelCase(artifactIdBase);
-        createNativeTest(sourceRootPath, javaPackage, artifactIdBaseCapCamelCase);
-        adjustProcessor(extensionsPath, javaPackage, artifactIdBaseCapCamelCase, charset);
+            /* Remove the extension module from the extensions-jvm POM */
+            final Path extensionsJvmPomPath = sourceRootPath.resolve("extensions-jvm/pom.xml");
+            new CqPomTransformer(extensionsJvmPomPath, charset, simpleElementWhitespace)
+                    .transform(Transformation.removeModule(false, true, artifactIdBase));
+
+            /* Add the extension module to its new parent module */
+            final Path destExtensionsPomPath = extensionsPath.resolve("pom.xml");
+            new CqPomTransformer(destExtensionsPomPath, charset, simpleElementWhitespace)
+                    .transform(Transformation.addModule(artifactIdBase));
+            PomSorter.sortModules(destExtensionsPomPath);
+
+            /* Set the camel.quarkus.nativeSince property in the runtime POM */
+            final Path runtimePomPath = destParentDir.resolve("runtime/pom.xml");
+            final String camelQuarkusNativeSinceVersion = camelQuarkusVersion.replaceAll("-SNAPSHOT", "");
+            Transformation addNativeSinceProperty = Transformation.addProperty("camel.quarkus.nativeSince",
+                    camelQuarkusNativeSinceVersion);
+            new CqPomTransformer(runtimePomPath, charset, simpleElementWhitespace).transform(addNativeSinceProperty);
+
+            // Remove the warning build step from
+            // extensions/${EXT}/deployment/src/main/java/org/apache/camel/quarkus/component/${EXT}/deployment/${EXT}Processor.java:
+            final String javaPackage = CqUtils.getJavaPackage("org.apache.camel.quarkus",
+                    CreateExtensionMojo.CQ_JAVA_PACKAGE_INFIX,
+                    artifactIdBase);
+            final String artifactIdBaseCapCamelCase = CqUtils.toCapCamelCase(artifactIdBase);
+            createNativeTest(sourceRootPath, javaPackage, artifactIdBaseCapCamelCase);
+            adjustProcessor(extensionsPath, javaPackage, artifactIdBaseCapCamelCase, charset);
+        } finally {
+            CqMetrics.getInstance().report("promote", metricsStart, getLog(),
+                    sourceRootPath.resolve("target/cq-metrics-promote.json"));
+        }
     }
 
     void adjustProcessor(Path extensionsDir, String javaPackage, String artifactIdBaseCapCamelCase, Charset charset) {
@@ -233,7 +241,7 @@ public class PromoteExtensionMojo extends AbstractMojo {
             SimpleElementWhitespace simpleElementWhitespace) {
         /* Add the native profile at the end of integration-tests/${EXT}/pom.xml: */
         final DocumentFragment nativeProfile = loadNativeProfile(charset, templatesUriBase + "/integration-test-pom.xml");
-        new PomTransformer(path, charset, simpleElementWhitespace)
+        new CqPomTransformer(path, charset, simpleElementWhitespace)
                 .transform(Transformation.addFragment(nativeProfile, "profiles"));
 
     }
@@ -26,7 +26,8 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.l2x6.pom.tuner.MavenSourceTree;
+import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqMetrics;
 import org.l2x6.pom.tuner.MavenSourceTree.ActiveProfiles;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.model.Profile;
@@ -77,11 +78,18 @@ public class SetVersionsMojo extends AbstractMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         basePath = basedir.toPath();
-        charset = Charset.forName(encoding);
+        try {
+            charset = Charset.forName(encoding);
 
-        final Predicate<Profile> profiles = getProfiles();
-        MavenSourceTree.of(basePath.resolve("pom.xml"), charset).setVersions(newVersion, profiles, simpleElementWhitespace);
+            final Predicate<Profile> profiles = getProfiles();
+            CqCommonUtils.loadSourceTree(basePath.resolve("pom.xml"), charset).setVersions(newVersion, profiles,
+                    simpleElementWhitespace);
+        } finally {
+            CqMetrics.getInstance().report("set-versions", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-set-versions.json"));
+        }
     }
 
     Predicate<Profile> getProfiles() {
@@ -37,6 +37,8 @@ import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.CqPomTransformer;
 import org.l2x6.pom.tuner.PomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.Transformation;
@@ -97,43 +99,49 @@ public class SyncExamplePropertiesMojo extends AbstractMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         basePath = basedir.toPath().toAbsolutePath().normalize();
-        charset = Charset.forName(encoding);
-        final Path localRepositoryPath = Paths.get(localRepository);
-
-        final Path pomXmlPath = basePath.resolve("pom.xml");
-        final Model exampleModel = CqCommonUtils.readPom(pomXmlPath, charset);
-        final Properties exampleProps = exampleModel.getProperties();
-        if (cqVersion == null) {
-            cqVersion = exampleProps.getProperty("camel-quarkus.version");
-        }
-
-        final Path cqPomPath = CqCommonUtils.resolveArtifact(localRepositoryPath, "org.apache.camel.quarkus", "camel-quarkus",
-                cqVersion,
-                "pom", repositories, repoSystem, repoSession);
-        final Model cqModel = CqCommonUtils.readPom(cqPomPath, charset);
-        final Properties cqProps = cqModel.getProperties();
-        cqProps.put("camel-quarkus.version", cqVersion);
+        try {
+            charset = Charset.forName(encoding);
+            final Path localRepositoryPath = Paths.get(localRepository);
+
+            final Path pomXmlPath = basePath.resolve("pom.xml");
+            final Model exampleModel = CqCommonUtils.readPom(pomXmlPath, charset);
+            final Properties exampleProps = exampleModel.getProperties();
+            if (cqVersion == null) {
+                cqVersion = exampleProps.getProperty("camel-quarkus.version");
+            }
 
-        final Map<String, String> changeProps = new LinkedHashMap<>();
-        for (Entry<Object, Object> exampleProp : exampleProps.entrySet()) {
-            final String key = (String) exampleProp.getKey();
-            final String cqVal = (String) cqProps.get(key);
-            if (cqVal != null) {
-                if (!cqVal.equals(exampleProp.getValue())) {
-                    getLog().info("Updating property " + key + " " + exampleProp.getValue() + " -> " + cqVal);
-                    changeProps.put(key, cqVal);
+            final Path cqPomPath = CqCommonUtils.resolveArtifact(localRepositoryPath, "org.apache.camel.quarkus",
+                    "camel-quarkus",
+                    cqVersion,
+                    "pom", repositories, repoSystem, repoSession);
+            final Model cqModel = CqCommonUtils.readPom(cqPomPath, charset);
+            final Properties cqProps = cqModel.getProperties();
+            cqProps.put("camel-quarkus.version", cqVersion);
+
+            final Map<String, String> changeProps = new LinkedHashMap<>();
+            for (Entry<Object, Object> exampleProp : exampleProps.entrySet()) {
+                final String key = (String) exampleProp.getKey();
+                final String cqVal = (String) cqProps.get(key);
+                if (cqVal != null) {
+                    if (!cqVal.equals(exampleProp.getValue())) {
+                        getLog().info("Updating property " + key + " " + exampleProp.getValue() + " -> " + cqVal);
+                        changeProps.put(key, cqVal);
+                    }
                 }
             }
-        }
 
-        if (!changeProps.isEmpty()) {
-            final List<Transformation> transformations = new ArrayList<PomTransformer.Transformation>(changeProps.size());
-            for (Entry<String, String> prop : changeProps.entrySet()) {
-                transformations.add(Transformation.addOrSetProperty(prop.getKey(), prop.getValue()));
+            if (!changeProps.isEmpty()) {
+                final List<Transformation> transformations = new ArrayList<PomTransformer.Transformation>(changeProps.size());
+                for (Entry<String, String> prop : changeProps.entrySet()) {
+                    transformations.add(Transformation.addOrSetProperty(prop.getKey(), prop.getValue()));
+                }
+                new CqPomTransformer(pomXmlPath, charset, simpleElementWhitespace).transform(transformations);
             }
-            new PomTransformer(pomXmlPath, charset, simpleElementWhitespace).transform(transformations);
+        } finally {
+            CqMetrics.getInstance().report("sync-example-properties", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-sync-example-properties.json"));
         }
-
     }
 }
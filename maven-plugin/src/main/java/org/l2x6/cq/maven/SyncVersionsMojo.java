@@ -40,6 +40,8 @@ import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.ResolutionMetrics;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 
 /**
@@ -92,6 +94,15 @@ public class SyncVersionsMojo extends AbstractMojo {
     @Parameter(property = "cq.simpleElementWhitespace", defaultValue = "EMPTY")
     SimpleElementWhitespace simpleElementWhitespace;
 
+    /**
+     * If set, the artifact resolution done by this mojo is logged and written to the given JSON file. Otherwise it is
+     * logged only on the debug level.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.resolutionMetricsFile")
+    File resolutionMetricsFile;
+
     @Component
     private RepositorySystem repoSystem;
 
@@ -101,15 +112,23 @@ public class SyncVersionsMojo extends AbstractMojo {
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
+        final ResolutionMetrics.Snapshot resolutionStart = ResolutionMetrics.getInstance().snapshot();
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
         basePath = basedir.toPath();
-        charset = Charset.forName(encoding);
-        localRepositoryPath = Paths.get(localRepository);
-        Path pomXml = basePath.resolve("pom.xml");
-
-        CqCommonUtils.syncVersions(pomXml, mojoDescriptorCreator, session, project, charset, simpleElementWhitespace,
-                localRepositoryPath,
-                getLog(), versionTransformations(), repositories, repoSession, repoSystem);
-
+        try {
+            charset = Charset.forName(encoding);
+            localRepositoryPath = Paths.get(localRepository);
+            Path pomXml = basePath.resolve("pom.xml");
+
+            CqCommonUtils.syncVersions(pomXml, mojoDescriptorCreator, session, project, charset, simpleElementWhitespace,
+                    localRepositoryPath,
+                    getLog(), versionTransformations(), repositories, repoSession, repoSystem);
+        } finally {
+            ResolutionMetrics.getInstance().report("sync-versions", resolutionStart, getLog(),
+                    resolutionMetricsFile == null ? null : resolutionMetricsFile.toPath());
+            CqMetrics.getInstance().report("sync-versions", metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-sync-versions.json"));
+        }
     }
 
     private Map<String, String> versionTransformations() {
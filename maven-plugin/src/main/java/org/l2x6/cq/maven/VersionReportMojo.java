@@ -16,10 +16,11 @@
  */
 package org.l2x6.cq.maven;
 
-import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.camel.tooling.model.BaseModel;
 import org.apache.maven.plugin.AbstractMojo;
@@ -31,9 +32,13 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.l2x6.cq.common.CatalogModelCache;
 import org.l2x6.cq.common.CqCatalog;
 import org.l2x6.cq.common.CqCatalog.Flavor;
 import org.l2x6.cq.common.CqCatalog.GavCqCatalog;
+import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.GavCqCatalogPool;
+import org.l2x6.pom.tuner.model.Gav;
 
 /**
  * Prepares a report upon releasing a new Camel Quarkus version.
@@ -76,10 +81,14 @@ public class VersionReportMojo extends AbstractMojo {
         final StringBuilder counts = new StringBuilder();
         final StringBuilder details = new StringBuilder();
 
-        try (GavCqCatalog currentCatalog = GavCqCatalog.open(localRepositoryPath, Flavor.camelQuarkus, reportVersion,
-                repositories, repoSystem, repoSession);
-                GavCqCatalog previousCatalog = GavCqCatalog.open(localRepositoryPath, Flavor.camelQuarkus, baselineVersion,
-                        repositories, repoSystem, repoSession)) {
+        final Gav reportGav = Flavor.camelQuarkus.toGav(reportVersion);
+        final Gav baselineGav = Flavor.camelQuarkus.toGav(baselineVersion);
+        final Map<Gav, Path> catalogJars = CqCommonUtils.resolveArtifacts(localRepositoryPath,
+                Arrays.asList(reportGav, baselineGav), "jar", repositories, repoSystem, repoSession);
+        final GavCqCatalogPool catalogPool = GavCqCatalogPool.of(repoSession);
+        try (GavCqCatalog currentCatalog = catalogPool.open(Flavor.camelQuarkus, reportVersion, catalogJars.get(reportGav));
+                GavCqCatalog previousCatalog = catalogPool.open(Flavor.camelQuarkus, baselineVersion,
+                        catalogJars.get(baselineGav))) {
 
             CqCatalog.kinds().forEach(kind -> {
                 final String pluralName = CqUtils.toCapCamelCase(kind.name() + "s");
@@ -101,17 +110,10 @@ public class VersionReportMojo extends AbstractMojo {
                                 /* added earlier */
                                 if (currentModel.isNativeSupported()) {
                                     /* It is native now, check whether was JVM in the previous version */
-                                    try {
-                                        BaseModel<?> previousModel = previousCatalog.load(kind, currentModel.getName());
-                                        if (previousModel != null && !previousModel.isNativeSupported()) {
-                                            details.append("• ").append(currentModel.getTitle()).append(" +native")
-                                                    .append('\n');
-                                        }
-                                    } catch (RuntimeException e) {
-                                        if (e.getCause().getClass() == NoSuchFileException.class) {
-
-                                        }
-                                    }
+                                    previousCatalog.findModel(kind, currentModel.getName())
+                                            .filter(previousModel -> !previousModel.isNativeSupported())
+                                            .ifPresent(previousModel -> details.append("• ")
+                                                    .append(currentModel.getTitle()).append(" +native").append('\n'));
                                 }
                             }
                         });
@@ -123,6 +125,7 @@ public class VersionReportMojo extends AbstractMojo {
             });
         }
 
+        getLog().debug(CatalogModelCache.getInstance().toString());
         getLog().info("Counts:\n\n\n" + counts.toString() + "\n\n");
         getLog().info("Report:\n\n\n" + details.toString() + "\n\n");
 
@@ -22,7 +22,9 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.shared.model.fileset.FileSet;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.l2x6.cq.test.utils.TestUtils;
 
@@ -55,4 +57,15 @@ public class FormatMojoTest {
 
     }
 
+    @Test
+    void configCoversPluginVersion() throws IOException {
+        final FormatPomsMojo mojo = initMojo(Paths.get("target"));
+        mojo.plugin = new PluginDescriptor();
+        mojo.plugin.setVersion("1.0.0");
+        final String config1 = mojo.config(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList());
+        mojo.plugin.setVersion("1.0.1");
+        final String config2 = mojo.config(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList());
+        Assertions.assertThat(config1).isNotEqualTo(config2);
+    }
+
 }
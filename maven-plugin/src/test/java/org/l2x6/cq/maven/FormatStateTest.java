@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.l2x6.pom.tuner.model.Gavtcs;
+
+public class FormatStateTest {
+
+    @Test
+    void upToDate(@TempDir Path basePath) throws IOException {
+        final Path stateFile = basePath.resolve(FormatState.DEFAULT_PATH);
+        final Path pom = write(basePath.resolve("pom.xml"), "<project/>");
+        final Path source = write(basePath.resolve("source/pom.xml"), "<project>source</project>");
+        final List<Path> inputs = Collections.singletonList(source);
+        final List<Gavtcs> extensions = Collections.singletonList(new Gavtcs("org.foo", "foo", null));
+
+        FormatState state = FormatState.load(basePath, stateFile, "config");
+        state.setExtensions(extensions);
+        Assertions.assertThat(state.isUpToDate(pom, inputs, true)).isFalse();
+        state.store();
+
+        state = FormatState.load(basePath, stateFile, "config");
+        state.setExtensions(extensions);
+        Assertions.assertThat(state.isUpToDate(pom, inputs, true)).isTrue();
+        Assertions.assertThat(state.isUpToDate(pom, Collections.emptyList(), false)).isFalse();
+
+        /* Changed extensions */
+        state.setExtensions(Collections.emptyList());
+        Assertions.assertThat(state.isUpToDate(pom, inputs, false)).isTrue();
+        Assertions.assertThat(state.isUpToDate(pom, inputs, true)).isFalse();
+
+        /* Changed config */
+        state = FormatState.load(basePath, stateFile, "other config");
+        state.setExtensions(extensions);
+        Assertions.assertThat(state.isUpToDate(pom, inputs, true)).isFalse();
+
+        /* Changed input */
+        state = FormatState.load(basePath, stateFile, "config");
+        state.setExtensions(extensions);
+        write(source, "<project>changed</project>");
+        Assertions.assertThat(state.isUpToDate(pom, inputs, true)).isFalse();
+
+        Assertions.assertThat(FormatState.NONE.isUpToDate(pom, inputs, true)).isFalse();
+    }
+
+    static Path write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.maven;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares the performance of {@link PomSorter} with the former {@link RegexPomSorter}. Run with
+ * {@code mvn test -Dtest=PomSorterBenchmark -Dcq.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "cq.benchmark", matches = "true")
+public class PomSorterBenchmark {
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void sortDependencyManagement() {
+        final Path path = Paths.get("pom.xml");
+        for (int count : new int[] { 100, 1000, 3000 }) {
+            final String bom = PomSorterTest.bom(count, 42, "\n");
+            run("sortDependencyManagement regex     " + count, bom, RegexPomSorter::sortDependencyManagement);
+            run("sortDependencyManagement streaming " + count, bom,
+                    xml -> PomSorter.sortDependencyManagement(xml, path));
+        }
+    }
+
+    @Test
+    void sortModules() {
+        final Path path = Paths.get("pom.xml");
+        for (int count : new int[] { 100, 1000, 3000 }) {
+            final String pom = PomSorterTest.modules(count, 42, true);
+            run("sortModules regex     " + count, pom, RegexPomSorter::sortModules);
+            run("sortModules streaming " + count, pom, xml -> PomSorter.sortModules(xml, path));
+        }
+    }
+
+    static void run(String label, String input, UnaryOperator<String> sorter) {
+        int hash = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            hash += sorter.apply(input).length();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            hash += sorter.apply(input).length();
+        }
+        final long avgMicros = (System.nanoTime() - start) / ITERATIONS / 1000;
+        System.out.println(label + ": " + avgMicros + " us/op (" + hash + ")");
+    }
+}
@@ -21,10 +21,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.l2x6.cq.test.utils.TestUtils;
 import org.l2x6.pom.tuner.PomTransformer;
@@ -74,4 +79,220 @@ public class PomSorterTest {
         final Path expected = Paths.get("src/test/expected/pom-sorter/mvnd-rules");
         TestUtils.assertTreesMatch(expected, baseDir.resolve("mvnd-rules"));
     }
+
+    @Test
+    void sortDependencyManagementSameAsRegex() {
+        for (long seed = 0; seed < 10; seed++) {
+            final String bom = bom(200, seed, "\n");
+            Assertions.assertThat(PomSorter.sortDependencyManagement(bom, Paths.get("pom.xml")))
+                    .isEqualTo(RegexPomSorter.sortDependencyManagement(bom));
+        }
+        final String bom = bom(200, 42, "\r\n");
+        Assertions.assertThat(PomSorter.sortDependencyManagement(bom, Paths.get("pom.xml")))
+                .isEqualTo(RegexPomSorter.sortDependencyManagement(bom));
+    }
+
+    @Test
+    void sortModulesSameAsRegex() {
+        for (long seed = 0; seed < 10; seed++) {
+            final String pom = modules(200, seed, seed % 2 == 0);
+            Assertions.assertThat(PomSorter.sortModules(pom, Paths.get("pom.xml")))
+                    .isEqualTo(RegexPomSorter.sortModules(pom));
+        }
+    }
+
+    @Test
+    void sortProfileDependencyManagement() {
+        final String pom = "<project>\n"
+                + "    <profiles>\n"
+                + "        <profile>\n"
+                + "            <dependencyManagement>\n"
+                + "                <dependencies>\n"
+                + "                    <!-- a..z -->\n"
+                + "                    <dependency>\n"
+                + "                        <groupId>org.foo</groupId>\n"
+                + "                        <artifactId>b</artifactId>\n"
+                + "                    </dependency>\n"
+                + "                    <dependency>\n"
+                + "                        <groupId>org.apache.camel</groupId>\n"
+                + "                        <artifactId>a</artifactId>\n"
+                + "                    </dependency>\n"
+                + "                </dependencies>\n"
+                + "            </dependencyManagement>\n"
+                + "        </profile>\n"
+                + "    </profiles>\n"
+                + "</project>\n";
+        Assertions.assertThat(PomSorter.sortDependencyManagement(pom, Paths.get("pom.xml"))).isEqualTo("<project>\n"
+                + "    <profiles>\n"
+                + "        <profile>\n"
+                + "            <dependencyManagement>\n"
+                + "                <dependencies>\n"
+                + "                    <!-- a..z -->\n"
+                + "\n"
+                + "                    <!--$ org.apache.camel $-->\n"
+                + "                    <dependency>\n"
+                + "                        <groupId>org.apache.camel</groupId>\n"
+                + "                        <artifactId>a</artifactId>\n"
+                + "                    </dependency>\n"
+                + "\n"
+                + "                    <!--$ Other third party dependencies $-->\n"
+                + "                    <dependency>\n"
+                + "                        <groupId>org.foo</groupId>\n"
+                + "                        <artifactId>b</artifactId>\n"
+                + "                    </dependency>\n"
+                + "                </dependencies>\n"
+                + "            </dependencyManagement>\n"
+                + "        </profile>\n"
+                + "    </profiles>\n"
+                + "</project>\n");
+    }
+
+    @Test
+    void sortSeveralSections() {
+        final String pom = "<project>\n"
+                + "    <dependencyManagement>\n"
+                + "        <dependencies>\n"
+                + "            <!-- first a..z -->\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>d</artifactId>\n"
+                + "            </dependency>\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>c</artifactId>\n"
+                + "            </dependency>\n"
+                + "\n"
+                + "            <!-- second a..z -->\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>b</artifactId>\n"
+                + "            </dependency>\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>a</artifactId>\n"
+                + "            </dependency>\n"
+                + "        </dependencies>\n"
+                + "    </dependencyManagement>\n"
+                + "</project>\n";
+        Assertions.assertThat(PomSorter.sortDependencyManagement(pom, Paths.get("pom.xml"))).isEqualTo("<project>\n"
+                + "    <dependencyManagement>\n"
+                + "        <dependencies>\n"
+                + "            <!-- first a..z -->\n"
+                + "\n"
+                + "            <!--$ Other third party dependencies $-->\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>c</artifactId>\n"
+                + "            </dependency>\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>d</artifactId>\n"
+                + "            </dependency>\n"
+                + "\n"
+                + "            <!-- second a..z -->\n"
+                + "\n"
+                + "            <!--$ Other third party dependencies $-->\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>a</artifactId>\n"
+                + "            </dependency>\n"
+                + "            <dependency>\n"
+                + "                <groupId>org.foo</groupId>\n"
+                + "                <artifactId>b</artifactId>\n"
+                + "            </dependency>\n"
+                + "        </dependencies>\n"
+                + "    </dependencyManagement>\n"
+                + "</project>\n");
+    }
+
+    /**
+     * @param  count the number of managed dependencies
+     * @param  seed  the seed for shuffling the dependencies
+     * @param  eol   the line separator
+     * @return       a BOM with {@code count} dependencies in random order
+     */
+    static String bom(int count, long seed, String eol) {
+        final String[] groupIds = { "org.apache.camel", "org.apache.camel.quarkus", "io.quarkus", "com.example",
+                "org.apache.commons" };
+        final Random random = new Random(seed);
+        final List<String> deps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final StringBuilder dep = new StringBuilder();
+            if (i % 17 == 0) {
+                dep.append("            <!-- keep an eye on " + i + " -->").append(eol);
+            }
+            final String groupId = groupIds[random.nextInt(groupIds.length)];
+            dep.append("            <dependency>").append(eol)
+                    .append("                <groupId>").append(groupId).append("</groupId>").append(eol)
+                    .append("                <artifactId>artifact-").append(random.nextInt(count * 10)).append("</artifactId>")
+                    .append(eol)
+                    .append("                <version>${project.version}</version>").append(eol);
+            if (i % 5 == 0) {
+                dep.append("                <type>test-jar</type>").append(eol);
+            }
+            if (i % 7 == 0) {
+                dep.append("                <exclusions>").append(eol)
+                        .append("                    <exclusion>").append(eol)
+                        .append("                        <groupId>org.excluded</groupId>").append(eol)
+                        .append("                        <artifactId>excluded-").append(i).append("</artifactId>").append(eol)
+                        .append("                    </exclusion>").append(eol)
+                        .append("                </exclusions>").append(eol);
+            }
+            dep.append("            </dependency>").append(eol);
+            deps.add(dep.toString());
+        }
+        Collections.shuffle(deps, random);
+        final StringBuilder result = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(eol)
+                .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">").append(eol)
+                .append("    <modelVersion>4.0.0</modelVersion>").append(eol)
+                .append("    <artifactId>bom</artifactId>").append(eol)
+                .append("    <dependencyManagement>").append(eol)
+                .append("        <dependencies>").append(eol)
+                .append("            <dependency>").append(eol)
+                .append("                <groupId>org.first</groupId>").append(eol)
+                .append("                <artifactId>first</artifactId>").append(eol)
+                .append("            </dependency>").append(eol)
+                .append("            <!-- Dependencies a..z; do not remove this comment -->").append(eol).append(eol);
+        for (int i = 0; i < deps.size(); i++) {
+            if (i % 50 == 0) {
+                result.append(eol).append("            <!--$ ").append(groupIds[i % groupIds.length]).append(" $-->")
+                        .append(eol);
+            }
+            result.append(deps.get(i));
+        }
+        return result.append(eol)
+                .append("        </dependencies>").append(eol)
+                .append("    </dependencyManagement>").append(eol)
+                .append("</project>").append(eol)
+                .toString();
+    }
+
+    /**
+     * @param  count  the number of modules
+     * @param  seed   the seed for shuffling the modules
+     * @param  marker whether to add the {@code a..z} marker comment
+     * @return        a {@code pom.xml} with {@code count} modules in random order
+     */
+    static String modules(int count, long seed, boolean marker) {
+        final Random random = new Random(seed);
+        final StringBuilder result = new StringBuilder()
+                .append("<project>\n")
+                .append("    <artifactId>parent</artifactId>\n")
+                .append("    <modules>\n")
+                .append("        <module>first</module>\n");
+        if (marker) {
+            result.append("\n        <!-- extensions a..z; do not remove this comment -->\n");
+        }
+        for (int i = 0; i < count; i++) {
+            result.append("        <module>module-").append(random.nextInt(count * 10)).append("</module>\n");
+            if (i % 13 == 0) {
+                result.append("\n");
+            }
+        }
+        return result
+                .append("    </modules>\n")
+                .append("</project>\n")
+                .toString();
+    }
 }
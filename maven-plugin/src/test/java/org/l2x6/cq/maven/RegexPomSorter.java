@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2020 CQ Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.l2x6.cq.maven;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The former regular expression based implementation of {@link PomSorter} kept for comparing the output and the
+ * performance of the current implementation.
+ */
+class RegexPomSorter {
+
+    static String sortDependencyManagement(String xmlSource) {
+        final Pattern sortSpanPattern = Pattern
+                .compile("(a\\.\\.z[^>]*>)(.*)</dependencies>(\\r?\\n)([ ]*)</dependencyManagement>", Pattern.DOTALL);
+        final Pattern groupIdPattern = Pattern.compile("<groupId>([^<]+)</groupId>");
+
+        final Matcher matcher = sortSpanPattern.matcher(xmlSource);
+        if (matcher.find()) {
+            String dependenciesString = matcher.group(2);
+            final String eol = matcher.group(3);
+            final String indent = matcher.group(4);
+
+            dependenciesString = dependenciesString.replaceAll("<!--\\$[^>]*\\$-->", "");
+            final String[] dependenciesArray = dependenciesString.split("</dependency>");
+            /* Sort by adding to a TreeMap */
+            final Map<String, Map<String, String>> sortedDeps = new TreeMap<>();
+            for (String dep : dependenciesArray) {
+                dep = dep.trim();
+                if (!dep.isEmpty()) {
+                    String key = dep
+                            .replaceAll(">[ \n\r\t]+", ">")
+                            .replaceAll("[ \n\r\t]+<", "<");
+                    final Matcher gMatcher = groupIdPattern.matcher(key);
+                    gMatcher.find();
+                    final String groupId = gMatcher.group(1);
+                    key = key.replaceAll("<[^>]+>", " ").replaceAll(" +", " ");
+
+                    Map<String, String> groupMap = sortedDeps.get(groupId);
+                    if (groupMap == null) {
+                        groupMap = new TreeMap<String, String>();
+                        sortedDeps.put(groupId, groupMap);
+                    }
+                    groupMap.put(key, dep);
+                }
+            }
+            final StringBuilder result = new StringBuilder(xmlSource);
+            result.setLength(matcher.end(1));
+
+            final PomSorter.Appender appender = new PomSorter.Appender(eol, indent + indent + indent, sortedDeps, result);
+
+            appender.appendGroup("org.apache.camel", true);
+            appender.appendGroup("org.apache.camel.quarkus", true);
+
+            appender.appendOther();
+            appender.result().append(eol).append(indent).append(indent).append(xmlSource.substring(matcher.end(2)));
+
+            return result.toString();
+        } else {
+            throw new RuntimeException("Could not match " + sortSpanPattern);
+        }
+    }
+
+    static String sortModules(String xmlSource) {
+        final Pattern sortSpanPattern = Pattern.compile("(a\\.\\.z[^>]*>)(.*)(\\r?\\n)([ ]*)</modules>", Pattern.DOTALL);
+
+        Matcher matcher = sortSpanPattern.matcher(xmlSource);
+        if (!matcher.find()) {
+            final Pattern fallbackSortSpanPattern = Pattern.compile("(<modules>)(.*)(\\r?\\n)([ ]*)</modules>", Pattern.DOTALL);
+            matcher = fallbackSortSpanPattern.matcher(xmlSource);
+            if (!matcher.find()) {
+                throw new RuntimeException("Could not match " + sortSpanPattern + " nor " + fallbackSortSpanPattern);
+            }
+        }
+        final String modulesString = matcher.group(2);
+        final String eol = matcher.group(3);
+        final String indent = matcher.group(4);
+        final String[] modulesArray = modulesString.split("[\r\n]+ *");
+        final Map<String, String> sortedModules = new TreeMap<String, String>();
+        for (String module : modulesArray) {
+            module = module.trim();
+            if (!module.isEmpty()) {
+                String key = module
+                        .replaceAll(">[ \n\r\t]+", ">")
+                        .replaceAll("[ \n\r\t]+<", "<");
+                key = key.replaceAll("<[^>]+>", "");
+                if (!key.isEmpty()) {
+                    sortedModules.put(key, module);
+                }
+            }
+        }
+
+        final StringBuilder result = new StringBuilder(xmlSource);
+        result.setLength(matcher.end(1));
+        for (String module : sortedModules.values()) {
+            result.append(eol).append(indent).append(indent).append(module);
+        }
+        result.append(eol).append(indent).append(xmlSource.substring(matcher.end(4)));
+
+        return result.toString();
+    }
+}
@@ -21,12 +21,12 @@ import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.camel.catalog.Kind;
 import org.apache.camel.tooling.model.ArtifactModel;
@@ -41,9 +41,13 @@ import org.apache.maven.project.MavenProject;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.l2x6.cq.common.CatalogModelCache;
 import org.l2x6.cq.common.CqCatalog;
 import org.l2x6.cq.common.CqCatalog.Flavor;
 import org.l2x6.cq.common.CqCatalog.GavCqCatalog;
+import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.GavCqCatalogPool;
+import org.l2x6.pom.tuner.model.Gav;
 
 /**
  * Exports the list of components, languages, data formats and others to a CSV file.
@@ -92,10 +96,14 @@ public class ExportComponentCsvMojo extends AbstractMojo {
     public void execute() throws MojoExecutionException, MojoFailureException {
         final Path localRepositoryPath = Paths.get(localRepository);
         final Path outputPath = outputDir.toPath();
-        try (GavCqCatalog camelCatalog = GavCqCatalog.open(localRepositoryPath, Flavor.camel, camelCatalogVersion, repositories,
-                repoSystem, repoSession);
-                GavCqCatalog camelQuarkusCatalog = GavCqCatalog.open(localRepositoryPath, Flavor.camelQuarkus,
-                        camelQuarkusCatalogVersion, repositories, repoSystem, repoSession)) {
+        final Gav camelGav = Flavor.camel.toGav(camelCatalogVersion);
+        final Gav camelQuarkusGav = Flavor.camelQuarkus.toGav(camelQuarkusCatalogVersion);
+        final Map<Gav, Path> catalogJars = CqCommonUtils.resolveArtifacts(localRepositoryPath,
+                Arrays.asList(camelGav, camelQuarkusGav), "jar", repositories, repoSystem, repoSession);
+        final GavCqCatalogPool catalogPool = GavCqCatalogPool.of(repoSession);
+        try (GavCqCatalog camelCatalog = catalogPool.open(Flavor.camel, camelCatalogVersion, catalogJars.get(camelGav));
+                GavCqCatalog camelQuarkusCatalog = catalogPool.open(Flavor.camelQuarkus, camelQuarkusCatalogVersion,
+                        catalogJars.get(camelQuarkusGav))) {
             CqCatalog.kinds().forEach(kind -> {
                 final Path outputFile = outputPath.resolve(kind.name() + "s.csv");
                 try (Writer out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
@@ -131,18 +139,13 @@ public class ExportComponentCsvMojo extends AbstractMojo {
                 }
             });
         }
+        getLog().debug(CatalogModelCache.getInstance().toString());
     }
 
     private String quarkusCommunitySupport(GavCqCatalog camelQuarkusCatalog, Kind kind, ArtifactModel<?> model) {
-        try {
-            BaseModel<?> cqModel = camelQuarkusCatalog.load(kind, model.getName());
-            return cqModel.isNativeSupported() ? "Native" : "JVM";
-        } catch (RuntimeException e) {
-            if (e.getCause() instanceof NoSuchFileException) {
-                return "n/a";
-            }
-            throw e;
-        }
+        return camelQuarkusCatalog.findModel(kind, model.getName())
+                .map(cqModel -> cqModel.isNativeSupported() ? "Native" : "JVM")
+                .orElse("n/a");
     }
 
     static String primaryGroup(Kind kind, String rawLabels, String name) {
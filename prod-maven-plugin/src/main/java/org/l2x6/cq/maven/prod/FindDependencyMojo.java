@@ -45,6 +45,8 @@ import org.eclipse.aether.collection.DependencyCollectionException;
 import org.eclipse.aether.graph.DependencyNode;
 import org.eclipse.aether.graph.DependencyVisitor;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqMetrics;
 import org.l2x6.pom.tuner.MavenSourceTree;
 import org.l2x6.pom.tuner.model.Dependency;
 import org.l2x6.pom.tuner.model.Gav;
@@ -140,67 +142,72 @@ public class FindDependencyMojo extends AbstractMojo {
             getLog().info("Skipping as requested by the user");
             return;
         }
-        charset = Charset.forName(encoding);
-        if (rootsSourceType == null) {
-            rootsSourceType = RootsSourceType.TREE;
-        }
-        final GavPattern gavPatternMatcher = gavPattern != null ? GavPattern.of(gavPattern) : null;
-
-        listRoots()
-                .forEach(extension -> {
-                    final org.eclipse.aether.artifact.Artifact rootArtifact = new DefaultArtifact(
-                            extension.getGroupId(),
-                            extension.getArtifactId(),
-                            null,
-                            "jar",
-                            extension.getVersion());
-
-                    CollectRequest request = new CollectRequest();
-                    request.setRepositories(repositories);
-                    request.setRoot(new org.eclipse.aether.graph.Dependency(rootArtifact, null));
-
-                    try {
-                        final DependencyNode rootNode = repoSystem.collectDependencies(repoSession, request).getRoot();
-                        rootNode.accept(new DependencyVisitor() {
-                            private final Deque<Gavtcs> stack = new ArrayDeque<>();
-
-                            @Override
-                            public boolean visitLeave(DependencyNode node) {
-                                stack.pop();
-                                return true;
-                            }
-
-                            @Override
-                            public boolean visitEnter(DependencyNode node) {
-                                final Artifact a = node.getArtifact();
-                                final Gavtcs gav = new Gavtcs(a.getGroupId(), a.getArtifactId(), a.getVersion(),
-                                        a.getExtension(), a.getClassifier(), null);
-                                stack.push(gav);
-
-                                if (gavPattern != null
-                                        && gavPatternMatcher.matches(a.getGroupId(), a.getArtifactId(), a.getVersion())) {
-                                    getLog().warn("Found "
-                                            + StreamSupport
-                                                    .stream(((Iterable<Gavtcs>) (() -> stack.descendingIterator()))
-                                                            .spliterator(), false)
-                                                    .map(Gavtcs::toString)
-                                                    .collect(Collectors.joining("\n        -> ")));
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
+        try {
+            charset = Charset.forName(encoding);
+            if (rootsSourceType == null) {
+                rootsSourceType = RootsSourceType.TREE;
+            }
+            final GavPattern gavPatternMatcher = gavPattern != null ? GavPattern.of(gavPattern) : null;
+
+            listRoots()
+                    .forEach(extension -> {
+                        final org.eclipse.aether.artifact.Artifact rootArtifact = new DefaultArtifact(
+                                extension.getGroupId(),
+                                extension.getArtifactId(),
+                                null,
+                                "jar",
+                                extension.getVersion());
+
+                        CollectRequest request = new CollectRequest();
+                        request.setRepositories(repositories);
+                        request.setRoot(new org.eclipse.aether.graph.Dependency(rootArtifact, null));
+
+                        try {
+                            final DependencyNode rootNode = repoSystem.collectDependencies(repoSession, request).getRoot();
+                            rootNode.accept(new DependencyVisitor() {
+                                private final Deque<Gavtcs> stack = new ArrayDeque<>();
+
+                                @Override
+                                public boolean visitLeave(DependencyNode node) {
+                                    stack.pop();
+                                    return true;
                                 }
-                                return true;
-                            }
-                        });
-                    } catch (DependencyCollectionException e) {
-                        throw new RuntimeException("Could not resolve " + extension, e);
-                    }
-
-                });
 
+                                @Override
+                                public boolean visitEnter(DependencyNode node) {
+                                    final Artifact a = node.getArtifact();
+                                    final Gavtcs gav = new Gavtcs(a.getGroupId(), a.getArtifactId(), a.getVersion(),
+                                            a.getExtension(), a.getClassifier(), null);
+                                    stack.push(gav);
+
+                                    if (gavPattern != null
+                                            && gavPatternMatcher.matches(a.getGroupId(), a.getArtifactId(), a.getVersion())) {
+                                        getLog().warn("Found "
+                                                + StreamSupport
+                                                        .stream(((Iterable<Gavtcs>) (() -> stack.descendingIterator()))
+                                                                .spliterator(), false)
+                                                        .map(Gavtcs::toString)
+                                                        .collect(Collectors.joining("\n        -> ")));
+                                    }
+                                    return true;
+                                }
+                            });
+                        } catch (DependencyCollectionException e) {
+                            throw new RuntimeException("Could not resolve " + extension, e);
+                        }
+
+                    });
+        } finally {
+            CqMetrics.getInstance().report("find-dependency", metricsStart, getLog(),
+                    basedir.toPath().resolve("target/cq-metrics-find-dependency.json"));
+        }
     }
 
     public Stream<Gav> listRoots() {
         switch (rootsSourceType) {
         case TREE:
-            final MavenSourceTree tree = MavenSourceTree.of(basedir.toPath().resolve("pom.xml"), charset,
+            final MavenSourceTree tree = CqCommonUtils.loadSourceTree(basedir.toPath().resolve("pom.xml"), charset,
                     Dependency::isVirtual);
             return tree.getModulesByGa().entrySet().stream()
                     .filter(en -> !en.getValue().getPackaging().equals("pom"))
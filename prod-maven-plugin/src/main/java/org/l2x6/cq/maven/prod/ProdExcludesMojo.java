@@ -67,7 +67,13 @@ import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqEvents;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.FileUpdater;
 import org.l2x6.cq.common.OnFailure;
+import org.l2x6.cq.common.PomEditSession;
+import org.l2x6.cq.common.ResolutionMetrics;
+import org.l2x6.cq.common.TraceRecorder;
 import org.l2x6.pom.tuner.ExpressionEvaluator;
 import org.l2x6.pom.tuner.MavenSourceTree;
 import org.l2x6.pom.tuner.MavenSourceTree.ActiveProfiles;
@@ -228,10 +234,30 @@ public class ProdExcludesMojo extends AbstractMojo {
     @Parameter(defaultValue = "utf-8", required = true, property = "cq.encoding")
     String encoding;
     Charset charset;
+    PomEditSession pomEdits;
 
     @Parameter(defaultValue = CAMEL_QUARKUS_PRODUCT_SOURCE_JSON_PATH, required = true, property = "cq.productJson")
     File productJson;
 
+    /**
+     * If set, the artifact resolution done by this mojo is logged and written to the given JSON file. Otherwise it is
+     * logged only on the debug level.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.resolutionMetricsFile")
+    File resolutionMetricsFile;
+
+    /**
+     * If set, a trace of the steps of this mojo is written to the given file in the Chrome trace event format. The
+     * file can be viewed in {@code chrome://tracing} or in Perfetto.
+     *
+     * @since 2.23.4
+     */
+    @Parameter(property = "cq.traceFile")
+    File traceFile;
+    TraceRecorder trace = TraceRecorder.NOOP;
+
     /**
      * Skip the execution of this mojo.
      *
@@ -421,225 +447,262 @@ public class ProdExcludesMojo extends AbstractMojo {
             getLog().info("Skipping as requested by the user");
             return;
         }
-        charset = Charset.forName(encoding);
-        localRepositoryPath = Paths.get(localRepository);
-        if (integrationTests == null) {
-            integrationTests = Collections.emptyList();
-        }
-        final Path jenkinsfileName = jenkinsfile.toPath().getFileName();
+        final ResolutionMetrics.Snapshot resolutionStart = ResolutionMetrics.getInstance().snapshot();
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
+        final String goal = isChecking() ? "prod-excludes-check" : "prod-excludes";
         final Path basePath = basedir.toPath();
-        productizedDependenciesPath = basePath.relativize(productizedDependenciesFile.toPath());
-        nonProductizedDependenciesPath = basePath.relativize(nonProductizedDependenciesFile.toPath());
-        allDependenciesPath = basePath.relativize(allDependenciesFile.toPath());
-
-        final Path extensionYamlRelPath = Paths.get("src/main/resources/META-INF/quarkus-extension.yaml");
-        additionalFiles = path -> jenkinsfileName.equals(path.getFileName())
-                || path.endsWith(extensionYamlRelPath)
-                || path.endsWith(allDependenciesPath)
-                || path.endsWith(nonProductizedDependenciesPath)
-                || path.endsWith(productizedDependenciesPath);
-        final String majorVersion = version.split("\\.")[0];
-        final String communityGuideUrlTemplate = "https://camel.apache.org/camel-quarkus/latest/reference/extensions/${artifactIdBase}.html";
-        final String defaultCommunityGuide = "https://camel.apache.org/camel-quarkus/latest/user-guide/index.html";
-        final Path docReferenceDir = basedir.toPath().resolve("docs/modules/ROOT/pages/reference/extensions");
-
-        /* Collect the list of productize artifacts based on data from camel-quarkus-product-source.json */
-        final Path absProdJson = basedir.toPath().resolve(productJson.toPath());
-        final Set<Ga> includes = new TreeSet<Ga>();
-        final Map<Ga, String> extensionsDocPages = new TreeMap<>();
-        final Set<Ga> requiredExtensions = new TreeSet<Ga>();
-        final Set<Ga> excludeTests = new TreeSet<Ga>();
-        final Map<Ga, Set<Ga>> allowedMixedTests = new TreeMap<>();
-        final Map<String, String> versionTransformations;
-        try (Reader r = Files.newBufferedReader(absProdJson, charset)) {
-            @SuppressWarnings("unchecked")
-            final Map<String, Object> json = new Gson().fromJson(r, Map.class);
-            final String prodGuideUrlTemplate = (String) json.get("guideUrlTemplate");
-            @SuppressWarnings("unchecked")
-            final Map<String, Object> extensions = (Map<String, Object>) json.get("extensions");
-            for (Entry<String, Object> en : extensions.entrySet()) {
-                final String artifactId = en.getKey();
-                final Ga extensionGa = new Ga("org.apache.camel.quarkus", artifactId);
-                requiredExtensions.add(extensionGa);
-                includes.add(extensionGa);
-                includes.add(new Ga("org.apache.camel.quarkus", artifactId + "-deployment"));
-
-                Map<String, Object> extensionEntry = (Map<String, Object>) en.getValue();
-                if (new ExtensionSupportStatus(ModeSupportStatus.valueOf((String) extensionEntry.get("jvm")),
-                        ModeSupportStatus.valueOf((String) extensionEntry.get("native"))).hasProductDocumentationPage()) {
-                    extensionsDocPages.put(extensionGa, guideUrl(majorVersion, extensionGa, prodGuideUrlTemplate));
-                }
+        trace = TraceRecorder.of(traceFile == null ? null : traceFile.toPath());
+        final TraceRecorder.Span mojoSpan = trace.span(goal);
+        charset = Charset.forName(encoding);
+        pomEdits = new PomEditSession(charset, simpleElementWhitespace);
+        try (PomEditSession edits = pomEdits) {
+            CqEvents.MojoPhase phase = CqEvents.MojoPhase.begin(goal, "read-product-json");
+            localRepositoryPath = Paths.get(localRepository);
+            if (integrationTests == null) {
+                integrationTests = Collections.emptyList();
+            }
+            final Path jenkinsfileName = jenkinsfile.toPath().getFileName();
+            productizedDependenciesPath = basePath.relativize(productizedDependenciesFile.toPath());
+            nonProductizedDependenciesPath = basePath.relativize(nonProductizedDependenciesFile.toPath());
+            allDependenciesPath = basePath.relativize(allDependenciesFile.toPath());
+
+            final Path extensionYamlRelPath = Paths.get("src/main/resources/META-INF/quarkus-extension.yaml");
+            additionalFiles = path -> jenkinsfileName.equals(path.getFileName())
+                    || path.endsWith(extensionYamlRelPath)
+                    || path.endsWith(allDependenciesPath)
+                    || path.endsWith(nonProductizedDependenciesPath)
+                    || path.endsWith(productizedDependenciesPath);
+            final String majorVersion = version.split("\\.")[0];
+            final String communityGuideUrlTemplate = "https://camel.apache.org/camel-quarkus/latest/reference/extensions/${artifactIdBase}.html";
+            final String defaultCommunityGuide = "https://camel.apache.org/camel-quarkus/latest/user-guide/index.html";
+            final Path docReferenceDir = basedir.toPath().resolve("docs/modules/ROOT/pages/reference/extensions");
+
+            /* Collect the list of productize artifacts based on data from camel-quarkus-product-source.json */
+            final Path absProdJson = basedir.toPath().resolve(productJson.toPath());
+            final Set<Ga> includes = new TreeSet<Ga>();
+            final Map<Ga, String> extensionsDocPages = new TreeMap<>();
+            final Set<Ga> requiredExtensions = new TreeSet<Ga>();
+            final Set<Ga> excludeTests = new TreeSet<Ga>();
+            final Map<Ga, Set<Ga>> allowedMixedTests = new TreeMap<>();
+            final Map<String, String> versionTransformations;
+            try (Reader r = Files.newBufferedReader(absProdJson, charset)) {
+                @SuppressWarnings("unchecked")
+                final Map<String, Object> json = new Gson().fromJson(r, Map.class);
+                final String prodGuideUrlTemplate = (String) json.get("guideUrlTemplate");
+                @SuppressWarnings("unchecked")
+                final Map<String, Object> extensions = (Map<String, Object>) json.get("extensions");
+                for (Entry<String, Object> en : extensions.entrySet()) {
+                    final String artifactId = en.getKey();
+                    final Ga extensionGa = new Ga("org.apache.camel.quarkus", artifactId);
+                    requiredExtensions.add(extensionGa);
+                    includes.add(extensionGa);
+                    includes.add(new Ga("org.apache.camel.quarkus", artifactId + "-deployment"));
+
+                    Map<String, Object> extensionEntry = (Map<String, Object>) en.getValue();
+                    if (new ExtensionSupportStatus(ModeSupportStatus.valueOf((String) extensionEntry.get("jvm")),
+                            ModeSupportStatus.valueOf((String) extensionEntry.get("native"))).hasProductDocumentationPage()) {
+                        extensionsDocPages.put(extensionGa, guideUrl(majorVersion, extensionGa, prodGuideUrlTemplate));
+                    }
 
+                    @SuppressWarnings("unchecked")
+                    final List<String> allowedMixedTestsList = (List<String>) extensionEntry.get("allowedMixedTests");
+                    if (allowedMixedTestsList != null) {
+                        final Set<Ga> moduleAllowedMixedTests = allowedMixedTestsList.stream()
+                                .map(a -> new Ga("org.apache.camel.quarkus", a))
+                                .collect(Collectors.toCollection(TreeSet::new));
+                        allowedMixedTests.put(extensionGa, moduleAllowedMixedTests);
+                    }
+                }
                 @SuppressWarnings("unchecked")
-                final List<String> allowedMixedTestsList = (List<String>) extensionEntry.get("allowedMixedTests");
-                if (allowedMixedTestsList != null) {
-                    final Set<Ga> moduleAllowedMixedTests = allowedMixedTestsList.stream()
-                            .map(a -> new Ga("org.apache.camel.quarkus", a))
-                            .collect(Collectors.toCollection(TreeSet::new));
-                    allowedMixedTests.put(extensionGa, moduleAllowedMixedTests);
+                final List<String> additionalProductizedArtifacts = (List<String>) json.get("additionalProductizedArtifacts");
+                if (additionalProductizedArtifacts != null) {
+                    for (String artifactId : additionalProductizedArtifacts) {
+                        includes.add(new Ga("org.apache.camel.quarkus", artifactId));
+                    }
                 }
-            }
-            @SuppressWarnings("unchecked")
-            final List<String> additionalProductizedArtifacts = (List<String>) json.get("additionalProductizedArtifacts");
-            if (additionalProductizedArtifacts != null) {
-                for (String artifactId : additionalProductizedArtifacts) {
-                    includes.add(new Ga("org.apache.camel.quarkus", artifactId));
+                @SuppressWarnings("unchecked")
+                final List<String> excludeTestsList = (List<String>) json.get("excludeTests");
+                if (excludeTestsList != null) {
+                    for (String artifactId : excludeTestsList) {
+                        excludeTests.add(new Ga("org.apache.camel.quarkus", artifactId));
+                    }
                 }
+                versionTransformations = (Map<String, String>) json.getOrDefault("versionTransformations",
+                        Collections.emptyMap());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read " + absProdJson, e);
             }
-            @SuppressWarnings("unchecked")
-            final List<String> excludeTestsList = (List<String>) json.get("excludeTests");
-            if (excludeTestsList != null) {
-                for (String artifactId : excludeTestsList) {
-                    excludeTests.add(new Ga("org.apache.camel.quarkus", artifactId));
+
+            /*
+             * Let's edit the pom.xml files out of the real source tree if we are just checking or pom editing is not
+             * desired
+             */
+            phase = phase.next("copy-poms");
+            final Path workRoot = isChecking()
+                    ? trace.time("copyPoms", () -> CqCommonUtils.copyPoms(
+                            basedir.toPath(),
+                            basedir.toPath().resolve("target/prod-excludes-work"),
+                            additionalFiles))
+                    : basedir.toPath();
+
+            phase = phase.next("load-tree");
+            pomEdits.transform(workRoot.resolve("product/pom.xml"), Transformation.removeAllModules(null, true, true));
+            final Path catalogPomPath = workRoot.resolve("catalog/pom.xml");
+            /* Remove all virtual deps from the Catalog */
+            pomEdits.transform(catalogPomPath, Transformation.removeDependency(
+                    false,
+                    true,
+                    gavtcs -> gavtcs.isVirtual()));
+
+            final Path rootPomPath = workRoot.resolve("pom.xml");
+            final MavenSourceTree initialTree = trace.time("loadSourceTree",
+                    () -> pomEdits.loadSourceTree(rootPomPath, Dependency::isVirtual));
+            final Predicate<Profile> profiles = ActiveProfiles.of();
+
+            /* Re-link any previously commented modules */
+            final MavenSourceTree fullTree = trace.time("relinkModules",
+                    () -> initialTree.relinkModules(charset, simpleElementWhitespace, MODULE_COMMENT));
+
+            trace.time("extensionsDocPages", () -> extensionsDocPages(docReferenceDir, majorVersion, communityGuideUrlTemplate,
+                    defaultCommunityGuide, fullTree.getModulesByGa().keySet(), extensionsDocPages));
+
+            /* Add the modules required by the includes */
+            phase = phase.next("analyze");
+            final Set<Ga> expandedIncludesWithoutTests = Collections
+                    .unmodifiableSet(trace.time("findRequiredModules", () -> fullTree.findRequiredModules(includes, profiles)));
+
+            trace.time("updateVersions", () -> updateVersions(fullTree, profiles, versionTransformations));
+
+            /* Tests */
+            final Map<Ga, Map<Ga, Set<Ga>>> uncoveredExtensions = new TreeMap<>();
+            final Map<Ga, TestCategory> tests = trace.time("analyzeTests", () -> analyzeTests(fullTree,
+                    expandedIncludesWithoutTests, profiles, uncoveredExtensions, allowedMixedTests, excludeTests));
+
+            /* Add the found product tests to the includes */
+            final Set<Ga> tempExpandedIncludesWithTests = new TreeSet<>(expandedIncludesWithoutTests);
+            tests.entrySet().stream()
+                    .filter(en -> !en.getValue().mixed)
+                    .map(Entry::getKey)
+                    .forEach(tempExpandedIncludesWithTests::add);
+            /* The tests may require some additional modules */
+            final Set<Ga> expandedIncludesWithProdTests = trace.time("findRequiredModules",
+                    () -> fullTree.findRequiredModules(tempExpandedIncludesWithTests, profiles));
+
+            final Set<Ga> requiredCamelArtifacts = trace.time("findRequiredCamelArtifacts",
+                    () -> findRequiredCamelArtifacts(fullTree, expandedIncludesWithProdTests,
+                            fullTree.getExpressionEvaluator(profiles)));
+            trace.time("writeProdReports",
+                    () -> writeProdReports(fullTree, expandedIncludesWithProdTests, profiles, requiredCamelArtifacts));
+
+            /* Comment all non-productized modules in the tree */
+            phase = phase.next("minimize-tree");
+            trace.time("minimizeTree", () -> minimizeTree(workRoot, expandedIncludesWithProdTests, tests, profiles));
+
+            /* Fix the virtual deps in the Catalog */
+            final Set<Gavtcs> allVirtualExtensions = requiredExtensions.stream()
+                    .map(ga -> new Gavtcs(ga.getGroupId(), ga.getArtifactId(), null))
+                    .map(gavtcs -> gavtcs.toVirtual())
+                    .collect(Collectors.toSet());
+            pomEdits.flush();
+            trace.time("updateVirtualDependencies", () -> CqCommonUtils.updateVirtualDependencies(charset,
+                    simpleElementWhitespace, allVirtualExtensions, catalogPomPath));
+
+            /* Enable the mixed tests in special modules */
+            final TreeSet<Ga> expandedIncludesWithAllTests = trace.time("updateMixedTests",
+                    () -> updateMixedTests(fullTree, expandedIncludesWithProdTests, tests));
+
+            /* BOMs */
+            phase = phase.next("update-boms");
+            final Set<Ga> missingCamelArtifacts = trace.time("updateBoms",
+                    () -> updateBoms(fullTree, expandedIncludesWithAllTests, profiles, requiredCamelArtifacts));
+
+            trace.time("updateSuperApp", () -> updateSuperApp(workRoot, requiredExtensions,
+                    fullTree.getRootModule().getGav().getVersion().asConstant()));
+
+            /* Uncomment the product module and comment test modules */
+            pomEdits.transform(workRoot.resolve("pom.xml"),
+                    Transformation.uncommentModules(MODULE_COMMENT, m -> m.equals("product")));
+
+            /* Product guide links */
+            phase = phase.next("update-product-files");
+            trace.time("updateProductGuideLinks",
+                    () -> updateProductGuideLinks(workRoot, extensionsDocPages, fullTree, extensionYamlRelPath));
+
+            /* Make sure all excludeTests are excluded from the config in tooling/test-list/pom.xml */
+            trace.time("excludeTestsFromTestList", () -> excludeTestsFromTestList(workRoot, fullTree,
+                    workRoot.resolve("tooling/test-list/pom.xml"), workRoot.resolve("integration-tests"), excludeTests));
+
+            /* Write all pending pom.xml edits before anything reads them from the disk */
+            trace.time("flushPomEdits", pomEdits::flush);
+
+            /* Invoke transitive-deps mojo */
+            phase = phase.next("transitive-dependencies");
+            trace.time("invokeTransitiveDependenciesMojo", () -> invokeTransitiveDependenciesMojo(workRoot));
+
+            if (isChecking()) {
+                phase = phase.next("assert-poms-match");
+                final TraceRecorder.Span span = trace.span("assertPomsMatch");
+                try {
+                    final MavenSourceTree finalTree = pomEdits.loadSourceTree(rootPomPath, Dependency::isVirtual);
+                    CqCommonUtils.assertPomsMatch(
+                            workRoot,
+                            basedir.toPath(),
+                            finalTree.getModulesByPath().keySet(),
+                            additionalFiles,
+                            charset,
+                            basedir.toPath(),
+                            productJson.toPath(),
+                            onCheckFailure,
+                            getLog()::warn);
+                } finally {
+                    span.end();
                 }
             }
-            versionTransformations = (Map<String, String>) json.getOrDefault("versionTransformations", Collections.emptyMap());
-        } catch (IOException e) {
-            throw new RuntimeException("Could not read " + absProdJson, e);
-        }
-
-        /*
-         * Let's edit the pom.xml files out of the real source tree if we are just checking or pom editing is not
-         * desired
-         */
-        final Path workRoot = isChecking()
-                ? CqCommonUtils.copyPoms(
-                        basedir.toPath(),
-                        basedir.toPath().resolve("target/prod-excludes-work"),
-                        additionalFiles)
-                : basedir.toPath();
-
-        new PomTransformer(workRoot.resolve("product/pom.xml"), charset, simpleElementWhitespace)
-                .transform(Transformation.removeAllModules(null, true, true));
-        for (TestCategory testCategory : TestCategory.values()) {
-            final Path mixedModulePath = testCategory.resolveMixedModulePath(workRoot).getParent();
-            CqCommonUtils.deleteDirectory(mixedModulePath);
-        }
-        final Path catalogPomPath = workRoot.resolve("catalog/pom.xml");
-        /* Remove all virtual deps from the Catalog */
-        new PomTransformer(catalogPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.removeDependency(
-                        false,
-                        true,
-                        gavtcs -> gavtcs.isVirtual()));
-
-        final Path rootPomPath = workRoot.resolve("pom.xml");
-        final MavenSourceTree initialTree = MavenSourceTree.of(rootPomPath, charset, Dependency::isVirtual);
-        final Predicate<Profile> profiles = ActiveProfiles.of();
-
-        /* Re-link any previously commented modules */
-        final MavenSourceTree fullTree = initialTree.relinkModules(charset, simpleElementWhitespace, MODULE_COMMENT);
-
-        extensionsDocPages(docReferenceDir, majorVersion, communityGuideUrlTemplate, defaultCommunityGuide,
-                fullTree.getModulesByGa().keySet(), extensionsDocPages);
-
-        /* Add the modules required by the includes */
-        final Set<Ga> expandedIncludesWithoutTests = Collections
-                .unmodifiableSet(fullTree.findRequiredModules(includes, profiles));
-
-        updateVersions(fullTree, profiles, versionTransformations);
-
-        /* Tests */
-        final Map<Ga, Map<Ga, Set<Ga>>> uncoveredExtensions = new TreeMap<>();
-        final Map<Ga, TestCategory> tests = analyzeTests(fullTree, expandedIncludesWithoutTests, profiles, uncoveredExtensions,
-                allowedMixedTests, excludeTests);
-
-        /* Add the found product tests to the includes */
-        final Set<Ga> tempExpandedIncludesWithTests = new TreeSet<>(expandedIncludesWithoutTests);
-        tests.entrySet().stream()
-                .filter(en -> !en.getValue().mixed)
-                .map(Entry::getKey)
-                .forEach(tempExpandedIncludesWithTests::add);
-        /* The tests may require some additional modules */
-        final Set<Ga> expandedIncludesWithProdTests = fullTree.findRequiredModules(tempExpandedIncludesWithTests, profiles);
-
-        final Set<Ga> requiredCamelArtifacts = findRequiredCamelArtifacts(fullTree, expandedIncludesWithProdTests,
-                fullTree.getExpressionEvaluator(profiles));
-        writeProdReports(fullTree, expandedIncludesWithProdTests, profiles, requiredCamelArtifacts);
-
-        /* Comment all non-productized modules in the tree */
-        minimizeTree(workRoot, expandedIncludesWithProdTests, tests, profiles);
-
-        /* Fix the virtual deps in the Catalog */
-        final Set<Gavtcs> allVirtualExtensions = requiredExtensions.stream()
-                .map(ga -> new Gavtcs(ga.getGroupId(), ga.getArtifactId(), null))
-                .map(gavtcs -> gavtcs.toVirtual())
-                .collect(Collectors.toSet());
-        CqCommonUtils.updateVirtualDependencies(charset, simpleElementWhitespace, allVirtualExtensions, catalogPomPath);
-
-        /* Enable the mixed tests in special modules */
-        final TreeSet<Ga> expandedIncludesWithAllTests = updateMixedTests(fullTree, expandedIncludesWithProdTests, tests);
-
-        /* BOMs */
-        final Set<Ga> missingCamelArtifacts = updateBoms(fullTree, expandedIncludesWithAllTests, profiles,
-                requiredCamelArtifacts);
-
-        updateSuperApp(workRoot, requiredExtensions, fullTree.getRootModule().getGav().getVersion().asConstant());
-
-        /* Uncomment the product module and comment test modules */
-        new PomTransformer(workRoot.resolve("pom.xml"), charset, simpleElementWhitespace)
-                .transform(
-                        Transformation.uncommentModules(MODULE_COMMENT, m -> m.equals("product")));
-
-        /* Product guide links */
-        updateProductGuideLinks(workRoot, extensionsDocPages, fullTree, extensionYamlRelPath);
-
-        /* Make sure all excludeTests are excluded from the config in tooling/test-list/pom.xml */
-        excludeTestsFromTestList(workRoot, fullTree, workRoot.resolve("tooling/test-list/pom.xml"),
-                workRoot.resolve("integration-tests"), excludeTests);
-
-        /* Invoke transitive-deps mojo */
-        invokeTransitiveDependenciesMojo(workRoot);
-
-        if (isChecking()) {
-            final MavenSourceTree finalTree = MavenSourceTree.of(rootPomPath, charset, Dependency::isVirtual);
-            CqCommonUtils.assertPomsMatch(
-                    workRoot,
-                    basedir.toPath(),
-                    finalTree.getModulesByPath().keySet(),
-                    additionalFiles,
-                    charset,
-                    basedir.toPath(),
-                    productJson.toPath(),
-                    onCheckFailure,
-                    getLog()::warn);
-        }
+            phase.commit();
+
+            if (!missingCamelArtifacts.isEmpty()) {
+                throw new IllegalStateException(
+                        "The following Camel artifacts are not managed in in org.apache.camel:camel-bom:" + camelVersion
+                                + " but are required by extensions declared in "
+                                + CAMEL_QUARKUS_PRODUCT_SOURCE_JSON_PATH
+                                + ":\n - "
+                                + missingCamelArtifacts.stream()
+                                        .map(Ga::getArtifactId)
+                                        .collect(Collectors.joining("\n - ")));
+            }
 
-        if (!missingCamelArtifacts.isEmpty()) {
-            throw new IllegalStateException(
-                    "The following Camel artifacts are not managed in in org.apache.camel:camel-bom:" + camelVersion
-                            + " but are required by extensions declared in "
-                            + CAMEL_QUARKUS_PRODUCT_SOURCE_JSON_PATH
-                            + ":\n - "
-                            + missingCamelArtifacts.stream()
-                                    .map(Ga::getArtifactId)
-                                    .collect(Collectors.joining("\n - ")));
-        }
+            if (!uncoveredExtensions.isEmpty()) {
 
-        if (!uncoveredExtensions.isEmpty()) {
-
-            final StringBuilder sb = new StringBuilder("Unable to find tests for extensions:\n");
-            for (Entry<Ga, Map<Ga, Set<Ga>>> ext : uncoveredExtensions.entrySet()) {
-                sb.append(" - Extension ").append(ext.getKey().getArtifactId()).append(":\n");
-                if (ext.getValue().isEmpty()) {
-                    sb.append("   - no test found\n");
-                } else {
-                    for (Entry<Ga, Set<Ga>> test : ext.getValue().entrySet()) {
-                        sb.append("   - Test ").append(test.getKey().getArtifactId())
-                                .append(" has unsatisfied dependencies:\n");
-                        for (Ga dep : test.getValue()) {
-                            sb.append("     - ").append(dep.getArtifactId()).append("\n");
+                final StringBuilder sb = new StringBuilder("Unable to find tests for extensions:\n");
+                for (Entry<Ga, Map<Ga, Set<Ga>>> ext : uncoveredExtensions.entrySet()) {
+                    sb.append(" - Extension ").append(ext.getKey().getArtifactId()).append(":\n");
+                    if (ext.getValue().isEmpty()) {
+                        sb.append("   - no test found\n");
+                    } else {
+                        for (Entry<Ga, Set<Ga>> test : ext.getValue().entrySet()) {
+                            sb.append("   - Test ").append(test.getKey().getArtifactId())
+                                    .append(" has unsatisfied dependencies:\n");
+                            for (Ga dep : test.getValue()) {
+                                sb.append("     - ").append(dep.getArtifactId()).append("\n");
+                            }
                         }
                     }
                 }
-            }
 
-            sb.append(".\n\nConsider adding allowedMixedTests to the respective extension entries in ")
-                    .append(CAMEL_QUARKUS_PRODUCT_SOURCE_JSON_PATH)
-                    .append("\nand running mvn org.l2x6.cq:cq-prod-maven-plugin:prod-excludes -N after that\n\n");
-            throw new MojoFailureException(sb.toString());
+                sb.append(".\n\nConsider adding allowedMixedTests to the respective extension entries in ")
+                        .append(CAMEL_QUARKUS_PRODUCT_SOURCE_JSON_PATH)
+                        .append("\nand running mvn org.l2x6.cq:cq-prod-maven-plugin:prod-excludes -N after that\n\n");
+                throw new MojoFailureException(sb.toString());
+            }
+        } finally {
+            mojoSpan.end();
+            trace.write();
+            /* Report also on failure when the numbers are most interesting */
+            ResolutionMetrics.getInstance().report(goal, resolutionStart, getLog(),
+                    resolutionMetricsFile == null ? null : resolutionMetricsFile.toPath());
+            CqMetrics.getInstance().report(goal, metricsStart, getLog(),
+                    basePath.resolve("target/cq-metrics-" + goal + ".json"));
         }
-
     }
 
     static void extensionsDocPages(Path docReferenceDir, String majorVersion, String guideUrlTemplate,
@@ -658,30 +721,29 @@ public class ProdExcludesMojo extends AbstractMojo {
 
     void excludeTestsFromTestList(Path workRoot, MavenSourceTree fullTree, Path testListPomPath, Path integrationTestsDir,
             Set<Ga> excludeTests) {
-        new PomTransformer(testListPomPath, charset, simpleElementWhitespace).transform(
-                (Document document, TransformationContext context) -> {
-                    final NodeGavtcs rpkgtestsPluginElement = context.getContainerElement("project", "build", "plugins").get()
-                            .childElementsStream()
-                            .map(ContainerElement::asGavtcs)
-                            .filter(gav -> "org.l2x6.rpkgtests".equals(gav.getGroupId())
-                                    && "rpkgtests-maven-plugin".equals(gav.getArtifactId()))
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalStateException(
-                                    "Could not find org.l2x6.rpkgtests:rpkgtests-maven-plugin in " + testListPomPath));
-                    final Set<String> excludesToAdd = excludeTests.stream()
-                            .map(ga -> workRoot.resolve(fullTree.getModulesByGa().get(ga).getPomPath()))
-                            .map(pomPath -> integrationTestsDir.relativize(pomPath).toString().replace(File.separatorChar, '/'))
-                            .collect(Collectors.toCollection(TreeSet::new));
-                    final ContainerElement excludesElement = rpkgtestsPluginElement.getNode()
-                            .getChildContainerElement("configuration", "fileSets", "fileSet", "excludes").get();
-                    excludesElement
-                            .childElementsStream()
-                            .map(child -> child.getNode().getTextContent())
-                            .forEach(excludesToAdd::remove);
-                    if (!excludesToAdd.isEmpty()) {
-                        excludesToAdd.forEach(path -> excludesElement.addChildTextElement("exclude", path));
-                    }
-                });
+        pomEdits.transform(testListPomPath, (Document document, TransformationContext context) -> {
+            final NodeGavtcs rpkgtestsPluginElement = context.getContainerElement("project", "build", "plugins").get()
+                    .childElementsStream()
+                    .map(ContainerElement::asGavtcs)
+                    .filter(gav -> "org.l2x6.rpkgtests".equals(gav.getGroupId())
+                            && "rpkgtests-maven-plugin".equals(gav.getArtifactId()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Could not find org.l2x6.rpkgtests:rpkgtests-maven-plugin in " + testListPomPath));
+            final Set<String> excludesToAdd = excludeTests.stream()
+                    .map(ga -> workRoot.resolve(fullTree.getModulesByGa().get(ga).getPomPath()))
+                    .map(pomPath -> integrationTestsDir.relativize(pomPath).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toCollection(TreeSet::new));
+            final ContainerElement excludesElement = rpkgtestsPluginElement.getNode()
+                    .getChildContainerElement("configuration", "fileSets", "fileSet", "excludes").get();
+            excludesElement
+                    .childElementsStream()
+                    .map(child -> child.getNode().getTextContent())
+                    .forEach(excludesToAdd::remove);
+            if (!excludesToAdd.isEmpty()) {
+                excludesToAdd.forEach(path -> excludesElement.addChildTextElement("exclude", path));
+            }
+        });
     }
 
     void updateProductGuideLinks(
@@ -706,7 +768,7 @@ public class ProdExcludesMojo extends AbstractMojo {
                             final StringBuilder sb = new StringBuilder(src.length());
                             m.appendReplacement(sb, "guide: \"" + newUrl + "\"");
                             m.appendTail(sb);
-                            Files.write(extensionYaml, sb.toString().getBytes(charset));
+                            FileUpdater.write(extensionYaml, sb.toString(), charset);
                         }
                     }
                 } catch (IOException e) {
@@ -725,24 +787,21 @@ public class ProdExcludesMojo extends AbstractMojo {
     void updateSuperApp(Path workRoot, Set<Ga> requiredExtensions, String version) {
 
         final Path productPomPath = workRoot.resolve("product/pom.xml");
-        new PomTransformer(productPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.addModuleIfNeeded("superapp", String::compareTo));
+        pomEdits.transform(productPomPath, Transformation.addModuleIfNeeded("superapp", String::compareTo));
 
         final Path pomXmlPath = workRoot.resolve("product/superapp/pom.xml");
         initializeMixedTestsPom(pomXmlPath, "camel-quarkus-build-parent-it", version,
                 "../../poms/build-parent-it/pom.xml", "camel-quarkus-superapp",
                 "Camel Quarkus :: Superapp");
 
-        new PomTransformer(pomXmlPath, charset, simpleElementWhitespace)
-                .transform(
-                        Transformation.addOrSetProperty("enforcer.skip", "false"),
-                        Transformation.removeDependencies(null, true, true, gavtcs -> true),
-                        (Document document, TransformationContext context) -> {
-                            final ContainerElement deps = context.getOrAddContainerElements("dependencies");
-                            requiredExtensions.forEach(ga -> {
-                                deps.addGavtcs(new Gavtcs(ga.getGroupId(), ga.getArtifactId(), null));
-                            });
-                        });
+        pomEdits.transform(pomXmlPath, Transformation.addOrSetProperty("enforcer.skip", "false"),
+                Transformation.removeDependencies(null, true, true, gavtcs -> true),
+                (Document document, TransformationContext context) -> {
+                    final ContainerElement deps = context.getOrAddContainerElements("dependencies");
+                    requiredExtensions.forEach(ga -> {
+                        deps.addGavtcs(new Gavtcs(ga.getGroupId(), ga.getArtifactId(), null));
+                    });
+                });
     }
 
     void updateVersions(MavenSourceTree fullTree, Predicate<Profile> profiles, Map<String, String> versionTransformations) {
@@ -755,14 +814,12 @@ public class ProdExcludesMojo extends AbstractMojo {
                 final String moduleVersion = module.getParentGav().getVersion().asConstant();
                 if (!expectedVersion.equals(moduleVersion)) {
                     final Path pomPath = fullTree.getRootDirectory().resolve(module.getPomPath());
-                    new PomTransformer(pomPath, charset, simpleElementWhitespace)
-                            .transform(
-                                    (Document document, TransformationContext context) -> {
-                                        context
-                                                .getContainerElement("project", "parent")
-                                                .ifPresent(
-                                                        parent -> parent.addOrSetChildTextElement("version", expectedVersion));
-                                    });
+                    pomEdits.transform(pomPath, (Document document, TransformationContext context) -> {
+                        context
+                                .getContainerElement("project", "parent")
+                                .ifPresent(
+                                        parent -> parent.addOrSetChildTextElement("version", expectedVersion));
+                    });
                 }
             }
         }
@@ -775,8 +832,7 @@ public class ProdExcludesMojo extends AbstractMojo {
                     .getProperties().get("camel-quarkus.version");
             if (cqVersion != null && cqVersion.isConstant() && !cqVersion.asConstant().equals(expectedVersion)) {
                 final Path absPath = fullTree.getRootDirectory().resolve(relPath);
-                new PomTransformer(absPath, charset, simpleElementWhitespace)
-                        .transform(Transformation.addOrSetProperty("camel-quarkus.version", expectedVersion));
+                pomEdits.transform(absPath, Transformation.addOrSetProperty("camel-quarkus.version", expectedVersion));
             }
         }
 
@@ -795,12 +851,12 @@ public class ProdExcludesMojo extends AbstractMojo {
         }
         final Path rootPomPath = fullTree.getRootDirectory().resolve(rootModule.getPomPath());
         if (!transformations.isEmpty()) {
-            new PomTransformer(rootPomPath, charset, simpleElementWhitespace)
-                    .transform(transformations);
+            pomEdits.transform(rootPomPath, transformations);
         }
 
         if (mojoDescriptorCreator != null) {
             /* Do not test this */
+            pomEdits.flush();
             CqCommonUtils.syncVersions(rootPomPath, mojoDescriptorCreator, session, project, charset, simpleElementWhitespace,
                     localRepositoryPath,
                     getLog(), versionTransformations, repositories, repoSession, repoSystem);
@@ -814,12 +870,11 @@ public class ProdExcludesMojo extends AbstractMojo {
         final Set<String> testParentArtifactIds = testParents.stream().map(base -> "camel-quarkus-" + base)
                 .collect(Collectors.toSet());
         final Path rootPomPath = workRoot.resolve("pom.xml");
-        new PomTransformer(rootPomPath, charset, simpleElementWhitespace)
-                .transform(Transformation.commentModules(testParents, MODULE_COMMENT));
+        pomEdits.transform(rootPomPath, Transformation.commentModules(testParents, MODULE_COMMENT));
         final Set<Ga> expandedIncludesWithoutTests = expandedIncludes.stream()
                 .filter(ga -> !tests.containsKey(ga) && !testParentArtifactIds.contains(ga.getArtifactId()))
                 .collect(Collectors.toCollection(LinkedHashSet<Ga>::new));
-        final MavenSourceTree tree = MavenSourceTree.of(rootPomPath, charset);
+        final MavenSourceTree tree = pomEdits.loadSourceTree(rootPomPath);
         tree.unlinkModules(expandedIncludesWithoutTests, profiles, charset, simpleElementWhitespace,
                 (Set<String> unlinkModules) -> Transformation.commentModules(unlinkModules, MODULE_COMMENT));
     }
@@ -891,16 +946,11 @@ public class ProdExcludesMojo extends AbstractMojo {
 
         content = JENKINSFILE_PATTERN.matcher(content)
                 .replaceFirst("$1" + Matcher.quoteReplacement(stages + "                ") + "$3");
-        try {
-            Files.write(absJenkinsfilePath, content.getBytes(charset));
-        } catch (IOException e) {
-            throw new RuntimeException("Could not write to " + absJenkinsfilePath);
-        }
+        FileUpdater.write(absJenkinsfilePath, content, charset);
     }
 
     void removeAllModules(final Path pomXml) {
-        new PomTransformer(pomXml, charset, simpleElementWhitespace)
-                .transform(Transformation.removeAllModules("mixed", true, true));
+        pomEdits.transform(pomXml, Transformation.removeAllModules("mixed", true, true));
     }
 
     Set<Ga> updateBoms(MavenSourceTree tree, Set<Ga> expandedIncludes, Predicate<Profile> profiles,
@@ -953,8 +1003,7 @@ public class ProdExcludesMojo extends AbstractMojo {
                     }
                 }
                 if (!transformations.isEmpty()) {
-                    new PomTransformer(tree.getRootDirectory().resolve(module.getPomPath()), charset, simpleElementWhitespace)
-                            .transform(transformations);
+                    pomEdits.transform(tree.getRootDirectory().resolve(module.getPomPath()), transformations);
                 }
             }
         }
@@ -1020,7 +1069,7 @@ public class ProdExcludesMojo extends AbstractMojo {
         });
         Stream.of(transformations).forEach(transformationList::add);
 
-        new PomTransformer(destinationPath, charset, simpleElementWhitespace).transform(transformationList);
+        pomEdits.transform(destinationPath, transformationList);
 
         return destinationPath.getParent().getFileName().toString();
     }
@@ -1199,14 +1248,20 @@ public class ProdExcludesMojo extends AbstractMojo {
         }
 
         /* Install the poms so that Maven resolver can find them */
+        final TraceRecorder.Span installSpan = trace.span("installPoms");
         final Path rootPomPath = workRoot.resolve("pom.xml");
-        final MavenSourceTree finalTree = MavenSourceTree.of(rootPomPath, charset, Dependency::isVirtual);
-        finalTree.getModulesByGa().entrySet().stream().forEach(en -> {
-            final Ga ga = en.getKey();
-            final String relPath = en.getValue().getPomPath();
-            final Path absPath = workRoot.resolve(relPath);
-            CqCommonUtils.installArtifact(absPath, localRepositoryPath, ga.getGroupId(), ga.getArtifactId(), version, "pom");
-        });
+        try {
+            final MavenSourceTree finalTree = pomEdits.loadSourceTree(rootPomPath, Dependency::isVirtual);
+            finalTree.getModulesByGa().entrySet().stream().forEach(en -> {
+                final Ga ga = en.getKey();
+                final String relPath = en.getValue().getPomPath();
+                final Path absPath = workRoot.resolve(relPath);
+                CqCommonUtils.installArtifact(absPath, localRepositoryPath, ga.getGroupId(), ga.getArtifactId(), version,
+                        "pom");
+            });
+        } finally {
+            installSpan.end();
+        }
 
         new TransitiveDependenciesMojo(
                 version,
@@ -1221,7 +1276,8 @@ public class ProdExcludesMojo extends AbstractMojo {
                 repositories,
                 repoSystem,
                 repoSession,
-                getLog()).execute();
+                getLog(),
+                trace).execute();
     }
 
     public Set<Ga> findRequiredCamelArtifacts(MavenSourceTree tree, Set<Ga> expandedIncludes,
@@ -1236,7 +1292,7 @@ public class ProdExcludesMojo extends AbstractMojo {
         return Collections.unmodifiableSet(set);
     }
 
-    static void initializeMixedTestsPom(Path destinationPath, String parentArtifactId, String version, String parentPath,
+    void initializeMixedTestsPom(Path destinationPath, String parentArtifactId, String version, String parentPath,
             String artifactId, String name) {
         final Writer out = new StringWriter();
         try (Reader in = new InputStreamReader(
@@ -1253,12 +1309,7 @@ public class ProdExcludesMojo extends AbstractMojo {
                 .replace("${parentPath}", parentPath)
                 .replace("${artifactId}", artifactId)
                 .replace("${name}", name);
-        try {
-            Files.createDirectories(destinationPath.getParent());
-            Files.write(destinationPath, content.getBytes(StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            throw new RuntimeException("Could not write to " + destinationPath);
-        }
+        pomEdits.create(destinationPath, content);
     }
 
     static class TestGroup {
@@ -1352,8 +1403,8 @@ public class ProdExcludesMojo extends AbstractMojo {
             final List<TestGroup> groups = groupTests();
 
             final Path productPomPath = tree.getRootDirectory().resolve("product/pom.xml");
-            new PomTransformer(productPomPath, charset, simpleElementWhitespace)
-                    .transform(Transformation.addModuleIfNeeded("integration-tests-" + category.getKey(), String::compareTo));
+            pomEdits.transform(productPomPath,
+                    Transformation.addModuleIfNeeded("integration-tests-" + category.getKey(), String::compareTo));
 
             /* Init the category pom */
             final Path categoryPomPath = category.resolveMixedModulePath(tree.getRootDirectory());
@@ -1367,8 +1418,7 @@ public class ProdExcludesMojo extends AbstractMojo {
             final List<String> groupPaths = groups.stream()
                     .map(g -> "group-" + g.getHumanIndex())
                     .collect(Collectors.toList());
-            new PomTransformer(categoryPomPath, charset, simpleElementWhitespace)
-                    .transform(Transformation.addModules(profile, groupPaths));
+            pomEdits.transform(categoryPomPath, Transformation.addModules(profile, groupPaths));
 
             /* Create the group poms */
             groups.stream()
@@ -1379,9 +1429,22 @@ public class ProdExcludesMojo extends AbstractMojo {
                         initializeMixedTestsPom(groupPomPath, categoryArtifactId, version, "../pom.xml",
                                 categoryArtifactId + "-" + g,
                                 "Integration Tests :: " + group.getHumanName());
-                        new PomTransformer(groupPomPath, charset, simpleElementWhitespace)
-                                .transform(Transformation.addModules(null, group.tests));
+                        pomEdits.transform(groupPomPath, Transformation.addModules(null, group.tests));
                     });
+
+            /* Remove the groups left behind by previous runs */
+            final Path categoryDir = categoryPomPath.getParent();
+            if (Files.isDirectory(categoryDir)) {
+                try (Stream<Path> dirs = Files.list(categoryDir)) {
+                    dirs
+                            .filter(Files::isDirectory)
+                            .filter(dir -> dir.getFileName().toString().startsWith("group-"))
+                            .filter(dir -> !groupPaths.contains(dir.getFileName().toString()))
+                            .forEach(CqCommonUtils::deleteDirectory);
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not list " + categoryDir, e);
+                }
+            }
         }
 
     }
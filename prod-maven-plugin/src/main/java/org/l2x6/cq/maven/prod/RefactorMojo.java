@@ -29,7 +29,8 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.shared.utils.io.DirectoryScanner;
-import org.l2x6.pom.tuner.PomTransformer;
+import org.l2x6.cq.common.CqMetrics;
+import org.l2x6.cq.common.CqPomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.ContainerElement;
 import org.l2x6.pom.tuner.PomTransformer.NodeGavtcs;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
@@ -76,43 +77,50 @@ public class RefactorMojo extends AbstractMojo {
     /** {@inheritDoc} */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        charset = Charset.forName(encoding);
-
-        for (DirectoryScanner scanner : integrationTests) {
-            scanner.scan();
-            final Path base = scanner.getBasedir().toPath().toAbsolutePath().normalize();
-            for (String scannerPath : scanner.getIncludedFiles()) {
-                final Path pomXmlPath = base.resolve(scannerPath);
-
-                new PomTransformer(pomXmlPath, charset, simpleElementWhitespace).transform(
-                        (Document document, TransformationContext context) -> {
-                            final List<NodeGavtcs> virtualDeps = context.getDependencies().stream()
-                                    .filter(Gavtcs::isVirtualDeployment)
-                                    .collect(Collectors.toList());
-
-                            if (!virtualDeps.isEmpty()) {
-
-                                final ContainerElement profile = context
-                                        .getOrAddContainerElement("profiles")
-                                        .addChildContainerElement("profile");
-                                profile.addChildTextElement("id", "virtualDependencies", profile.getOrAddLastIndent());
-                                profile
-                                        .addChildContainerElement("activation")
-                                        .addChildContainerElement("property")
-                                        .addChildTextElement("name", "!noVirtualDependencies");
-
-                                final ContainerElement newDeps = profile
-                                        .addChildContainerElement("dependencies");
-                                for (NodeGavtcs dep : virtualDeps) {
-                                    final DocumentFragment fragment = dep.getNode()
-                                            .getFragment();
-                                    context.reIndent(fragment, context.getIndentationString() + context.getIndentationString()
-                                            + context.getIndentationString() + context.getIndentationString());
-                                    newDeps.addFragment(fragment);
+        final CqMetrics.Snapshot metricsStart = CqMetrics.getInstance().start();
+        try {
+            charset = Charset.forName(encoding);
+
+            for (DirectoryScanner scanner : integrationTests) {
+                scanner.scan();
+                final Path base = scanner.getBasedir().toPath().toAbsolutePath().normalize();
+                for (String scannerPath : scanner.getIncludedFiles()) {
+                    final Path pomXmlPath = base.resolve(scannerPath);
+
+                    new CqPomTransformer(pomXmlPath, charset, simpleElementWhitespace).transform(
+                            (Document document, TransformationContext context) -> {
+                                final List<NodeGavtcs> virtualDeps = context.getDependencies().stream()
+                                        .filter(Gavtcs::isVirtualDeployment)
+                                        .collect(Collectors.toList());
+
+                                if (!virtualDeps.isEmpty()) {
+
+                                    final ContainerElement profile = context
+                                            .getOrAddContainerElement("profiles")
+                                            .addChildContainerElement("profile");
+                                    profile.addChildTextElement("id", "virtualDependencies", profile.getOrAddLastIndent());
+                                    profile
+                                            .addChildContainerElement("activation")
+                                            .addChildContainerElement("property")
+                                            .addChildTextElement("name", "!noVirtualDependencies");
+
+                                    final ContainerElement newDeps = profile
+                                            .addChildContainerElement("dependencies");
+                                    for (NodeGavtcs dep : virtualDeps) {
+                                        final DocumentFragment fragment = dep.getNode()
+                                                .getFragment();
+                                        context.reIndent(fragment,
+                                                context.getIndentationString() + context.getIndentationString()
+                                                        + context.getIndentationString() + context.getIndentationString());
+                                        newDeps.addFragment(fragment);
+                                    }
                                 }
-                            }
-                        });
+                            });
+                }
             }
+        } finally {
+            CqMetrics.getInstance().report("refactor", metricsStart, getLog(),
+                    basedir.toPath().resolve("target/cq-metrics-refactor.json"));
         }
     }
 
@@ -78,7 +78,9 @@ import org.l2x6.cq.common.CqCatalog;
 import org.l2x6.cq.common.CqCatalog.Flavor;
 import org.l2x6.cq.common.CqCatalog.GavCqCatalog;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.GavCqCatalogPool;
 import org.l2x6.cq.maven.prod.SyncExtensionListMojo.Sheet.Record;
+import org.l2x6.pom.tuner.model.Gav;
 
 /**
  * Updates a Google Sheet containing CQ extensions based on the data from a specified CQ Catalog
@@ -147,10 +149,14 @@ public class SyncExtensionListMojo extends AbstractMojo {
                     getCredentials(HTTP_TRANSPORT, JSON_FACTORY, SCOPES))
                             .setApplicationName(APPLICATION_NAME)
                             .build();
-            try (GavCqCatalog camelCatalog = GavCqCatalog.open(localRepositoryPath, Flavor.camel, camelVersion, repositories,
-                    repoSystem, repoSession);
-                    GavCqCatalog camelQuarkusCatalog = GavCqCatalog.open(localRepositoryPath, Flavor.camelQuarkus,
-                            camelQuarkusVersion, repositories, repoSystem, repoSession)) {
+            final Gav camelGav = Flavor.camel.toGav(camelVersion);
+            final Gav camelQuarkusGav = Flavor.camelQuarkus.toGav(camelQuarkusVersion);
+            final Map<Gav, Path> catalogJars = CqCommonUtils.resolveArtifacts(localRepositoryPath,
+                    Arrays.asList(camelGav, camelQuarkusGav), "jar", repositories, repoSystem, repoSession);
+            final GavCqCatalogPool catalogPool = GavCqCatalogPool.of(repoSession);
+            try (GavCqCatalog camelCatalog = catalogPool.open(Flavor.camel, camelVersion, catalogJars.get(camelGav));
+                    GavCqCatalog camelQuarkusCatalog = catalogPool.open(Flavor.camelQuarkus, camelQuarkusVersion,
+                            catalogJars.get(camelQuarkusGav))) {
 
                 Map<Kind, Map<String, NativeSupport>> nativeSupportsMap = new HashMap<>();
 
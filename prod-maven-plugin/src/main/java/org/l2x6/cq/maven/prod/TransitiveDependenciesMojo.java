@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -41,8 +42,9 @@ import org.eclipse.aether.graph.DependencyNode;
 import org.eclipse.aether.graph.DependencyVisitor;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.l2x6.cq.common.CqCommonUtils;
+import org.l2x6.cq.common.CqPomTransformer;
+import org.l2x6.cq.common.TraceRecorder;
 import org.l2x6.cq.maven.prod.ProdExcludesMojo.CamelEdition;
-import org.l2x6.pom.tuner.PomTransformer;
 import org.l2x6.pom.tuner.PomTransformer.ContainerElement;
 import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
 import org.l2x6.pom.tuner.PomTransformer.TransformationContext;
@@ -136,12 +138,15 @@ public class TransitiveDependenciesMojo {
 
     private final Log log;
 
+    private final TraceRecorder trace;
+
     public TransitiveDependenciesMojo(String version, String camelQuarkusCommunityVersion, Path basedir, Charset charset,
             Path productizedDependenciesFile, Path allDependenciesFile, Path nonProductizedDependenciesFile,
             Map<String, String> additionalExtensionDependencies, SimpleElementWhitespace simpleElementWhitespace,
             List<RemoteRepository> repositories, RepositorySystem repoSystem,
             RepositorySystemSession repoSession,
-            Log log) {
+            Log log,
+            TraceRecorder trace) {
         this.version = version;
         this.camelQuarkusCommunityVersion = camelQuarkusCommunityVersion;
         this.basedir = basedir;
@@ -155,6 +160,7 @@ public class TransitiveDependenciesMojo {
         this.repoSystem = repoSystem;
         this.repoSession = repoSession;
         this.log = log;
+        this.trace = trace;
     }
 
     public void execute() {
@@ -223,12 +229,16 @@ public class TransitiveDependenciesMojo {
                     final CollectRequest request = new CollectRequest()
                             .setRepositories(repositories)
                             .setRoot(new org.eclipse.aether.graph.Dependency(artifact, null));
+                    final TraceRecorder.Span span = trace.span("collectDependencies",
+                            Collections.singletonMap("artifactId", artifactId.getKey()));
                     try {
                         final DependencyNode rootNode = repoSystem.collectDependencies(repoSession, request).getRoot();
                         collector.isProd = isProd;
                         rootNode.accept(collector);
                     } catch (DependencyCollectionException e) {
                         throw new RuntimeException("Could not resolve dependencies", e);
+                    } finally {
+                        span.end();
                     }
                 });
 
@@ -311,14 +321,14 @@ public class TransitiveDependenciesMojo {
                 .collect(Collectors.toCollection(TreeSet::new));
         write(nonProdTransitives, nonProductizedDependenciesFile);
 
-        updateCamelQuarkusBom(prodTransitiveGas);
+        trace.time("updateCamelQuarkusBom", () -> updateCamelQuarkusBom(prodTransitiveGas));
     }
 
     void updateCamelQuarkusBom(Set<Ga> prodTransitiveGas) {
 
         final Path bomPath = basedir.resolve("poms/bom/pom.xml");
         log.info("Updating Camel versions in " + bomPath);
-        new PomTransformer(bomPath, charset, simpleElementWhitespace)
+        new CqPomTransformer(bomPath, charset, simpleElementWhitespace)
                 .transform((Document document, TransformationContext context) -> {
 
                     context.getContainerElement("project", "dependencyManagement", "dependencies").get()